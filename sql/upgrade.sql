@@ -0,0 +1,24 @@
+-- 既存のデータベースに対して実行するスキーマ変更
+-- (新規に作成するデータベースは persistence.xml の schema-generation により作成されるため不要)
+
+-- 従業員ごとの日報一覧をidの降順でページ送りするためのインデックス
+CREATE INDEX idx_reports_employee_id_id ON reports (employee_id, id);
+
+-- 日報一覧画面のバリデータ(ETag・Last-Modified)に使用する最終更新日時を、全件を読まずに取得するためのインデックス
+CREATE INDEX idx_reports_updated_at ON reports (updated_at);
+
+-- 従業員ごとの日報件数
+CREATE TABLE report_counters (
+    employee_id INT NOT NULL,
+    report_count BIGINT NOT NULL,
+    PRIMARY KEY (employee_id)
+);
+
+-- 全従業員の日報件数を登録しておく
+-- (起動時の補正処理で従業員ごとに登録すると、全員分が揃うまでの間は合計が実際の件数より少なくなるため)
+INSERT INTO report_counters (employee_id, report_count)
+SELECT e.id, COUNT(r.id) FROM employees e LEFT JOIN reports r ON r.employee_id = e.id GROUP BY e.id;
+
+-- パスワードをPBKDF2("pbkdf2$繰り返し回数$ソルト$ハッシュ値")で保存するため桁数を広げる
+-- (SHA-256で保存済みのパスワードは、各従業員の次回ログイン時にPBKDF2でハッシュ化し直される)
+ALTER TABLE employees MODIFY password VARCHAR(128) NOT NULL;
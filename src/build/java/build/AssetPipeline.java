@@ -0,0 +1,148 @@
+package build;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+import constants.AssetConst;
+
+//静的ファイル(CSS)をwarに含める前に加工するビルド時の処理(mvn package の process-classes フェーズで実行する)
+//warには含めず、ビルド時にソースファイルのまま実行する(アプリケーションのクラスはクラスパスから参照する)
+//ファイル名に内容のハッシュ値を付けたファイルと、そのgzip圧縮版を作成し、元のファイル名との対応をマニフェストに出力する
+//(内容が変わるとURLが変わるため、ブラウザには期限なしでキャッシュさせることができる)
+public class AssetPipeline {
+
+    //ファイル名に付けるハッシュ値の桁数(16進数)
+    private static final int HASH_LENGTH = 16;
+
+    /**
+     * 静的ファイルを加工する
+     * @param args [0] webアプリケーションのディレクトリ(src/main/webapp) [1] 出力先のディレクトリ(warに追加する)
+     *             [2]以降 加工するディレクトリ(webアプリケーションのディレクトリからのパス 例: css)
+     * @throws IOException
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            throw new IllegalArgumentException("usage: AssetPipeline <webappDir> <outputDir> <dir>...");
+        }
+        Path webappDir = Paths.get(args[0]);
+        Path outputDir = Paths.get(args[1]);
+
+        //前回のビルドで作成したファイル(内容が変わる前のもの)は削除する
+        Path assetDir = outputDir.resolve(AssetConst.ASSET_DIR);
+        if (Files.isDirectory(assetDir)) {
+            try (Stream<Path> stream = Files.walk(assetDir)) {
+                List<Path> old = new ArrayList<Path>();
+                stream.forEach(old::add);
+                Collections.reverse(old);
+                for (Path path : old) {
+                    Files.delete(path);
+                }
+            }
+        }
+
+        List<String> manifest = new ArrayList<String>();
+        for (int i = 2; i < args.length; i++) {
+            Path sourceDir = webappDir.resolve(args[i]);
+            if (!Files.isDirectory(sourceDir)) {
+                continue;
+            }
+
+            List<Path> files = new ArrayList<Path>();
+            try (Stream<Path> stream = Files.walk(sourceDir)) {
+                stream.filter(Files::isRegularFile).forEach(files::add);
+            }
+            for (Path file : files) {
+                String name = webappDir.relativize(file).toString().replace('\\', '/');
+                manifest.add(name + "=" + process(file, name, outputDir));
+            }
+        }
+
+        //ビルドごとに同じ内容になるよう、ファイル名の順に出力する
+        Collections.sort(manifest);
+        Path manifestFile = outputDir.resolve(AssetConst.MANIFEST);
+        Files.createDirectories(manifestFile.getParent());
+        try (Writer writer = Files.newBufferedWriter(manifestFile, StandardCharsets.UTF_8)) {
+            for (String line : manifest) {
+                writer.write(line);
+                writer.write('\n');
+            }
+        }
+    }
+
+    /**
+     * 1ファイルを加工する(圧縮版は元のファイルより小さくなる場合のみ作成する)
+     * @param file 元のファイル
+     * @param name 元のファイル名(webアプリケーションのディレクトリからのパス 例: css/style.css)
+     * @param outputDir 出力先のディレクトリ
+     * @return 加工したファイル名(assetsディレクトリからのパス 例: css/style.0123456789abcdef.css)
+     * @throws IOException
+     */
+    private static String process(Path file, String name, Path outputDir) throws IOException {
+        byte[] content = Files.readAllBytes(file);
+
+        int slash = name.lastIndexOf('/');
+        int dot = name.lastIndexOf('.');
+        String hashed = dot > slash
+                ? name.substring(0, dot) + "." + hash(content) + name.substring(dot)
+                : name + "." + hash(content);
+
+        Path target = outputDir.resolve(AssetConst.ASSET_DIR).resolve(hashed);
+        Files.createDirectories(target.getParent());
+        Files.write(target, content);
+
+        byte[] compressed = gzip(content);
+        if (compressed.length < content.length) {
+            Files.write(target.resolveSibling(target.getFileName() + AssetConst.GZIP_SUFFIX), compressed);
+        }
+        return hashed;
+    }
+
+    /**
+     * ファイルの内容のハッシュ値(SHA-256の先頭)を返却する
+     * @param content ファイルの内容
+     * @return ハッシュ値(16進数)
+     */
+    private static String hash(byte[] content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; sb.length() < HASH_LENGTH; i++) {
+                sb.append(String.format("%02x", digest[i]));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 最大の圧縮レベルでgzip形式に圧縮する(ビルド時に1度だけ行うため、圧縮にかかる時間は問わない)
+     * @param content ファイルの内容
+     * @return 圧縮した内容
+     * @throws IOException
+     */
+    private static byte[] gzip(byte[] content) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            gzip.write(content);
+        }
+        return out.toByteArray();
+    }
+}
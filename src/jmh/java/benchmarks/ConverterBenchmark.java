@@ -0,0 +1,71 @@
+package benchmarks;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import actions.views.EmployeeConverter;
+import actions.views.EmployeeView;
+import actions.views.ReportConverter;
+import actions.views.ReportView;
+import constants.JpaConst;
+import models.Employee;
+import models.Report;
+
+/**
+ * DTOモデルとViewモデルの相互変換の処理時間を測定する
+ * (一覧画面1ページ分の変換と、1件ずつの往復変換)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ConverterBenchmark {
+
+    private Employee employee;
+
+    private EmployeeView employeeView;
+
+    private ReportView reportView;
+
+    //一覧画面1ページ分の日報
+    private List<Report> reports;
+
+    @Setup
+    public void setup() {
+        LocalDateTime now = LocalDateTime.now();
+        employee = new Employee(1, "0001", "ベンチマーク", "pbkdf2$120000$c2FsdA==$aGFzaA==", 0, now, now, 0);
+        employeeView = EmployeeConverter.toView(employee);
+
+        reports = new ArrayList<>();
+        for (int i = 0; i < JpaConst.ROW_PER_PAGE; i++) {
+            reports.add(new Report(i + 1, employee, LocalDate.of(2021, 4, 1).plusDays(i), "日報" + i,
+                    "本日は顧客訪問と資料作成を行いました。", now, now));
+        }
+        reportView = ReportConverter.toView(reports.get(0));
+    }
+
+    @Benchmark
+    public List<ReportView> reportToViewList() {
+        return ReportConverter.toViewList(reports);
+    }
+
+    @Benchmark
+    public ReportView reportRoundTrip() {
+        return ReportConverter.toView(ReportConverter.toModel(reportView));
+    }
+
+    @Benchmark
+    public EmployeeView employeeRoundTrip() {
+        return EmployeeConverter.toView(EmployeeConverter.toModel(employeeView));
+    }
+}
@@ -0,0 +1,97 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import actions.ActionBase;
+import constants.ForwardConst;
+import controllers.FrontController;
+import controllers.RouteRegistry;
+
+/**
+ * フロントコントローラがリクエストパラメータから実行するActionクラスとメソッドを決める処理の時間を測定する
+ * resolve* は経路表の検索のみ、frontController* はActionクラスの作成からメソッドの実行までを測定する
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DispatchBenchmark {
+
+    private FrontController frontController;
+
+    //ログアウト(DBにアクセスしない経路)のリクエスト
+    private HttpServletRequest logoutRequest;
+
+    //該当する経路がないリクエスト
+    private HttpServletRequest unknownRequest;
+
+    private HttpServletResponse response;
+
+    @Setup
+    public void setup() throws Exception {
+        //Actionクラスはサービスを作成するため、DBの接続設定を行っておく
+        EmbeddedDatabase.start();
+
+        frontController = new FrontController();
+        frontController.init(StubServlet.config());
+
+        Map<String, String> logout = new HashMap<>();
+        logout.put(ForwardConst.ACT.getValue(), ForwardConst.ACT_AUTH.getValue());
+        logout.put(ForwardConst.CMD.getValue(), ForwardConst.CMD_LOGOUT.getValue());
+        logoutRequest = StubServlet.request("GET", logout);
+
+        Map<String, String> unknown = new HashMap<>();
+        unknown.put(ForwardConst.ACT.getValue(), ForwardConst.ACT_REP.getValue());
+        unknown.put(ForwardConst.CMD.getValue(), "unknown");
+        unknownRequest = StubServlet.request("GET", unknown);
+
+        response = StubServlet.response();
+    }
+
+    @TearDown
+    public void tearDown() {
+        EmbeddedDatabase.stop();
+    }
+
+    @Benchmark
+    public ActionBase resolveKnown() {
+        RouteRegistry.Route route = RouteRegistry.resolve(ForwardConst.ACT_REP.getValue(),
+                ForwardConst.CMD_INDEX.getValue());
+        return route.createAction();
+    }
+
+    @Benchmark
+    public RouteRegistry.Route resolveUnknown() {
+        return RouteRegistry.resolve(ForwardConst.ACT_REP.getValue(), "unknown");
+    }
+
+    @Benchmark
+    public RouteRegistry.Access classify() {
+        return RouteRegistry.classify(ForwardConst.ACT_AUTH.getValue(), ForwardConst.CMD_SHOW_LOGIN.getValue());
+    }
+
+    @Benchmark
+    public void frontControllerLogout() throws ServletException, IOException {
+        frontController.service(logoutRequest, response);
+    }
+
+    @Benchmark
+    public void frontControllerUnknown() throws ServletException, IOException {
+        frontController.service(unknownRequest, response);
+    }
+}
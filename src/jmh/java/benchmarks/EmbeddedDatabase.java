@@ -0,0 +1,93 @@
+package benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import actions.views.EmployeeView;
+import constants.AttributeConst;
+import constants.PropertyConst;
+import services.EmployeeService;
+import services.ReportImportReader;
+import services.ReportService;
+import utilties.DB_Utility;
+import utilties.PropertyUtil;
+
+//ベンチマーク用の組み込みDB(H2をMySQL互換モードで使用する)
+//application.properties の hibernate.* をシステムプロパティで上書きして接続先を切り替え、
+//従業員と日報のデータを登録する
+final class EmbeddedDatabase {
+
+    //登録する日報の件数
+    static final int REPORT_COUNT = 10000;
+
+    //登録する従業員の社員番号
+    private static final String EMP_CODE = "bench";
+
+    //ログイン中の従業員として扱う従業員
+    private static EmployeeView employee;
+
+    private EmbeddedDatabase() {
+    }
+
+    /**
+     * 組み込みDBに接続し、データを登録する(登録済みの場合は何もしない)
+     * @return 日報を作成した従業員
+     * @throws IOException
+     */
+    static synchronized EmployeeView start() throws IOException {
+        if (employee != null) {
+            return employee;
+        }
+
+        System.setProperty("hibernate.dialect", "org.hibernate.dialect.H2Dialect");
+        System.setProperty("hibernate.hikari.jdbcUrl", "jdbc:h2:mem:bench;MODE=MySQL;DB_CLOSE_DELAY=-1");
+        System.setProperty("hibernate.hikari.driverClassName", "org.h2.Driver");
+        System.setProperty("hibernate.hikari.username", "sa");
+        System.setProperty("hibernate.hikari.password", "");
+        DB_Utility.init();
+
+        String pepper = PropertyUtil.getValue(PropertyConst.PEPPER);
+
+        EmployeeService employeeService = new EmployeeService();
+        try {
+            employeeService.create(new EmployeeView(null, EMP_CODE, "ベンチマーク", "password",
+                    AttributeConst.ROLE_ADMIN.getIntegerValue(), null, null,
+                    AttributeConst.DEL_FLAG_FALSE.getIntegerValue()), pepper);
+            employee = employeeService.authenticate(EMP_CODE, "password", pepper);
+        } finally {
+            employeeService.close();
+        }
+
+        //日報は一括登録と同じ処理でまとめて登録する
+        StringBuilder csv = new StringBuilder("report_date,title,content\r\n");
+        LocalDate day = LocalDate.of(2021, 4, 1);
+        for (int i = 0; i < REPORT_COUNT; i++) {
+            csv.append(day.plusDays(i % 365)).append(",日報").append(i)
+                    .append(",本日は顧客訪問と資料作成を行いました。\r\n");
+        }
+
+        ReportService reportService = new ReportService();
+        try {
+            ReportService.ImportResult result = reportService.importReports(employee,
+                    new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8)),
+                    ReportImportReader.Format.CSV);
+            if (result.isFailed()) {
+                throw new IllegalStateException("日報の登録に失敗しました");
+            }
+        } finally {
+            reportService.close();
+        }
+
+        return employee;
+    }
+
+    /**
+     * 組み込みDBとの接続を閉じる
+     */
+    static synchronized void stop() {
+        DB_Utility.close();
+        employee = null;
+    }
+}
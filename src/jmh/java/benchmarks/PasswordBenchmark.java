@@ -0,0 +1,59 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import utilties.EncryptUtil;
+
+/**
+ * パスワードのハッシュ化と照合の処理時間を測定する
+ * (PBKDF2はログイン1回あたりのCPU時間がそのままかかるため、繰り返し回数を変更した場合はここで確認する)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PasswordBenchmark {
+
+    private static final String PEPPER = "6Ab3mtmG";
+
+    private static final String PASSWORD = "password";
+
+    //照合に使用するPBKDF2のハッシュ値
+    private String storedHash;
+
+    //照合に使用する旧形式(SHA-256)のハッシュ値
+    private String legacyHash;
+
+    @Setup
+    public void setup() {
+        storedHash = EncryptUtil.getPasswordHash(PASSWORD, PEPPER);
+        legacyHash = EncryptUtil.getPasswordEncrypt(PASSWORD, PEPPER);
+    }
+
+    @Benchmark
+    public String legacyEncrypt() {
+        return EncryptUtil.getPasswordEncrypt(PASSWORD, PEPPER);
+    }
+
+    @Benchmark
+    public boolean legacyVerify() {
+        return EncryptUtil.verifyPassword(PASSWORD, PEPPER, legacyHash);
+    }
+
+    @Benchmark
+    public String pbkdf2Hash() {
+        return EncryptUtil.getPasswordHash(PASSWORD, PEPPER);
+    }
+
+    @Benchmark
+    public boolean pbkdf2Verify() {
+        return EncryptUtil.verifyPassword(PASSWORD, PEPPER, storedHash);
+    }
+}
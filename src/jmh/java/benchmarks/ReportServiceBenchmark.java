@@ -0,0 +1,121 @@
+package benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import actions.views.EmployeeView;
+import actions.views.ReportView;
+import constants.JpaConst;
+import services.ReportService;
+
+/**
+ * 日報一覧の取得と件数の取得にかかる時間を、組み込みDB(H2)に対して測定する
+ * Actionクラスと同じく1回の呼び出しごとにサービスを作成して閉じる
+ * (二次キャッシュ・クエリキャッシュは application.properties の設定のまま使用する)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ReportServiceBenchmark {
+
+    //ページ番号を指定して取得する場合に、件数分読み飛ばす深いページ(どちらの端からも最も遠い中央のページ)
+    private static final int DEEP_PAGE = EmbeddedDatabase.REPORT_COUNT / JpaConst.ROW_PER_PAGE / 2;
+
+    //最後のページ(古い方から数えて取得するため、先頭のページと同じく読み飛ばす行がない)
+    private static final int LAST_PAGE = (EmbeddedDatabase.REPORT_COUNT - 1) / JpaConst.ROW_PER_PAGE + 1;
+
+    private EmployeeView employee;
+
+    //カーソルとして使用する日報のid(全件の中央付近)
+    private int cursor;
+
+    @Setup
+    public void setup() throws Exception {
+        employee = EmbeddedDatabase.start();
+        cursor = EmbeddedDatabase.REPORT_COUNT / 2;
+    }
+
+    @TearDown
+    public void tearDown() {
+        EmbeddedDatabase.stop();
+    }
+
+    @Benchmark
+    public List<ReportView> getAllFirstPage() {
+        ReportService service = new ReportService();
+        try {
+            return service.getAllPerPage(1, EmbeddedDatabase.REPORT_COUNT);
+        } finally {
+            service.close();
+        }
+    }
+
+    @Benchmark
+    public List<ReportView> getAllDeepPage() {
+        ReportService service = new ReportService();
+        try {
+            return service.getAllPerPage(DEEP_PAGE, EmbeddedDatabase.REPORT_COUNT);
+        } finally {
+            service.close();
+        }
+    }
+
+    @Benchmark
+    public List<ReportView> getAllLastPage() {
+        ReportService service = new ReportService();
+        try {
+            return service.getAllPerPage(LAST_PAGE, EmbeddedDatabase.REPORT_COUNT);
+        } finally {
+            service.close();
+        }
+    }
+
+    @Benchmark
+    public List<ReportView> getAllAfterCursor() {
+        ReportService service = new ReportService();
+        try {
+            return service.getAllAfter(cursor, 0);
+        } finally {
+            service.close();
+        }
+    }
+
+    @Benchmark
+    public long countAll() {
+        ReportService service = new ReportService();
+        try {
+            return service.countAll();
+        } finally {
+            service.close();
+        }
+    }
+
+    @Benchmark
+    public List<ReportView> getMineFirstPage() {
+        ReportService service = new ReportService();
+        try {
+            return service.getMinePerPage(employee, 1, EmbeddedDatabase.REPORT_COUNT);
+        } finally {
+            service.close();
+        }
+    }
+
+    @Benchmark
+    public long countAllMine() {
+        ReportService service = new ReportService();
+        try {
+            return service.countAllMine(employee);
+        } finally {
+            service.close();
+        }
+    }
+}
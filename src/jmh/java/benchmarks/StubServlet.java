@@ -0,0 +1,152 @@
+package benchmarks;
+
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.servlet.RequestDispatcher;
+import javax.servlet.ServletConfig;
+import javax.servlet.ServletContext;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+
+//サーブレットコンテナを起動せずにフロントコントローラを呼び出すための、最低限の動作のみ行うリクエスト・レスポンス
+//(属性の保持とパラメータの返却のみ行い、フォワードとリダイレクトは何もしない)
+final class StubServlet {
+
+    private StubServlet() {
+    }
+
+    /**
+     * リクエストを作成する
+     * @param method HTTPメソッド
+     * @param parameters パラメータ
+     * @return リクエスト
+     */
+    static HttpServletRequest request(String method, Map<String, String> parameters) {
+        Map<String, Object> attributes = new HashMap<>();
+        HttpSession session = session();
+        RequestDispatcher dispatcher = proxy(RequestDispatcher.class, (name, args) -> null);
+
+        return proxy(HttpServletRequest.class, (name, args) -> {
+            switch (name) {
+            case "getMethod":
+                return method;
+            case "getParameter":
+                return parameters.get(args[0]);
+            case "getAttribute":
+                return attributes.get(args[0]);
+            case "setAttribute":
+                return attributes.put((String) args[0], args[1]);
+            case "removeAttribute":
+                return attributes.remove(args[0]);
+            case "getSession":
+                return session;
+            case "getRequestDispatcher":
+                return dispatcher;
+            case "getContextPath":
+            case "getServletPath":
+                return "";
+            case "getProtocol":
+                return "HTTP/1.1";
+            case "getRemoteAddr":
+                return "127.0.0.1";
+            default:
+                return null;
+            }
+        });
+    }
+
+    /**
+     * レスポンスを作成する
+     * @return レスポンス
+     */
+    static HttpServletResponse response() {
+        return proxy(HttpServletResponse.class, (name, args) -> {
+            if ("isCommitted".equals(name)) {
+                return false;
+            }
+            return null;
+        });
+    }
+
+    /**
+     * サーブレットの初期化に使用する設定を作成する
+     * @return サーブレットの設定
+     */
+    static ServletConfig config() {
+        Map<String, Object> attributes = new HashMap<>();
+        ServletContext context = proxy(ServletContext.class, (name, args) -> {
+            switch (name) {
+            case "getAttribute":
+                return attributes.get(args[0]);
+            case "setAttribute":
+                return attributes.put((String) args[0], args[1]);
+            case "getContextPath":
+                return "";
+            default:
+                return null;
+            }
+        });
+
+        return proxy(ServletConfig.class, (name, args) -> {
+            switch (name) {
+            case "getServletContext":
+                return context;
+            case "getServletName":
+                return "FrontController";
+            default:
+                return null;
+            }
+        });
+    }
+
+    /**
+     * セッションを作成する
+     * @return セッション
+     */
+    private static HttpSession session() {
+        Map<String, Object> attributes = new HashMap<>();
+
+        return proxy(HttpSession.class, (name, args) -> {
+            switch (name) {
+            case "getId":
+                return "bench";
+            case "getAttribute":
+                return attributes.get(args[0]);
+            case "setAttribute":
+                return attributes.put((String) args[0], args[1]);
+            case "removeAttribute":
+                return attributes.remove(args[0]);
+            default:
+                return null;
+            }
+        });
+    }
+
+    /**
+     * メソッド名と引数のみで応答するインスタンスを作成する
+     * @param type インターフェース
+     * @param handler メソッド名と引数を受け取り戻り値を返す処理
+     * @return インスタンス
+     */
+    private static <T> T proxy(Class<T> type, Handler handler) {
+        return type.cast(Proxy.newProxyInstance(StubServlet.class.getClassLoader(), new Class<?>[] { type },
+                (proxy, method, args) -> {
+                    Object result = handler.handle(method.getName(), args);
+                    if (result == null && method.getReturnType() == boolean.class) {
+                        return false;
+                    }
+                    if (result == null && method.getReturnType() == int.class) {
+                        return 0;
+                    }
+                    return result;
+                }));
+    }
+
+    //メソッド名と引数から戻り値を返す処理
+    private interface Handler {
+        Object handle(String name, Object[] args);
+    }
+}
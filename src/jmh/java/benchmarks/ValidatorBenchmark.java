@@ -0,0 +1,64 @@
+package benchmarks;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import actions.views.EmployeeView;
+import actions.views.ReportView;
+import models.validators.EmployeeValidator;
+import models.validators.ReportValidator;
+
+/**
+ * 入力値チェックの処理時間を測定する
+ * (社員番号の重複チェックはDBにアクセスするため含めない)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ValidatorBenchmark {
+
+    private ReportView validReport;
+
+    private ReportView invalidReport;
+
+    private EmployeeView validEmployee;
+
+    private EmployeeView invalidEmployee;
+
+    @Setup
+    public void setup() {
+        validReport = new ReportView(null, null, LocalDate.of(2021, 4, 1), "日報", "本日は顧客訪問を行いました。", null, null);
+        invalidReport = new ReportView(null, null, LocalDate.of(2021, 4, 1), "", "", null, null);
+        validEmployee = new EmployeeView(null, "0001", "ベンチマーク", "password", 0, null, null, 0);
+        invalidEmployee = new EmployeeView(null, "", "", "", 0, null, null, 0);
+    }
+
+    @Benchmark
+    public List<String> reportValid() {
+        return ReportValidator.validate(validReport);
+    }
+
+    @Benchmark
+    public List<String> reportInvalid() {
+        return ReportValidator.validate(invalidReport);
+    }
+
+    @Benchmark
+    public List<String> employeeValid() {
+        return EmployeeValidator.validate(null, validEmployee, false, true);
+    }
+
+    @Benchmark
+    public List<String> employeeInvalid() {
+        return EmployeeValidator.validate(null, invalidEmployee, false, true);
+    }
+}
@@ -0,0 +1,25 @@
+package loadtest;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+//仮想ユーザーがログインに使用する従業員と、その従業員が作成した日報のidの範囲
+@Getter
+@AllArgsConstructor
+final class Account {
+
+    //従業員のid
+    private final int employeeId;
+
+    //社員番号
+    private final String code;
+
+    //管理者かどうか
+    private final boolean admin;
+
+    //作成した日報のidの最小値(日報がない場合0)
+    private final int firstReportId;
+
+    //作成した日報のidの最大値(日報がない場合0)
+    private final int lastReportId;
+}
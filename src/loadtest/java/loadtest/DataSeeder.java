@@ -0,0 +1,192 @@
+package loadtest;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import constants.JpaConst;
+import constants.PropertyConst;
+import utilties.EncryptUtil;
+import utilties.PropertyUtil;
+
+//組み込みDBに従業員と日報のデータをJDBCで直接登録するクラス
+//(アプリケーションがテーブルを作成した後に呼び出す)
+final class DataSeeder {
+
+    //全従業員に共通のパスワード
+    static final String PASSWORD = "password";
+
+    //1回のバッチで送信する件数
+    private static final int BATCH_SIZE = 1000;
+
+    private final LoadTestConfig config;
+
+    private final String jdbcUrl;
+
+    DataSeeder(LoadTestConfig config, String jdbcUrl) {
+        this.config = config;
+        this.jdbcUrl = jdbcUrl;
+    }
+
+    /**
+     * 従業員と日報を登録し、仮想ユーザーがログインに使用するアカウントを返却する
+     * @return アカウントのリスト(従業員のidの昇順)
+     * @throws SQLException
+     */
+    List<Account> seed() throws SQLException {
+        try (Connection con = DriverManager.getConnection(jdbcUrl, "sa", "")) {
+            con.setAutoCommit(false);
+
+            insertEmployees(con);
+            insertReports(con, loadEmployeeIds(con));
+
+            //日報件数テーブルは登録した日報から作成する(起動時の補正処理と重なっても結果は同じになる)
+            try (Statement st = con.createStatement()) {
+                st.executeUpdate("MERGE INTO " + JpaConst.TABLE_REP_CNT
+                        + " (" + JpaConst.REP_CNT_COL_EMP + ", " + JpaConst.REP_CNT_COL_COUNT + ")"
+                        + " KEY (" + JpaConst.REP_CNT_COL_EMP + ")"
+                        + " SELECT " + JpaConst.REP_COL_EMP + ", COUNT(*) FROM " + JpaConst.TABLE_REP
+                        + " GROUP BY " + JpaConst.REP_COL_EMP);
+            }
+            con.commit();
+
+            return loadAccounts(con);
+        }
+    }
+
+    /**
+     * 従業員を登録する(パスワードのハッシュ値は全員共通のものを1度だけ計算する)
+     * @param con コネクション
+     * @throws SQLException
+     */
+    private void insertEmployees(Connection con) throws SQLException {
+        String hash = EncryptUtil.getPasswordHash(PASSWORD, PropertyUtil.getValue(PropertyConst.PEPPER));
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        String sql = "INSERT INTO " + JpaConst.TABLE_EMP + " ("
+                + JpaConst.EMP_COL_CODE + ", " + JpaConst.EMP_COL_NAME + ", " + JpaConst.EMP_COL_PASS + ", "
+                + JpaConst.EMP_COL_ADMIN_FLAG + ", " + JpaConst.EMP_COL_CREATED_AT + ", "
+                + JpaConst.EMP_COL_UPDATED_AT + ", " + JpaConst.EMP_COL_DELETE_FLAG
+                + ") VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+        try (PreparedStatement ps = con.prepareStatement(sql)) {
+            for (int i = 0; i < config.getEmployees(); i++) {
+                ps.setString(1, code(i));
+                ps.setString(2, "従業員" + (i + 1));
+                ps.setString(3, hash);
+                ps.setInt(4, i < config.getAdmins() ? JpaConst.ROLE_ADMIN : JpaConst.ROLE_GENERAL);
+                ps.setTimestamp(5, now);
+                ps.setTimestamp(6, now);
+                ps.setInt(7, JpaConst.EMP_DEL_FALSE);
+                ps.addBatch();
+                if ((i + 1) % BATCH_SIZE == 0) {
+                    ps.executeBatch();
+                }
+            }
+            ps.executeBatch();
+        }
+    }
+
+    /**
+     * 登録した従業員のidを返却する
+     * @param con コネクション
+     * @return 従業員のidのリスト(昇順)
+     * @throws SQLException
+     */
+    private List<Integer> loadEmployeeIds(Connection con) throws SQLException {
+        List<Integer> ids = new ArrayList<>();
+        try (Statement st = con.createStatement();
+                ResultSet rs = st.executeQuery("SELECT " + JpaConst.EMP_COL_ID + " FROM " + JpaConst.TABLE_EMP
+                        + " ORDER BY " + JpaConst.EMP_COL_ID)) {
+            while (rs.next()) {
+                ids.add(rs.getInt(1));
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * 日報を登録する(従業員ごとにidが連続するように登録する)
+     * @param con コネクション
+     * @param employeeIds 従業員のidのリスト
+     * @throws SQLException
+     */
+    private void insertReports(Connection con, List<Integer> employeeIds) throws SQLException {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        LocalDate firstDay = LocalDate.now().minusDays(config.getReportsPerEmployee());
+
+        String sql = "INSERT INTO " + JpaConst.TABLE_REP + " ("
+                + JpaConst.REP_COL_EMP + ", " + JpaConst.REP_COL_REP_DATE + ", " + JpaConst.REP_COL_TITLE + ", "
+                + JpaConst.REP_COL_CONTENT + ", " + JpaConst.REP_COL_CREATED_AT + ", " + JpaConst.REP_COL_UPDATED_AT
+                + ") VALUES (?, ?, ?, ?, ?, ?)";
+
+        int count = 0;
+        try (PreparedStatement ps = con.prepareStatement(sql)) {
+            for (int employeeId : employeeIds) {
+                for (int j = 0; j < config.getReportsPerEmployee(); j++) {
+                    ps.setInt(1, employeeId);
+                    ps.setObject(2, firstDay.plusDays(j));
+                    ps.setString(3, "日報" + (j + 1));
+                    ps.setString(4, "本日は顧客訪問と資料作成を行いました。\n明日は定例会議に出席します。");
+                    ps.setTimestamp(5, now);
+                    ps.setTimestamp(6, now);
+                    ps.addBatch();
+                    if (++count % BATCH_SIZE == 0) {
+                        ps.executeBatch();
+                    }
+                }
+            }
+            ps.executeBatch();
+        }
+    }
+
+    /**
+     * 登録した従業員と日報のidの範囲からアカウントを作成する
+     * @param con コネクション
+     * @return アカウントのリスト
+     * @throws SQLException
+     */
+    private List<Account> loadAccounts(Connection con) throws SQLException {
+        Map<Integer, int[]> ranges = new HashMap<>();
+        try (Statement st = con.createStatement();
+                ResultSet rs = st.executeQuery("SELECT " + JpaConst.REP_COL_EMP
+                        + ", MIN(" + JpaConst.REP_COL_ID + "), MAX(" + JpaConst.REP_COL_ID + ") FROM "
+                        + JpaConst.TABLE_REP + " GROUP BY " + JpaConst.REP_COL_EMP)) {
+            while (rs.next()) {
+                ranges.put(rs.getInt(1), new int[] { rs.getInt(2), rs.getInt(3) });
+            }
+        }
+
+        List<Account> accounts = new ArrayList<>();
+        try (Statement st = con.createStatement();
+                ResultSet rs = st.executeQuery("SELECT " + JpaConst.EMP_COL_ID + ", " + JpaConst.EMP_COL_CODE
+                        + ", " + JpaConst.EMP_COL_ADMIN_FLAG + " FROM " + JpaConst.TABLE_EMP
+                        + " ORDER BY " + JpaConst.EMP_COL_ID)) {
+            while (rs.next()) {
+                int[] range = ranges.get(rs.getInt(1));
+                accounts.add(new Account(rs.getInt(1), rs.getString(2), rs.getInt(3) == JpaConst.ROLE_ADMIN,
+                        range == null ? 0 : range[0], range == null ? 0 : range[1]));
+            }
+        }
+        return accounts;
+    }
+
+    /**
+     * 従業員の社員番号を作成する
+     * @param index 従業員の番号(0から)
+     * @return 社員番号
+     */
+    private static String code(int index) {
+        return String.format("E%06d", index + 1);
+    }
+}
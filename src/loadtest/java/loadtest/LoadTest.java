@@ -0,0 +1,183 @@
+package loadtest;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.catalina.Context;
+import org.apache.catalina.startup.Tomcat;
+import org.apache.tomcat.util.scan.StandardJarScanner;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+//負荷試験を実行するクラス
+//展開済みのwarを組み込みTomcatで起動し、組み込みDB(H2のMySQL互換モード)にデータを登録した後、
+//複数の仮想ユーザーから同時に操作して、操作ごとのスループット・処理時間の分布・エラー率を出力する
+//
+//実行方法: mvn -Ploadtest verify -Dloadtest.users=100 -Dloadtest.durationSeconds=120
+public final class LoadTest {
+
+    //アプリケーションのコンテキストパス
+    private static final String CONTEXT_PATH = "/daily_report_system";
+
+    //組み込みDBの接続先
+    private static final String JDBC_URL = "jdbc:h2:mem:loadtest;MODE=MySQL;DB_CLOSE_DELAY=-1";
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = new LoadTestConfig();
+        configureApplication();
+
+        Tomcat tomcat = startServer(config);
+        try {
+            int port = tomcat.getConnector().getLocalPort();
+            String baseUrl = "http://localhost:" + port + CONTEXT_PATH + "/";
+
+            System.out.printf("データを登録しています(従業員 %d 人、日報 %d 件/人)%n",
+                    config.getEmployees(), config.getReportsPerEmployee());
+            List<Account> accounts = new DataSeeder(config, JDBC_URL).seed();
+
+            Recorder recorder = run(config, baseUrl, accounts);
+
+            List<Recorder.Summary> summaries = recorder.summarize();
+            print(config, summaries);
+            write(config, summaries);
+        } finally {
+            tomcat.stop();
+            tomcat.destroy();
+        }
+    }
+
+    /**
+     * アプリケーションの設定をシステムプロパティで上書きする(application.properties より優先される)
+     */
+    private static void configureApplication() {
+        System.setProperty("hibernate.dialect", "org.hibernate.dialect.H2Dialect");
+        System.setProperty("hibernate.hikari.jdbcUrl", JDBC_URL);
+        System.setProperty("hibernate.hikari.driverClassName", "org.h2.Driver");
+        System.setProperty("hibernate.hikari.username", "sa");
+        System.setProperty("hibernate.hikari.password", "");
+
+        //全文検索用インデックスは試験ごとに作り直す
+        System.setProperty("report.search.indexDir", "target/loadtest-index");
+    }
+
+    /**
+     * 展開済みのwarを組み込みTomcatで起動する
+     * @param config 設定値
+     * @return 起動したTomcat
+     * @throws Exception
+     */
+    private static Tomcat startServer(LoadTestConfig config) throws Exception {
+        File webappDir = config.getWebappDir().toFile().getAbsoluteFile();
+        if (!new File(webappDir, "WEB-INF").isDirectory()) {
+            throw new IllegalStateException("展開済みのwarが見つかりません: " + webappDir);
+        }
+
+        Tomcat tomcat = new Tomcat();
+        tomcat.setBaseDir(new File("target/loadtest-tomcat").getAbsolutePath());
+        tomcat.setPort(config.getPort());
+        tomcat.getConnector().setProperty("maxThreads", String.valueOf(Math.max(200, config.getUsers())));
+
+        Context context = tomcat.addWebapp(CONTEXT_PATH, webappDir.getPath());
+
+        //WEB-INF/lib のjarのマニフェストに記載された、存在しないjarを探さないようにする
+        ((StandardJarScanner) context.getJarScanner()).setScanManifest(false);
+
+        tomcat.start();
+        return tomcat;
+    }
+
+    /**
+     * 仮想ユーザーを起動し、準備期間の後、指定された期間の結果を記録する
+     * @param config 設定値
+     * @param baseUrl アプリケーションのURL
+     * @param accounts ログインに使用するアカウント
+     * @return 記録した結果
+     * @throws InterruptedException
+     */
+    private static Recorder run(LoadTestConfig config, String baseUrl, List<Account> accounts)
+            throws InterruptedException {
+        Recorder recorder = new Recorder();
+        int reportCount = config.getEmployees() * config.getReportsPerEmployee();
+        long endAt = System.nanoTime()
+                + TimeUnit.SECONDS.toNanos(config.getWarmupSeconds() + config.getDurationSeconds());
+
+        ExecutorService httpExecutor = Executors.newCachedThreadPool();
+        List<Thread> users = new ArrayList<>();
+        for (int i = 0; i < config.getUsers(); i++) {
+            //仮想ユーザー数が従業員数より多い場合は、同じ従業員で複数のセッションを使用する
+            Account account = accounts.get(i % accounts.size());
+            Thread thread = new Thread(new VirtualUser(config, baseUrl, account, accounts.size(), reportCount,
+                    recorder, endAt, httpExecutor), "virtual-user-" + i);
+            thread.setDaemon(true);
+            users.add(thread);
+            thread.start();
+        }
+
+        System.out.printf("仮想ユーザー %d 人で実行しています(準備 %d 秒、計測 %d 秒)%n",
+                config.getUsers(), config.getWarmupSeconds(), config.getDurationSeconds());
+        Thread.sleep(TimeUnit.SECONDS.toMillis(config.getWarmupSeconds()));
+        recorder.start();
+        Thread.sleep(TimeUnit.SECONDS.toMillis(config.getDurationSeconds()));
+        recorder.stop();
+
+        for (Thread user : users) {
+            user.join(TimeUnit.SECONDS.toMillis(30));
+        }
+        httpExecutor.shutdownNow();
+        return recorder;
+    }
+
+    /**
+     * 結果を表形式で標準出力に出力する
+     * @param config 設定値
+     * @param summaries 集計結果
+     */
+    private static void print(LoadTestConfig config, List<Recorder.Summary> summaries) {
+        System.out.printf("%n%-16s %9s %7s %9s %9s %9s %9s %9s %9s %9s%n", "step", "requests", "errors",
+                "req/s", "mean(ms)", "p50(ms)", "p90(ms)", "p95(ms)", "p99(ms)", "max(ms)");
+        for (Recorder.Summary s : summaries) {
+            System.out.printf("%-16s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f %9.2f%n", s.getStep(),
+                    s.getRequests(), s.getErrors(), s.getThroughput(), s.getMeanMillis(), s.getP50Millis(),
+                    s.getP90Millis(), s.getP95Millis(), s.getP99Millis(), s.getMaxMillis());
+        }
+        System.out.printf("%n結果を %s に出力しました%n", config.getResultFile().toAbsolutePath());
+    }
+
+    /**
+     * 結果をJSON形式でファイルに出力する(変更前後の比較に使用する)
+     * @param config 設定値
+     * @param summaries 集計結果
+     * @throws Exception
+     */
+    private static void write(LoadTestConfig config, List<Recorder.Summary> summaries) throws Exception {
+        Map<String, Object> settings = new LinkedHashMap<>();
+        settings.put("users", config.getUsers());
+        settings.put("employees", config.getEmployees());
+        settings.put("reportsPerEmployee", config.getReportsPerEmployee());
+        settings.put("warmupSeconds", config.getWarmupSeconds());
+        settings.put("durationSeconds", config.getDurationSeconds());
+        settings.put("thinkMillis", config.getThinkMillis());
+        settings.put("async", Boolean.getBoolean("request.async"));
+        settings.put("gzip", config.isGzip());
+        settings.put("conditional", config.isConditional());
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("settings", settings);
+        result.put("steps", summaries);
+
+        Files.createDirectories(config.getResultFile().toAbsolutePath().getParent());
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT)
+                .writeValue(config.getResultFile().toFile(), result);
+    }
+}
@@ -0,0 +1,69 @@
+package loadtest;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import lombok.Getter;
+
+//負荷試験の設定値(システムプロパティ loadtest.* で指定する)
+@Getter
+final class LoadTestConfig {
+
+    //同時に操作する仮想ユーザー数
+    private final int users = intValue("loadtest.users", 50);
+
+    //登録する従業員数(先頭から adminRatio の割合を管理者とする)
+    private final int employees = intValue("loadtest.employees", 100);
+
+    //従業員1人あたりに登録する日報の件数
+    private final int reportsPerEmployee = intValue("loadtest.reportsPerEmployee", 100);
+
+    //管理者とする従業員の割合(%)
+    private final int adminPercent = intValue("loadtest.adminPercent", 10);
+
+    //集計に含めない準備期間(秒) JSPのコンパイルやキャッシュの作成がこの間に終わる
+    private final int warmupSeconds = intValue("loadtest.warmupSeconds", 15);
+
+    //集計する期間(秒)
+    private final int durationSeconds = intValue("loadtest.durationSeconds", 60);
+
+    //仮想ユーザーが1操作ごとに待つ時間(ミリ秒) 0の場合は待たずに次の操作を行う
+    private final int thinkMillis = intValue("loadtest.thinkMillis", 0);
+
+    //ブラウザと同じく Accept-Encoding: gzip を送信するかどうか
+    private final boolean gzip = !"false".equals(System.getProperty("loadtest.gzip"));
+
+    //ブラウザと同じく、ETagが付いた画面を保持して If-None-Match で問い合わせるかどうか
+    private final boolean conditional = !"false".equals(System.getProperty("loadtest.conditional"));
+
+    //組み込みサーバーのポート番号(0の場合は空いているポート)
+    private final int port = intValue("loadtest.port", 0);
+
+    //展開済みのwarのディレクトリ
+    private final Path webappDir = Paths.get(System.getProperty("loadtest.webapp", "target/daily_report_system"));
+
+    //結果を出力するファイル(JSON)
+    private final Path resultFile = Paths.get(System.getProperty("loadtest.result", "target/loadtest-result.json"));
+
+    /**
+     * 管理者とする従業員数を返却する
+     * @return 管理者の人数(1人以上)
+     */
+    int getAdmins() {
+        return Math.max(1, employees * adminPercent / 100);
+    }
+
+    /**
+     * システムプロパティの値を数値で返却する
+     * @param name プロパティ名
+     * @param defaultValue 設定されていない場合の値
+     * @return プロパティの値
+     */
+    private static int intValue(String name, int defaultValue) {
+        String value = System.getProperty(name);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        return Integer.parseInt(value.trim());
+    }
+}
@@ -0,0 +1,156 @@
+package loadtest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+//操作(リクエストの種類)ごとの処理時間とエラー件数を集計するクラス
+//準備期間中は記録せず、start() を呼び出した後の結果のみを集計する
+final class Recorder {
+
+    //操作名 → 集計値
+    private final Map<String, Step> steps = new ConcurrentHashMap<>();
+
+    //記録中かどうか
+    private volatile boolean recording;
+
+    //記録を開始した時刻(ナノ秒)
+    private volatile long startedAt;
+
+    //記録を終了した時刻(ナノ秒)
+    private volatile long stoppedAt;
+
+    /**
+     * 記録を開始する
+     */
+    void start() {
+        startedAt = System.nanoTime();
+        recording = true;
+    }
+
+    /**
+     * 記録を終了する
+     */
+    void stop() {
+        recording = false;
+        stoppedAt = System.nanoTime();
+    }
+
+    /**
+     * リクエスト1件の結果を記録する
+     * @param step 操作名
+     * @param nanos 処理時間(ナノ秒)
+     * @param ok 成功した場合true
+     */
+    void record(String step, long nanos, boolean ok) {
+        if (recording) {
+            steps.computeIfAbsent(step, Step::new).record(nanos, ok);
+        }
+    }
+
+    /**
+     * 操作ごとと全体の集計結果を返却する
+     * @return 集計結果のリスト(最後の要素が全体)
+     */
+    List<Summary> summarize() {
+        double seconds = (stoppedAt - startedAt) / 1_000_000_000.0;
+        Map<String, Step> sorted = new LinkedHashMap<>();
+        steps.keySet().stream().sorted().forEach(name -> sorted.put(name, steps.get(name)));
+
+        List<Summary> summaries = new ArrayList<>();
+        Step total = new Step("total");
+        for (Step step : sorted.values()) {
+            summaries.add(step.summarize(seconds));
+            total.merge(step);
+        }
+        summaries.add(total.summarize(seconds));
+        return summaries;
+    }
+
+    //操作1種類分の記録
+    private static final class Step {
+
+        private final String name;
+
+        //処理時間(ナノ秒)の記録
+        private long[] samples = new long[1024];
+
+        private int size;
+
+        private long errors;
+
+        Step(String name) {
+            this.name = name;
+        }
+
+        synchronized void record(long nanos, boolean ok) {
+            if (size == samples.length) {
+                samples = Arrays.copyOf(samples, size * 2);
+            }
+            samples[size++] = nanos;
+            if (!ok) {
+                errors++;
+            }
+        }
+
+        synchronized void merge(Step other) {
+            synchronized (other) {
+                samples = Arrays.copyOf(samples, Math.max(samples.length, size + other.size));
+                System.arraycopy(other.samples, 0, samples, size, other.size);
+                size += other.size;
+                errors += other.errors;
+            }
+        }
+
+        synchronized Summary summarize(double seconds) {
+            long[] sorted = Arrays.copyOf(samples, size);
+            Arrays.sort(sorted);
+            return new Summary(name, size, errors, seconds > 0 ? size / seconds : 0,
+                    mean(sorted),
+                    percentile(sorted, 50), percentile(sorted, 90), percentile(sorted, 95),
+                    percentile(sorted, 99), size == 0 ? 0 : sorted[size - 1] / 1_000_000.0);
+        }
+
+        private static double mean(long[] sorted) {
+            long sum = 0;
+            for (long value : sorted) {
+                sum += value;
+            }
+            return sorted.length == 0 ? 0 : sum / (double) sorted.length / 1_000_000.0;
+        }
+
+        private static double percentile(long[] sorted, int p) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(p / 100.0 * sorted.length) - 1;
+            return sorted[Math.max(0, index)] / 1_000_000.0;
+        }
+    }
+
+    //操作1種類分の集計結果(処理時間はミリ秒)
+    @Getter
+    @AllArgsConstructor
+    static final class Summary {
+        private final String step;
+        private final long requests;
+        private final long errors;
+        private final double throughput;
+        private final double meanMillis;
+        private final double p50Millis;
+        private final double p90Millis;
+        private final double p95Millis;
+        private final double p99Millis;
+        private final double maxMillis;
+
+        public double getErrorRate() {
+            return requests == 0 ? 0 : errors / (double) requests;
+        }
+    }
+}
@@ -0,0 +1,383 @@
+package loadtest;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+
+import constants.AttributeConst;
+import constants.ForwardConst;
+import constants.MessageConst;
+
+//1人の利用者の操作を繰り返す仮想ユーザー
+//ログイン後、トップ画面・日報の一覧/詳細/登録/更新・従業員管理(管理者のみ)を一定の割合で行う
+final class VirtualUser implements Runnable {
+
+    //CSRF対策用トークンを画面から取り出すパターン
+    private static final Pattern TOKEN_PATTERN = Pattern.compile(
+            "name=\"" + AttributeConst.TOKEN.getValue() + "\" value=\"([^\"]*)\"");
+
+    //エラー画面に表示される文言
+    private static final String ERROR_PAGE_TEXT = "お探しのページは見つかりませんでした。";
+
+    //ブラウザと同じく送信する言語(日付の表示に使用される)
+    private static final String ACCEPT_LANGUAGE = "ja,en;q=0.8";
+
+    //ブラウザと同じく受け付ける圧縮形式(gzipで返却された画面は展開してから検証する)
+    private static final String ACCEPT_ENCODING = "gzip, deflate";
+
+    //ブラウザのキャッシュとして保持する画面の数(超えた場合は最も古く表示した画面から破棄する)
+    private static final int CACHE_ENTRIES = 100;
+
+    //ログインが集中して受け付けられなかった場合に再試行する回数
+    private static final int LOGIN_RETRIES = 10;
+
+    //一覧画面で表示するページ数の上限(先頭からこのページ数までをランダムに表示する)
+    private static final int MAX_PAGE = 10;
+
+    private final LoadTestConfig config;
+
+    private final String baseUrl;
+
+    private final Account account;
+
+    private final int employeeCount;
+
+    private final int reportCount;
+
+    private final Recorder recorder;
+
+    //操作を終了する時刻(ナノ秒)
+    private final long endAt;
+
+    //利用者ごとのセッションを保持するため、仮想ユーザーごとにクッキーを管理する
+    private final HttpClient client;
+
+    //ブラウザと同じく、ETagが付いた画面を保持して次回の表示時に If-None-Match で問い合わせる(URLごと)
+    private final Map<String, Cached> cache = new LinkedHashMap<String, Cached>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Cached> eldest) {
+            return size() > CACHE_ENTRIES;
+        }
+    };
+
+    VirtualUser(LoadTestConfig config, String baseUrl, Account account, int employeeCount, int reportCount,
+            Recorder recorder, long endAt, Executor executor) {
+        this.config = config;
+        this.baseUrl = baseUrl;
+        this.account = account;
+        this.employeeCount = employeeCount;
+        this.reportCount = reportCount;
+        this.recorder = recorder;
+        this.endAt = endAt;
+        this.client = HttpClient.newBuilder()
+                .cookieHandler(new CookieManager())
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(executor)
+                .build();
+    }
+
+    @Override
+    public void run() {
+        try {
+            if (!login()) {
+                return;
+            }
+
+            while (System.nanoTime() < endAt) {
+                int dice = ThreadLocalRandom.current().nextInt(100);
+                if (dice < 20) {
+                    top();
+                } else if (dice < 50) {
+                    reportIndex();
+                } else if (dice < 75) {
+                    reportShow();
+                } else if (dice < 85) {
+                    reportCreate();
+                } else if (dice < 95) {
+                    reportUpdate();
+                } else if (account.isAdmin()) {
+                    employeeAdmin();
+                } else {
+                    top();
+                }
+
+                if (config.getThinkMillis() > 0) {
+                    Thread.sleep(config.getThinkMillis());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * ログイン画面を表示してログインする
+     * @return ログインできた場合true
+     * @throws InterruptedException
+     */
+    private boolean login() throws InterruptedException {
+        for (int i = 0; i < LOGIN_RETRIES; i++) {
+            String page = get("login_page", query(ForwardConst.ACT_AUTH, ForwardConst.CMD_SHOW_LOGIN));
+            String token = token(page);
+            if (token == null) {
+                continue;
+            }
+
+            Map<String, String> form = new LinkedHashMap<>();
+            form.put(AttributeConst.EMP_CODE.getValue(), account.getCode());
+            form.put(AttributeConst.EMP_PASS.getValue(), DataSeeder.PASSWORD);
+            form.put(AttributeConst.TOKEN.getValue(), token);
+            Result result = post("login", query(ForwardConst.ACT_AUTH, ForwardConst.CMD_LOGIN), form,
+                    ForwardConst.ACT_TOP);
+            if (result.ok) {
+                return true;
+            }
+
+            //パスワードの照合が混み合っている場合は少し待って再試行する
+            if (result.body == null || !result.body.contains(MessageConst.E_LOGIN_BUSY.getMessage())) {
+                return false;
+            }
+            Thread.sleep(100L * (i + 1));
+        }
+        return false;
+    }
+
+    private void top() {
+        get("top_index", query(ForwardConst.ACT_TOP, ForwardConst.CMD_INDEX));
+    }
+
+    private void reportIndex() {
+        int page = ThreadLocalRandom.current().nextInt(MAX_PAGE) + 1;
+        get("report_index", query(ForwardConst.ACT_REP, ForwardConst.CMD_INDEX)
+                + "&" + AttributeConst.PAGE.getValue() + "=" + page);
+    }
+
+    private void reportShow() {
+        int id = ThreadLocalRandom.current().nextInt(reportCount) + 1;
+        get("report_show", query(ForwardConst.ACT_REP, ForwardConst.CMD_SHOW)
+                + "&" + AttributeConst.REP_ID.getValue() + "=" + id);
+    }
+
+    private void reportCreate() {
+        String token = token(get("report_new", query(ForwardConst.ACT_REP, ForwardConst.CMD_NEW)));
+        if (token == null) {
+            return;
+        }
+        post("report_create", query(ForwardConst.ACT_REP, ForwardConst.CMD_CREATE),
+                reportForm(null, token), ForwardConst.ACT_REP);
+    }
+
+    private void reportUpdate() {
+        if (account.getFirstReportId() == 0) {
+            reportCreate();
+            return;
+        }
+
+        int id = ThreadLocalRandom.current().nextInt(account.getFirstReportId(), account.getLastReportId() + 1);
+        String token = token(get("report_edit", query(ForwardConst.ACT_REP, ForwardConst.CMD_EDIT)
+                + "&" + AttributeConst.REP_ID.getValue() + "=" + id));
+        if (token == null) {
+            return;
+        }
+        post("report_update", query(ForwardConst.ACT_REP, ForwardConst.CMD_UPDATE),
+                reportForm(id, token), ForwardConst.ACT_REP);
+    }
+
+    private void employeeAdmin() {
+        get("employee_index", query(ForwardConst.ACT_EMP, ForwardConst.CMD_INDEX));
+        int id = ThreadLocalRandom.current().nextInt(employeeCount) + 1;
+        get("employee_show", query(ForwardConst.ACT_EMP, ForwardConst.CMD_SHOW)
+                + "&" + AttributeConst.EMP_ID.getValue() + "=" + id);
+    }
+
+    /**
+     * 日報の登録・更新画面の入力内容を作成する
+     * @param id 更新する日報のid(登録の場合null)
+     * @param token CSRF対策用トークン
+     * @return 入力内容
+     */
+    private Map<String, String> reportForm(Integer id, String token) {
+        Map<String, String> form = new LinkedHashMap<>();
+        if (id != null) {
+            form.put(AttributeConst.REP_ID.getValue(), String.valueOf(id));
+        }
+        form.put(AttributeConst.REP_DATE.getValue(), LocalDate.now().toString());
+        form.put(AttributeConst.REP_TITLE.getValue(), "負荷試験");
+        form.put(AttributeConst.REP_CONTENT.getValue(), "負荷試験で登録した日報です。");
+        form.put(AttributeConst.TOKEN.getValue(), token);
+        return form;
+    }
+
+    /**
+     * 画面を表示する(応答が200で、エラー画面でない場合を成功とする)
+     * 保持している画面が最新であることを示す304の場合は、保持している画面を表示して成功とする
+     * @param step 操作名
+     * @param query クエリ文字列
+     * @return 画面のHTML 失敗した場合null
+     */
+    private String get(String step, String query) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + "?" + query))
+                .header("Accept-Language", ACCEPT_LANGUAGE);
+        if (config.isGzip()) {
+            builder.header("Accept-Encoding", ACCEPT_ENCODING);
+        }
+        Cached cached = config.isConditional() ? cache.get(query) : null;
+        if (cached != null) {
+            builder.header("If-None-Match", cached.etag);
+        }
+        HttpRequest request = builder.GET().build();
+        long start = System.nanoTime();
+        try {
+            HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            if (cached != null && response.statusCode() == 304) {
+                recorder.record(step, System.nanoTime() - start, true);
+                return cached.body;
+            }
+
+            String body = body(response);
+            long nanos = System.nanoTime() - start;
+            boolean ok = response.statusCode() == 200 && !body.contains(ERROR_PAGE_TEXT);
+            recorder.record(step, nanos, ok);
+
+            String etag = response.headers().firstValue("ETag").orElse(null);
+            if (ok && etag != null && config.isConditional()) {
+                cache.put(query, new Cached(etag, body));
+            }
+            return ok ? body : null;
+        } catch (IOException e) {
+            recorder.record(step, System.nanoTime() - start, false);
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    /**
+     * フォームを送信する(指定したActionへリダイレクトされた場合を成功とする)
+     * @param step 操作名
+     * @param query クエリ文字列
+     * @param form 送信する内容
+     * @param expected 成功した場合のリダイレクト先のAction
+     * @return 送信結果
+     */
+    private Result post(String step, String query, Map<String, String> form, ForwardConst expected) {
+        StringBuilder body = new StringBuilder();
+        for (Map.Entry<String, String> entry : form.entrySet()) {
+            if (body.length() > 0) {
+                body.append('&');
+            }
+            body.append(URLEncoder.encode(entry.getKey(), StandardCharsets.UTF_8)).append('=')
+                    .append(URLEncoder.encode(entry.getValue(), StandardCharsets.UTF_8));
+        }
+
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + "?" + query))
+                .header("Accept-Language", ACCEPT_LANGUAGE)
+                .header("Content-Type", "application/x-www-form-urlencoded; charset=UTF-8");
+        if (config.isGzip()) {
+            builder.header("Accept-Encoding", ACCEPT_ENCODING);
+        }
+        HttpRequest request = builder
+                .POST(HttpRequest.BodyPublishers.ofString(body.toString(), StandardCharsets.UTF_8))
+                .build();
+        long start = System.nanoTime();
+        try {
+            HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            String responseBody = body(response);
+            long nanos = System.nanoTime() - start;
+            String location = response.headers().firstValue("Location").orElse("");
+            boolean ok = response.statusCode() == 302
+                    && location.contains(ForwardConst.ACT.getValue() + "=" + expected.getValue());
+            recorder.record(step, nanos, ok);
+            return new Result(ok, responseBody);
+        } catch (IOException e) {
+            recorder.record(step, System.nanoTime() - start, false);
+            return new Result(false, null);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new Result(false, null);
+        }
+    }
+
+    /**
+     * 応答の本文を文字列で返却する(gzipで圧縮されている場合は展開する)
+     * @param response 応答
+     * @return 本文
+     * @throws IOException 展開できない場合
+     */
+    private static String body(HttpResponse<byte[]> response) throws IOException {
+        byte[] bytes = response.body();
+        if (response.headers().firstValue("Content-Encoding").orElse("").equalsIgnoreCase("gzip")) {
+            try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+                bytes = in.readAllBytes();
+            }
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 画面からCSRF対策用トークンを取り出す
+     * @param page 画面のHTML
+     * @return トークン 見つからない場合null
+     */
+    private static String token(String page) {
+        if (page == null) {
+            return null;
+        }
+        Matcher matcher = TOKEN_PATTERN.matcher(page);
+        return matcher.find() ? matcher.group(1) : null;
+    }
+
+    /**
+     * action と command のクエリ文字列を作成する
+     * @param action Action
+     * @param command command
+     * @return クエリ文字列
+     */
+    private static String query(ForwardConst action, ForwardConst command) {
+        return ForwardConst.ACT.getValue() + "=" + action.getValue()
+                + "&" + ForwardConst.CMD.getValue() + "=" + command.getValue();
+    }
+
+    //フォームの送信結果
+    /**
+     * ブラウザのキャッシュとして保持する画面
+     */
+    private static final class Cached {
+        private final String etag;
+        private final String body;
+
+        Cached(String etag, String body) {
+            this.etag = etag;
+            this.body = body;
+        }
+    }
+
+    private static final class Result {
+        private final boolean ok;
+        private final String body;
+
+        Result(boolean ok, String body) {
+            this.ok = ok;
+            this.body = body;
+        }
+    }
+}
@@ -1,9 +1,11 @@
 package actions;
 
 import java.io.IOException;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.UUID;
 
 import javax.servlet.RequestDispatcher;
 import javax.servlet.ServletContext;
@@ -11,9 +13,12 @@ import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import actions.views.EmployeeView;
 import constants.AttributeConst;
 import constants.ForwardConst;
+import constants.JpaConst;
 import constants.PropertyConst;
+import controllers.RouteRegistry;
 
 //ActionBase は、すべてのActionクラスのスーパークラスとなるクラスです。
 //
@@ -22,26 +27,38 @@ import constants.PropertyConst;
 
 
 public abstract class ActionBase {
+
+    //アプリケーションを起動した日時(ミリ秒)
+    //画面のバリデータに含め、jspを変更して再起動した後はブラウザが保持している古い画面を使わないようにする
+    private static final long STARTED_AT = System.currentTimeMillis();
+
     protected ServletContext context;
     protected HttpServletRequest request;
     protected HttpServletResponse response;
+    protected RouteRegistry.Route route;
+
+    //画面(jsp)の表示にかかった時間(ナノ秒)
+    private long viewNanos;
 
     /**
      * 初期化処理
-     * サーブレットコンテキスト、リクエスト、レスポンスをクラスフィールドに設定
+     * サーブレットコンテキスト、リクエスト、レスポンス、経路をクラスフィールドに設定
      * @param servletContext
      * @param servletRequest
      * @param servletResponse
+     * @param servletRoute パラメータの action と command に該当する経路(該当しない場合null)
      */
 
     //コンストラクタと同じような役割
     public void init(
             ServletContext servletContext,
             HttpServletRequest servletRequest,
-            HttpServletResponse servletResponse) {
+            HttpServletResponse servletResponse,
+            RouteRegistry.Route servletRoute) {
         this.context = servletContext;
         this.request = servletRequest;
         this.response = servletResponse;
+        this.route = servletRoute;
     }
 
     /**
@@ -53,33 +70,49 @@ public abstract class ActionBase {
 
     /**
      * パラメータのcommandの値に該当するメソッドを実行する
+     * 経路にCSRF対策用トークンのチェックや管理者であることが必要と登録されている場合は、メソッドの実行前にチェックする
      * @throws ServletException
      * @throws IOException
      */
     protected void invoke() throws ServletException, IOException {
 
-        Method commandMethod;
-        try {
+        //CSRF対策 tokenのチェック
+        if (route.isTokenRequired() && !checkToken()) {
+            return;
+        }
 
-            //パラメータからcommandを取得
-            String command = request.getParameter(ForwardConst.CMD.getValue());
+        //管理者かどうかのチェック
+        if (route.isAdminRequired() && !checkAdmin()) {
+            return;
+        }
 
-            //ommandに該当するメソッドを実行する
+        try {
+
+            //commandに該当するメソッドを実行する
             //(例: action=Employee command=show の場合 EmployeeActionクラスのshow()メソッドを実行する)
-            commandMethod = this.getClass().getDeclaredMethod(command, new Class[0]);
-            commandMethod.invoke(this, new Object[0]); //メソッドに渡す引数はなし
+            route.execute(this);
 
-        } catch (NoSuchMethodException | SecurityException | IllegalAccessException | IllegalArgumentException
-                | InvocationTargetException | NullPointerException e) {
+        } catch (RuntimeException e) {
 
-            //発生した例外をコンソールに表示
+            //発生した例外をコンソールに表示し、経路の例外の件数に含める
             e.printStackTrace();
-            //commandの値が不正で実行できない場合エラー画面を呼び出し
-            forward(ForwardConst.FW_ERR_UNKNOWN);
+            route.getMetrics().error();
+            //処理を続行できない場合エラー画面を呼び出し(既に応答を返し始めている場合は呼び出せない)
+            if (!response.isCommitted()) {
+                forward(ForwardConst.FW_ERR_UNKNOWN);
+            }
         }
 
     }
 
+    /**
+     * 画面(jsp)の表示にかかった時間を返却する
+     * @return 表示にかかった時間(ナノ秒) 画面を表示していない場合0
+     */
+    public long getViewNanos() {
+        return viewNanos;
+    }
+
     /**
      * 指定されたjspの呼び出しを行う
      * @param target 遷移先jsp画面のファイル名(拡張子を含まない)
@@ -92,8 +125,13 @@ public abstract class ActionBase {
         String forward = String.format("/WEB-INF/views/%s.jsp", target.getValue());
         RequestDispatcher dispatcher = request.getRequestDispatcher(forward);
 
-        //jspファイルの呼び出し
-        dispatcher.forward(request, response);
+        //jspファイルの呼び出し(表示にかかった時間を記録する)
+        long start = System.nanoTime();
+        try {
+            dispatcher.forward(request, response);
+        } finally {
+            viewNanos += System.nanoTime() - start;
+        }
 
     }
 
@@ -141,6 +179,29 @@ public abstract class ActionBase {
 
     }
 
+    /**
+     * ログイン中の従業員が管理者かどうかチェックし、管理者でなければエラー画面を表示
+     * @return true: 管理者 false: 管理者ではない
+     * @throws ServletException
+     * @throws IOException
+     */
+    protected boolean checkAdmin() throws ServletException, IOException {
+
+        //ログイン中の従業員情報を取得
+        EmployeeView employeeView = getLoginEmployee();
+
+        //管理者でなければエラー画面を表示
+        if (employeeView == null || employeeView.getAdminFlag() != AttributeConst.ROLE_ADMIN.getIntegerValue()) {
+
+            forward(ForwardConst.FW_ERR_UNKNOWN);
+            return false;
+
+        } else {
+
+            return true;
+        }
+    }
+
     /**
      * セッションIDを取得する
      * @return セッションID
@@ -149,6 +210,101 @@ public abstract class ActionBase {
         return request.getSession().getId();
     }
 
+    /**
+     * 画面の内容を表すバリデータ(ETag・Last-Modified)を応答に設定し、
+     * ブラウザが保持している画面が最新の場合(If-None-Match・If-Modified-Since が一致する場合)は 304 Not Modified を返却する
+     * 画面に表示するデータを全て取得する前に、件数や更新日時など少ない取得で分かる値を元に呼び出す
+     * @param version 画面に表示するデータのバージョン(件数や更新日時など、データが変わると変わる値を連結したもの)
+     * @param lastModified 画面に表示するデータの最終更新日時(データがない場合null)
+     * @return 304 を返却した場合true(画面を表示する必要はない)
+     * @throws IOException
+     */
+    protected boolean checkNotModified(String version, LocalDateTime lastModified) throws IOException {
+
+        String method = request.getMethod();
+        if (!method.equals("GET") && !method.equals("HEAD")) {
+            return false;
+        }
+
+        //フラッシュメッセージを表示する場合は毎回画面を表示する
+        if (getSessionScope(AttributeConst.FLUSH) != null) {
+            return false;
+        }
+
+        //画面のヘッダ部分はログイン中の従業員(氏名・管理者かどうか)によって変わるため、バリデータに含める
+        EmployeeView loginEmployee = getLoginEmployee();
+        StringBuilder validator = new StringBuilder().append(STARTED_AT).append('|').append(version);
+        long modified = Math.max(STARTED_AT, toEpochMilli(lastModified));
+        if (loginEmployee != null) {
+            validator.append('|').append(loginEmployee.getId()).append('|').append(loginEmployee.getUpdatedAt());
+            modified = Math.max(modified, toEpochMilli(loginEmployee.getUpdatedAt()));
+        }
+
+        //圧縮の有無などで本文のバイト列が変わっても同じ画面を表すため、弱いETagとする
+        String etag = "W/\"" + UUID.nameUUIDFromBytes(validator.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+
+        //ブラウザには表示のたびに問い合わせさせ、共有キャッシュ(プロキシ)には保持させない
+        response.setHeader("Cache-Control", "private, no-cache");
+        response.setHeader("ETag", etag);
+        response.setDateHeader("Last-Modified", modified);
+
+        boolean notModified;
+        String ifNoneMatch = request.getHeader("If-None-Match");
+        if (ifNoneMatch != null) {
+            //If-None-Match がある場合は If-Modified-Since より優先する
+            notModified = matchesEtag(ifNoneMatch, etag);
+        } else {
+            long ifModifiedSince;
+            try {
+                ifModifiedSince = request.getDateHeader("If-Modified-Since");
+            } catch (IllegalArgumentException e) {
+                ifModifiedSince = -1;
+            }
+            //HTTPの日時は秒単位のため、秒未満を切り捨てて比較する
+            notModified = ifModifiedSince >= 0 && modified / 1000 <= ifModifiedSince / 1000;
+        }
+
+        if (notModified) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+        }
+        return notModified;
+    }
+
+    /**
+     * If-None-Match ヘッダの値にETagが含まれているかどうかを判定する(弱い比較)
+     * @param ifNoneMatch If-None-Match ヘッダの値
+     * @param etag 現在の画面のETag
+     * @return 含まれている場合true
+     */
+    private static boolean matchesEtag(String ifNoneMatch, String etag) {
+        String opaque = etag.startsWith("W/") ? etag.substring(2) : etag;
+        for (String candidate : ifNoneMatch.split(",")) {
+            candidate = candidate.trim();
+            if (candidate.equals("*")) {
+                return true;
+            }
+            if (candidate.startsWith("W/")) {
+                candidate = candidate.substring(2);
+            }
+            if (candidate.equals(opaque)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 日時をエポックミリ秒に変換する
+     * @param dateTime 日時(DBに保存されているサーバーのタイムゾーンの日時)
+     * @return エポックミリ秒 日時がnullの場合0
+     */
+    private static long toEpochMilli(LocalDateTime dateTime) {
+        if (dateTime == null) {
+            return 0;
+        }
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
     /**
      * リクエストから表示を要求されているページ数を取得し、返却する
      * @return 要求されているページ数(要求がない場合は1)
@@ -162,6 +318,60 @@ public abstract class ActionBase {
         return page;
     }
 
+    /**
+     * リクエストから一覧画面の基準となるid(カーソル)を取得し、返却する
+     * @param key パラメータ名(AttributeConst.PAGE_AFTER または AttributeConst.PAGE_BEFORE)
+     * @return カーソルのid(指定がない場合はnull)
+     */
+    protected Integer getCursor(AttributeConst key) {
+        int cursor = toNumber(getRequestParam(key));
+        if (cursor == Integer.MIN_VALUE) {
+            return null;
+        }
+        return cursor;
+    }
+
+    /**
+     * リクエストからカーソルの位置から読み飛ばす件数を取得し、返却する
+     * (ページ番号のリンクで近くのページへ移動する場合に指定される 前後 JpaConst.PAGE_LINK_RANGE ページ分までに制限する)
+     * @return 読み飛ばす件数(指定がない場合は0)
+     */
+    protected int getSkip() {
+        int skip = toNumber(getRequestParam(AttributeConst.PAGE_SKIP));
+        if (skip == Integer.MIN_VALUE || skip < 0) {
+            return 0;
+        }
+        return Math.min(skip, JpaConst.ROW_PER_PAGE * (JpaConst.PAGE_LINK_RANGE - 1));
+    }
+
+    /**
+     * 一覧画面のページ送りに必要な値をリクエストスコープに設定する
+     * ページ番号のリンクは現在のページの前後 JpaConst.PAGE_LINK_RANGE ページ分のみ表示し、
+     * 前後のページ・近くのページへはidをカーソルとして移動する
+     * (先頭と最後のページへはページ数で移動する 最後のページは古い方から数えて取得する)
+     * @param page 現在のページ数
+     * @param count 全データの件数
+     * @param firstId 表示するデータのうち最初のデータのid(データがない場合はnull)
+     * @param lastId 表示するデータのうち最後のデータのid(データがない場合はnull)
+     */
+    protected void putPagerScope(int page, long count, Integer firstId, Integer lastId) {
+
+        int lastPage = (int) ((count - 1) / JpaConst.ROW_PER_PAGE) + 1;
+
+        putRequestScope(AttributeConst.PAGE, page); //ページ数
+        putRequestScope(AttributeConst.MAX_ROW, JpaConst.ROW_PER_PAGE); //1ページに表示するレコードの数
+        putRequestScope(AttributeConst.LAST_PAGE, lastPage); //最後のページ数
+        putRequestScope(AttributeConst.PAGER_BEGIN, Math.max(1, page - JpaConst.PAGE_LINK_RANGE)); //リンクを表示する最初のページ数
+        putRequestScope(AttributeConst.PAGER_END, Math.min(lastPage, page + JpaConst.PAGE_LINK_RANGE)); //リンクを表示する最後のページ数
+
+        if (page > 1 && firstId != null) {
+            putRequestScope(AttributeConst.PREV_CURSOR, firstId); //前ページの基準となるid
+        }
+        if (page < lastPage && lastId != null) {
+            putRequestScope(AttributeConst.NEXT_CURSOR, lastId); //次ページの基準となるid
+        }
+    }
+
     /**
      * 文字列を数値に変換する
      * @param strNumber 変換前文字列
@@ -207,6 +417,14 @@ public abstract class ActionBase {
         request.setAttribute(key.getValue(), value);
     }
 
+    /**
+     * ログイン中の従業員の情報を返却する(LoginFilterがリクエストスコープに設定したもの)
+     * @return ログイン中の従業員 ログインしていない場合null
+     */
+    protected EmployeeView getLoginEmployee() {
+        return (EmployeeView) request.getAttribute(AttributeConst.LOGIN_EMP.getValue());
+    }
+
     /**
      * セッションスコープから指定されたパラメータの値を取得し、返却する
      * @param key パラメータ名
@@ -1,15 +1,21 @@
 package actions;
 
 import java.io.IOException;
+import java.util.Collections;
+import java.util.concurrent.RejectedExecutionException;
 
 import javax.servlet.ServletException;
 
 import actions.views.EmployeeView;
 import constants.AttributeConst;
 import constants.ForwardConst;
+import constants.JpaConst;
 import constants.MessageConst;
 import constants.PropertyConst;
 import services.EmployeeService;
+import services.EmployeeSnapshot;
+import utilties.ClientAddress;
+import utilties.LoginThrottle;
 
 /**
  * 認証に関する処理を行うActionクラス
@@ -27,10 +33,12 @@ public class AuthAction extends ActionBase {
 
         employeeService = new EmployeeService();
 
-        //メソッドを実行
-        invoke();
-
-        employeeService.close();
+        //メソッドを実行(例外が発生した場合もDBとの接続は必ず閉じる)
+        try {
+            invoke();
+        } finally {
+            employeeService.close();
+        }
     }
 
     /**
@@ -65,24 +73,53 @@ public class AuthAction extends ActionBase {
         String plainPass = getRequestParam(AttributeConst.EMP_PASS);
         String pepper = getContextScope(PropertyConst.PEPPER);
 
-        //有効な従業員か認証する
-        Boolean isValidEmployee = employeeService.validateLogin(code, plainPass, pepper);
+        //社員番号がカラムの最大文字数を超えている場合は、登録されている従業員がいないため
+        //試行回数の制限に使用するキーとして保持せずに認証失敗とする
+        if (code != null && code.length() > JpaConst.EMP_CODE_LENGTH) {
+            putRequestScope(AttributeConst.TOKEN, getTokenId()); //CSRF対策用トークン
+            putRequestScope(AttributeConst.LOGIN_ERR, true); //認証失敗エラーメッセージ表示フラグ
+            forward(ForwardConst.FW_LOGIN);
+            return;
+        }
+
+        //試行回数が制限を超えている場合は、認証を行わずにログイン画面を再表示
+        if (!LoginThrottle.tryAcquire(code, ClientAddress.of(request))) {
+            putRequestScope(AttributeConst.TOKEN, getTokenId()); //CSRF対策用トークン
+            putRequestScope(AttributeConst.ERR,
+                    Collections.singletonList(MessageConst.E_LOGIN_THROTTLED.getMessage())); //エラーのリスト
+            putRequestScope(AttributeConst.EMP_CODE, code); //入力された従業員コード
+            forward(ForwardConst.FW_LOGIN);
+            return;
+        }
+
+        //有効な従業員か認証する(認証に成功した場合は従業員のデータも取得する)
+        EmployeeView employeeView;
+        try {
+            employeeView = employeeService.authenticate(code, plainPass, pepper);
+        } catch (RejectedExecutionException e) {
+            //ログインが集中し、パスワードの照合を受け付けられない場合はログイン画面を再表示
+            putRequestScope(AttributeConst.TOKEN, getTokenId()); //CSRF対策用トークン
+            putRequestScope(AttributeConst.ERR,
+                    Collections.singletonList(MessageConst.E_LOGIN_BUSY.getMessage())); //エラーのリスト
+            putRequestScope(AttributeConst.EMP_CODE, code); //入力された従業員コード
+            forward(ForwardConst.FW_LOGIN);
+            return;
+        }
 
-        if (isValidEmployee) {
+        if (employeeView != null) {
             //認証成功の場合
 
-            //CSRF対策 tokenのチェック
-            if (checkToken()) {
-
-                //ログインした従業員のDBデータを取得
-                EmployeeView employeeView = employeeService.findOne(code, plainPass, pepper);
-                //セッションにログインした従業員を設定
-                putSessionScope(AttributeConst.LOGIN_EMP, employeeView);
-                //セッションにログイン完了のフラッシュメッセージを設定
-                putSessionScope(AttributeConst.FLUSH, MessageConst.I_LOGINED.getMessage());
-                //トップページへリダイレクト
-                redirect(ForwardConst.ACT_TOP, ForwardConst.CMD_INDEX);
-            }
+            //社員番号の試行回数の制限を解除する
+            LoginThrottle.reset(code);
+
+            //ログインした従業員の情報を保持し、セッションにはidとバージョンのみを設定
+            EmployeeSnapshot.Entry entry = EmployeeSnapshot.put(employeeView);
+            putSessionScope(AttributeConst.LOGIN_EMP_ID, employeeView.getId());
+            putSessionScope(AttributeConst.LOGIN_EMP_VERSION, entry.getVersion());
+            //セッションにログイン完了のフラッシュメッセージを設定
+            putSessionScope(AttributeConst.FLUSH, MessageConst.I_LOGINED.getMessage());
+            //トップページへリダイレクト
+            redirect(ForwardConst.ACT_TOP, ForwardConst.CMD_INDEX);
         } else {
             //認証失敗の場合
 
@@ -106,7 +143,8 @@ public class AuthAction extends ActionBase {
     public void logout() throws ServletException, IOException {
 
         //セッションからログイン従業員のパラメータを削除
-        removeSessionScope(AttributeConst.LOGIN_EMP);
+        removeSessionScope(AttributeConst.LOGIN_EMP_ID);
+        removeSessionScope(AttributeConst.LOGIN_EMP_VERSION);
 
         //セッションにログアウト時のフラッシュメッセージを追加
         putSessionScope(AttributeConst.FLUSH, MessageConst.I_LOGOUT.getMessage());
@@ -116,4 +154,4 @@ public class AuthAction extends ActionBase {
 
     }
 
-}
\ No newline at end of file
+}
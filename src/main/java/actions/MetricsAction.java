@@ -0,0 +1,268 @@
+package actions;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.servlet.ServletException;
+
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+
+import actions.views.StatisticsConverter;
+import actions.views.StatisticsView;
+import constants.AttributeConst;
+import constants.ForwardConst;
+import constants.MessageConst;
+import controllers.RouteRegistry;
+import filters.CompressionFilter;
+import services.ReportListCache;
+import services.ReportWriteQueue;
+import utilties.DB_Utility;
+import utilties.HashExecutor;
+import utilties.LoginThrottle;
+import utilties.MetricsWriter;
+import utilties.PoolMetrics;
+import utilties.RequestExecutor;
+import utilties.RequestMetrics;
+
+/**
+ * 稼働状況の集計値(メトリクス)を出力するActionクラス
+ *
+ */
+public class MetricsAction extends ActionBase {
+
+    /**
+     * メソッドを実行する
+     */
+    @Override
+    public void process() throws ServletException, IOException {
+
+        //メソッドを実行
+        invoke();
+    }
+
+    /**
+     * 集計値をPrometheusのテキスト形式で出力する
+     * @throws ServletException
+     * @throws IOException
+     */
+    public void index() throws ServletException, IOException {
+
+        response.setContentType("text/plain; version=0.0.4; charset=UTF-8");
+        PrintWriter writer = response.getWriter();
+        MetricsWriter metrics = new MetricsWriter(writer);
+
+        //経路ごとのリクエストの処理状況
+        writeRequestMetrics(metrics);
+
+        //コネクションプールの稼働状況
+        writePoolMetrics(metrics);
+
+        //二次キャッシュ・クエリキャッシュのヒット率
+        writeCacheMetrics(metrics);
+
+        //日報一覧画面のキャッシュのヒット率
+        metrics.counter("report_list_cache_hits_total", "日報一覧キャッシュのヒット件数", ReportListCache.getHits());
+        metrics.counter("report_list_cache_misses_total", "日報一覧キャッシュのミス件数", ReportListCache.getMisses());
+        metrics.counter("report_list_cache_evictions_total", "日報一覧キャッシュから破棄した件数",
+                ReportListCache.getEvictions());
+        metrics.gauge("report_list_cache_entries", "日報一覧キャッシュに保持しているページ数", ReportListCache.getSize());
+
+        //日報の書き込みキュー(登録した日報の件数をトランザクション数で割ると、1回のコミットでまとめた件数になる)
+        metrics.gauge("report_write_queue_size", "登録を待っている日報の件数", ReportWriteQueue.getQueueSize());
+        metrics.counter("report_write_groups_total", "書き込みキューから登録したトランザクションの数",
+                ReportWriteQueue.getGroups());
+        metrics.counter("report_write_reports_total", "書き込みキューから登録した日報の件数", ReportWriteQueue.getReports());
+
+        //ログインの試行回数の制限
+        metrics.counter("login_attempts_accepted_total", "受け付けたログインの試行回数", LoginThrottle.getAccepted());
+        metrics.header("login_attempts_rejected_total", "制限を超えたため拒否したログインの試行回数", "counter");
+        metrics.sample("login_attempts_rejected_total", "by=\"code\"", LoginThrottle.getRejectedByCode());
+        metrics.sample("login_attempts_rejected_total", "by=\"address\"", LoginThrottle.getRejectedByAddress());
+        metrics.counter("login_throttle_evictions_total", "使われなくなったため、または上限に達したため破棄した制限の件数",
+                LoginThrottle.getEvictions());
+        metrics.gauge("login_throttle_entries", "保持している制限の件数", LoginThrottle.getSize());
+
+        //パスワードのハッシュ化の実行状況
+        metrics.gauge("password_hash_active", "実行中のハッシュ化の件数", HashExecutor.getActiveCount());
+        metrics.gauge("password_hash_queued", "実行を待っているハッシュ化の件数", HashExecutor.getQueueSize());
+
+        //仮想スレッドでの非同期処理の実行状況
+        metrics.gauge("request_async_active", "仮想スレッドで処理中のリクエスト数", RequestExecutor.getActiveCount());
+
+        //応答の圧縮(圧縮前と圧縮後のバイト数の差が、圧縮により削減した通信量になる)
+        metrics.header("compression_responses_total", "gzipを受け付けるクライアントへの応答の件数", "counter");
+        metrics.sample("compression_responses_total", "result=\"compressed\"", CompressionFilter.getCompressed());
+        metrics.sample("compression_responses_total", "result=\"skipped\"", CompressionFilter.getSkipped());
+        metrics.counter("compression_input_bytes_total", "圧縮した応答の圧縮前のバイト数", CompressionFilter.getInputBytes());
+        metrics.counter("compression_output_bytes_total", "圧縮した応答の圧縮後のバイト数", CompressionFilter.getOutputBytes());
+        metrics.counter("compression_saved_bytes_total", "圧縮により削減したバイト数",
+                CompressionFilter.getInputBytes() - CompressionFilter.getOutputBytes());
+        metrics.counter("compression_cpu_seconds_total", "圧縮にかかった時間(秒)",
+                CompressionFilter.getDeflateNanos() / 1e9);
+
+        writer.flush();
+    }
+
+    /**
+     * 統計情報画面を表示する
+     * 名前付きクエリごとの実行回数・実行時間・取得行数・キャッシュのヒット件数と、
+     * エンティティごとの読み込み・個別取得の件数、二次キャッシュの集計値を表示する
+     * @throws ServletException
+     * @throws IOException
+     */
+    public void statistics() throws ServletException, IOException {
+
+        //統計情報を収集していない場合は設定しない(画面には収集していない旨を表示する)
+        Statistics statistics = DB_Utility.getStatistics();
+        if (statistics.isStatisticsEnabled()) {
+            StatisticsView sv = StatisticsConverter.toView(statistics, DB_Utility.getNamedQueries());
+            putRequestScope(AttributeConst.STATISTICS, sv); //統計情報
+        }
+        putRequestScope(AttributeConst.TOKEN, getTokenId()); //CSRF対策用トークン
+
+        //セッションにフラッシュメッセージが設定されている場合はリクエストスコープに移し替え、セッションからは削除する
+        String flush = getSessionScope(AttributeConst.FLUSH);
+        if (flush != null) {
+            putRequestScope(AttributeConst.FLUSH, flush);
+            removeSessionScope(AttributeConst.FLUSH);
+        }
+
+        //統計情報画面を表示
+        forward(ForwardConst.FW_METRICS_STATISTICS);
+    }
+
+    /**
+     * 統計情報をリセットする(リセット後に実行されたクエリのみを集計し直す)
+     * @throws ServletException
+     * @throws IOException
+     */
+    public void resetStatistics() throws ServletException, IOException {
+
+        DB_Utility.getStatistics().clear();
+        putSessionScope(AttributeConst.FLUSH, MessageConst.I_STATISTICS_RESET.getMessage());
+
+        //統計情報画面にリダイレクト
+        redirect(ForwardConst.ACT_METRICS, ForwardConst.CMD_STATISTICS);
+    }
+
+    /**
+     * 経路(action と command の組み合わせ)ごとの処理時間・処理中の件数・例外の件数を出力する
+     * 処理時間は全体に加えて、画面(jsp)の表示とそれ以外(Actionの処理やDBへのアクセス)に分けて出力する
+     * @param metrics 出力先
+     */
+    private void writeRequestMetrics(MetricsWriter metrics) {
+
+        //ラベルと集計値の組み合わせ(該当する経路がないリクエストは route="unknown" とする)
+        List<String> labels = new ArrayList<>();
+        List<RequestMetrics> values = new ArrayList<>();
+        for (RouteRegistry.Route r : RouteRegistry.getRoutes()) {
+            labels.add("route=\"" + MetricsWriter.escape(r.getName()) + "\"");
+            values.add(r.getMetrics());
+        }
+        labels.add("route=\"unknown\"");
+        values.add(RouteRegistry.getUnknownMetrics());
+
+        metrics.header("http_requests_in_flight", "処理中のリクエスト数", "gauge");
+        for (int i = 0; i < labels.size(); i++) {
+            metrics.sample("http_requests_in_flight", labels.get(i), values.get(i).getInFlight());
+        }
+        metrics.header("http_request_errors_total", "処理中に例外が発生したリクエスト数", "counter");
+        for (int i = 0; i < labels.size(); i++) {
+            metrics.sample("http_request_errors_total", labels.get(i), values.get(i).getErrors());
+        }
+
+        metrics.header("http_request_duration_seconds", "リクエスト全体の処理時間", "histogram");
+        for (int i = 0; i < labels.size(); i++) {
+            metrics.histogram("http_request_duration_seconds", labels.get(i), values.get(i).getTotalTime());
+        }
+        metrics.header("http_request_phase_seconds",
+                "リクエストの処理時間の内訳(service: Actionの処理・DBへのアクセス、view: 画面の表示)", "histogram");
+        for (int i = 0; i < labels.size(); i++) {
+            metrics.histogram("http_request_phase_seconds", labels.get(i) + ",phase=\"service\"",
+                    values.get(i).getServiceTime());
+            metrics.histogram("http_request_phase_seconds", labels.get(i) + ",phase=\"view\"",
+                    values.get(i).getViewTime());
+        }
+    }
+
+    /**
+     * コネクションプールの稼働状況を出力する
+     * @param metrics 出力先
+     */
+    private void writePoolMetrics(MetricsWriter metrics) {
+
+        PoolMetrics.Tracker pool = PoolMetrics.getCurrent();
+        if (pool == null) {
+            //プールがまだ生成されていない場合は出力しない
+            return;
+        }
+
+        String labels = "pool=\"" + MetricsWriter.escape(pool.getPoolName()) + "\"";
+
+        metrics.header("db_pool_connections_active", "使用中のコネクション数", "gauge");
+        metrics.sample("db_pool_connections_active", labels, pool.getActiveConnections());
+        metrics.header("db_pool_connections_idle", "待機中のコネクション数", "gauge");
+        metrics.sample("db_pool_connections_idle", labels, pool.getIdleConnections());
+        metrics.header("db_pool_connections_total", "プール内のコネクション総数", "gauge");
+        metrics.sample("db_pool_connections_total", labels, pool.getTotalConnections());
+        metrics.header("db_pool_connections_max", "プールの最大サイズ", "gauge");
+        metrics.sample("db_pool_connections_max", labels, pool.getMaxConnections());
+        metrics.header("db_pool_threads_pending", "コネクションの空きを待っているスレッド数", "gauge");
+        metrics.sample("db_pool_threads_pending", labels, pool.getPendingThreads());
+        metrics.header("db_pool_timeouts_total", "コネクション取得のタイムアウト回数", "counter");
+        metrics.sample("db_pool_timeouts_total", labels, pool.getTimeouts());
+
+        metrics.header("db_pool_acquire_seconds", "コネクション取得の待ち時間", "histogram");
+        metrics.histogram("db_pool_acquire_seconds", labels, pool.getAcquireTime());
+        metrics.header("db_pool_usage_seconds", "コネクションの使用時間", "histogram");
+        metrics.histogram("db_pool_usage_seconds", labels, pool.getUsageTime());
+    }
+
+    /**
+     * 二次キャッシュの領域ごと、およびクエリキャッシュのヒット・ミス件数を出力する
+     * @param metrics 出力先
+     */
+    private void writeCacheMetrics(MetricsWriter metrics) {
+
+        Statistics statistics = DB_Utility.getStatistics();
+        if (!statistics.isStatisticsEnabled()) {
+            //統計情報を収集していない場合は出力しない
+            return;
+        }
+
+        metrics.header("hibernate_cache_hits_total", "二次キャッシュのヒット件数", "counter");
+        for (String region : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics regionStatistics = statistics.getCacheRegionStatistics(region);
+            if (regionStatistics != null) {
+                metrics.sample("hibernate_cache_hits_total", "region=\"" + MetricsWriter.escape(region) + "\"",
+                        regionStatistics.getHitCount());
+            }
+        }
+        metrics.header("hibernate_cache_misses_total", "二次キャッシュのミス件数", "counter");
+        for (String region : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics regionStatistics = statistics.getCacheRegionStatistics(region);
+            if (regionStatistics != null) {
+                metrics.sample("hibernate_cache_misses_total", "region=\"" + MetricsWriter.escape(region) + "\"",
+                        regionStatistics.getMissCount());
+            }
+        }
+        metrics.header("hibernate_cache_puts_total", "二次キャッシュへの格納件数", "counter");
+        for (String region : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics regionStatistics = statistics.getCacheRegionStatistics(region);
+            if (regionStatistics != null) {
+                metrics.sample("hibernate_cache_puts_total", "region=\"" + MetricsWriter.escape(region) + "\"",
+                        regionStatistics.getPutCount());
+            }
+        }
+
+        metrics.counter("hibernate_query_cache_hits_total", "クエリキャッシュのヒット件数",
+                statistics.getQueryCacheHitCount());
+        metrics.counter("hibernate_query_cache_misses_total", "クエリキャッシュのミス件数",
+                statistics.getQueryCacheMissCount());
+        metrics.counter("hibernate_query_cache_puts_total", "クエリキャッシュへの格納件数",
+                statistics.getQueryCachePutCount());
+    }
+}
@@ -1,17 +1,29 @@
 package actions;
 
 import java.io.IOException;
+import java.io.BufferedWriter;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Collections;
 import java.util.List;
 
 import javax.servlet.ServletException;
+import javax.servlet.http.Part;
 
 import actions.views.EmployeeView;
 import actions.views.ReportView;
 import constants.AttributeConst;
 import constants.ForwardConst;
-import constants.JpaConst;
 import constants.MessageConst;
+import services.ReportImportReader;
+import services.ReportListCache;
+import services.ReportSearchIndex;
 import services.ReportService;
 
 /**
@@ -30,9 +42,12 @@ public class ReportAction extends ActionBase {
 
         reportService = new ReportService();
 
-        //メソッドを実行
-        invoke();
-        reportService.close();
+        //メソッドを実行(例外が発生した場合もDBとの接続は必ず閉じる)
+        try {
+            invoke();
+        } finally {
+            reportService.close();
+        }
     }
 
     /**
@@ -42,17 +57,52 @@ public class ReportAction extends ActionBase {
      */
     public void index() throws ServletException, IOException {
 
-        //指定されたページ数の一覧画面に表示する日報データを取得
+        //指定されたページの一覧画面に表示する日報データを取得
+        //(前後のページ・近くのページへの移動はidをカーソルとして取得し、ページ数のみの指定は近い方の端から読み飛ばして取得する)
+        //(全従業員で同じ内容となるため、キャッシュに保持している場合はDBから取得しない)
         int page = getPage();
-        List<ReportView> reportViewList = reportService.getAllPerPage(page);
+        Integer after = getCursor(AttributeConst.PAGE_AFTER);
+        Integer before = getCursor(AttributeConst.PAGE_BEFORE);
+        int skip = getSkip();
+        String cacheKey = ReportListCache.createKey(page, after, before, skip);
+        ReportListCache.Page cached = ReportListCache.get(cacheKey);
+
+        //全日報データの件数と、日報・従業員の最終更新日時を取得
+        long reportsCount;
+        LocalDateTime lastUpdated;
+        if (cached != null) {
+            reportsCount = cached.getCount();
+            lastUpdated = cached.getLastUpdated();
+        } else {
+            reportsCount = reportService.countAll();
+            lastUpdated = reportService.getLastUpdated();
+        }
+
+        //件数と最終更新日時が変わっていない場合は、日報データを取得せずにブラウザが保持している一覧画面を使用させる
+        if (checkNotModified(reportsCount + "|" + lastUpdated, lastUpdated)) {
+            return;
+        }
+
+        List<ReportView> reportViewList;
+        if (cached != null) {
+            reportViewList = cached.getReports();
+        } else {
+            if (after != null) {
+                reportViewList = reportService.getAllAfter(after, skip);
+            } else if (before != null) {
+                reportViewList = reportService.getAllBefore(before, skip);
+            } else {
+                reportViewList = reportService.getAllPerPage(page, reportsCount);
+            }
 
-        //全日報データの件数を取得
-        long reportsCount = reportService.countAll();
+            ReportListCache.put(cacheKey, reportViewList, reportsCount, lastUpdated);
+        }
 
         putRequestScope(AttributeConst.REPORTS, reportViewList); //取得した日報データ
         putRequestScope(AttributeConst.REP_COUNT, reportsCount); //全ての日報データの件数
-        putRequestScope(AttributeConst.PAGE, page); //ページ数
-        putRequestScope(AttributeConst.MAX_ROW, JpaConst.ROW_PER_PAGE); //1ページに表示するレコードの数
+        putPagerScope(page, reportsCount,
+                reportViewList.isEmpty() ? null : reportViewList.get(0).getId(),
+                reportViewList.isEmpty() ? null : reportViewList.get(reportViewList.size() - 1).getId()); //ページ送り
 
         //セッションにフラッシュメッセージが設定されている場合はリクエストスコープに移し替え、セッションからは削除する
         String flush = getSessionScope(AttributeConst.FLUSH);
@@ -91,55 +141,235 @@ public class ReportAction extends ActionBase {
      */
     public void create() throws ServletException, IOException {
 
-        //CSRF対策 tokenのチェック
-        if (checkToken()) {
+        //日報の日付が入力されていなければ、今日の日付を設定
+        LocalDate day = null;
+        if (getRequestParam(AttributeConst.REP_DATE) == null
+                || getRequestParam(AttributeConst.REP_DATE).equals("")) {
+            day = LocalDate.now();
+        } else {
+            day = LocalDate.parse(getRequestParam(AttributeConst.REP_DATE));
+        }
 
-            //日報の日付が入力されていなければ、今日の日付を設定
-            LocalDate day = null;
-            if (getRequestParam(AttributeConst.REP_DATE) == null
-                    || getRequestParam(AttributeConst.REP_DATE).equals("")) {
-                day = LocalDate.now();
-            } else {
-                day = LocalDate.parse(getRequestParam(AttributeConst.REP_DATE));
-            }
+        //ログイン中の従業員情報を取得
+        EmployeeView employeeView = getLoginEmployee();
 
-            //セッションからログイン中の従業員情報を取得
-            EmployeeView employeeView = (EmployeeView) getSessionScope(AttributeConst.LOGIN_EMP);
+        //パラメータの値をもとに日報情報のインスタンスを作成する
+        ReportView ReportView = new ReportView(
+                null,
+                employeeView, //ログインしている従業員を、日報作成者として登録する
+                day,
+                getRequestParam(AttributeConst.REP_TITLE),
+                getRequestParam(AttributeConst.REP_CONTENT),
+                null,
+                null);
 
-            //パラメータの値をもとに日報情報のインスタンスを作成する
-            ReportView ReportView = new ReportView(
-                    null,
-                    employeeView, //ログインしている従業員を、日報作成者として登録する
-                    day,
-                    getRequestParam(AttributeConst.REP_TITLE),
-                    getRequestParam(AttributeConst.REP_CONTENT),
-                    null,
-                    null);
+        //日報情報登録
+        List<String> errors = reportService.create(ReportView);
 
-            //日報情報登録
-            List<String> errors = reportService.create(ReportView);
+        if (errors.size() > 0) {
+            //登録中にエラーがあった場合
 
-            if (errors.size() > 0) {
-                //登録中にエラーがあった場合
+            putRequestScope(AttributeConst.TOKEN, getTokenId()); //CSRF対策用トークン
+            putRequestScope(AttributeConst.REPORT, ReportView);//入力された日報情報
+            putRequestScope(AttributeConst.ERR, errors);//エラーのリスト
 
-                putRequestScope(AttributeConst.TOKEN, getTokenId()); //CSRF対策用トークン
-                putRequestScope(AttributeConst.REPORT, ReportView);//入力された日報情報
-                putRequestScope(AttributeConst.ERR, errors);//エラーのリスト
+            //新規登録画面を再表示
+            forward(ForwardConst.FW_REP_NEW);
 
-                //新規登録画面を再表示
-                forward(ForwardConst.FW_REP_NEW);
+        } else {
+            //登録中にエラーがなかった場合
 
-            } else {
-                //登録中にエラーがなかった場合
+            //セッションに登録完了のフラッシュメッセージを設定
+            putSessionScope(AttributeConst.FLUSH, MessageConst.I_REGISTERED.getMessage());
+
+            //一覧画面にリダイレクト
+            redirect(ForwardConst.ACT_REP, ForwardConst.CMD_INDEX);
+        }
+    }
+
+    /**
+     * 一括登録画面を表示する
+     * @throws ServletException
+     * @throws IOException
+     */
+    public void entryImport() throws ServletException, IOException {
+
+        putRequestScope(AttributeConst.TOKEN, getTokenId()); //CSRF対策用トークン
+
+        //一括登録画面を表示
+        forward(ForwardConst.FW_REP_IMPORT);
+    }
+
+    /**
+     * アップロードされたファイル(CSV または JSON Lines)の日報を一括登録する
+     * 全ての行にエラーがない場合のみ登録し、エラーがある場合は行番号付きのエラーを表示する
+     * 登録の途中で失敗した場合は、登録済みの件数と失敗した行を表示する
+     * @throws ServletException
+     * @throws IOException
+     */
+    public void importReports() throws ServletException, IOException {
+
+        Part part = request.getPart(AttributeConst.REP_IMPORT_FILE.getValue());
 
-                //セッションに登録完了のフラッシュメッセージを設定
-                putSessionScope(AttributeConst.FLUSH, MessageConst.I_REGISTERED.getMessage());
+        if (part == null || part.getSize() == 0) {
+            //ファイルが選択されていない場合は一括登録画面を再表示
+            putRequestScope(AttributeConst.TOKEN, getTokenId()); //CSRF対策用トークン
+            putRequestScope(AttributeConst.ERR,
+                    Collections.singletonList(MessageConst.E_IMPORT_NOFILE.getMessage())); //エラーのリスト
+            forward(ForwardConst.FW_REP_IMPORT);
+            return;
+        }
+
+        ReportImportReader.Format format = ReportImportReader.Format.fromFileName(part.getSubmittedFileName());
+
+        //全ての行のバリデーションを行う(ファイルは登録時にもう一度先頭から読み込む)
+        List<String> errors;
+        try (InputStream inputStream = part.getInputStream()) {
+            errors = reportService.validateImport(inputStream, format);
+        }
 
-                //一覧画面にリダイレクト
-                redirect(ForwardConst.ACT_REP, ForwardConst.CMD_INDEX);
+        if (errors.size() > 0) {
+            //エラーがあった場合
+
+            putRequestScope(AttributeConst.TOKEN, getTokenId()); //CSRF対策用トークン
+            putRequestScope(AttributeConst.ERR, errors); //エラーのリスト
+
+            //一括登録画面を再表示
+            forward(ForwardConst.FW_REP_IMPORT);
+
+        } else {
+            //エラーがなかった場合
+
+            //ログイン中の従業員情報を取得
+            EmployeeView ev = getLoginEmployee();
+
+            //ログインしている従業員を日報作成者として一括登録する
+            ReportService.ImportResult result;
+            try (InputStream inputStream = part.getInputStream()) {
+                result = reportService.importReports(ev, inputStream, format);
             }
+            part.delete();
+
+            if (result.isFailed()) {
+                //途中で登録に失敗した場合は、登録済みの件数と登録し直す行を表示する
+                putRequestScope(AttributeConst.TOKEN, getTokenId()); //CSRF対策用トークン
+                putRequestScope(AttributeConst.ERR, Collections.singletonList(String.format(
+                        MessageConst.E_IMPORT_FAILED.getMessage(), result.getImported(),
+                        result.getFailedFromRow(), result.getFailedToRow(),
+                        result.getFailedFromRow(), result.getFailedFromRow()))); //エラーのリスト
+
+                //一括登録画面を再表示
+                forward(ForwardConst.FW_REP_IMPORT);
+                return;
+            }
+
+            //セッションに登録件数のフラッシュメッセージを設定
+            putSessionScope(AttributeConst.FLUSH,
+                    String.format(MessageConst.I_IMPORTED.getMessage(), result.getImported()));
+
+            //一覧画面にリダイレクト
+            redirect(ForwardConst.ACT_REP, ForwardConst.CMD_INDEX);
         }
     }
+
+    /**
+     * 日報データをCSV形式でダウンロードさせる
+     * 社員番号・日付の期間が指定された場合は、該当する日報のみを出力する
+     * 全件を読み込んでから送信するのではなく、DBから受け取った順に送信する(Content-Lengthは設定せず、チャンク形式で送信する)
+     * @throws ServletException
+     * @throws IOException
+     */
+    public void export() throws ServletException, IOException {
+
+        //絞り込みの条件(未入力の項目は条件にしない)
+        String code = getRequestParam(AttributeConst.REP_EXPORT_CODE);
+        if (code != null && code.trim().equals("")) {
+            code = null;
+        }
+        LocalDate from = toLocalDateOrNull(getRequestParam(AttributeConst.REP_EXPORT_FROM));
+        LocalDate to = toLocalDateOrNull(getRequestParam(AttributeConst.REP_EXPORT_TO));
+
+        response.setContentType("text/csv; charset=UTF-8");
+        response.setHeader("Content-Disposition", "attachment; filename=\"reports.csv\"");
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8));
+
+        //Excelで文字化けしないよう、先頭にBOMを出力する
+        writer.write('\uFEFF');
+        reportService.exportCsv(writer, code, from, to);
+    }
+
+    /**
+     * 検索画面を表示する
+     * キーワードが指定された場合は、タイトル・内容・氏名に全てのキーワードを含む日報を関連度の高い順に表示する
+     * @throws ServletException
+     * @throws IOException
+     */
+    public void search() throws ServletException, IOException {
+
+        String keywords = getRequestParam(AttributeConst.SEARCH_QUERY);
+        if (keywords != null && !keywords.trim().equals("")) {
+
+            //指定されたページの検索結果を取得(0以下のページ数が指定された場合は先頭のページ)
+            int page = Math.max(1, getPage());
+            ReportSearchIndex.Result result = ReportSearchIndex.search(keywords, page);
+
+            putRequestScope(AttributeConst.SEARCH_QUERY, keywords); //入力されたキーワード
+            putRequestScope(AttributeConst.SEARCH_QUERY_PARAM, "&" + AttributeConst.SEARCH_QUERY.getValue() + "="
+                    + URLEncoder.encode(keywords, StandardCharsets.UTF_8.name())); //ページ送りのリンクに付加するパラメータ
+            putRequestScope(AttributeConst.REPORTS, result.getReports()); //検索結果の日報データ
+            putRequestScope(AttributeConst.REP_COUNT, result.getCount()); //該当した件数
+            putRequestScope(AttributeConst.SEARCH_TRUNCATED, result.isTruncated()); //件数が上限を超えているか
+            putPagerScope(page, result.getCount(), null, null); //ページ送り(関連度順のためカーソルは使用せず、ページ数で移動する)
+        }
+        putRequestScope(AttributeConst.SEARCH_REBUILDING, ReportSearchIndex.isRebuilding()); //インデックスを作成中か
+        putRequestScope(AttributeConst.TOKEN, getTokenId()); //CSRF対策用トークン(インデックスの作り直し)
+
+        //セッションにフラッシュメッセージが設定されている場合はリクエストスコープに移し替え、セッションからは削除する
+        String flush = getSessionScope(AttributeConst.FLUSH);
+        if (flush != null) {
+            putRequestScope(AttributeConst.FLUSH, flush);
+            removeSessionScope(AttributeConst.FLUSH);
+        }
+
+        //検索画面を表示
+        forward(ForwardConst.FW_REP_SEARCH);
+    }
+
+    /**
+     * 全文検索用インデックスをDBの全ての日報から作り直す(管理者のみ)
+     * 作り直しは別スレッドで行い、完了するまでは作り直す前の内容で検索する
+     * @throws ServletException
+     * @throws IOException
+     */
+    public void reindex() throws ServletException, IOException {
+
+        if (ReportSearchIndex.rebuildAsync(false)) {
+            putSessionScope(AttributeConst.FLUSH, MessageConst.I_REINDEX_STARTED.getMessage());
+        } else {
+            putSessionScope(AttributeConst.FLUSH, MessageConst.E_REINDEX_RUNNING.getMessage());
+        }
+
+        //検索画面にリダイレクト
+        redirect(ForwardConst.ACT_REP, ForwardConst.CMD_SEARCH);
+    }
+
+    /**
+     * 日付の文字列をLocalDate型に変換する
+     * @param strDate 日付(yyyy-MM-dd)
+     * @return 変換後のLocalDate 未入力または形式が正しくない場合null
+     */
+    private LocalDate toLocalDateOrNull(String strDate) {
+        if (strDate == null || strDate.trim().equals("")) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(strDate.trim());
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
     /**
      * 詳細画面を表示する
      * @throws ServletException
@@ -156,6 +386,15 @@ public class ReportAction extends ActionBase {
 
         } else {
 
+            //日報と作成者(氏名を表示する)の更新日時が変わっていない場合は、ブラウザが保持している詳細画面を使用させる
+            //(日報・従業員は二次キャッシュから取得するため、この時点ではDBへのアクセスは通常発生しない)
+            LocalDateTime reportUpdated = reportView.getUpdatedAt();
+            LocalDateTime employeeUpdated = reportView.getEmployee().getUpdatedAt();
+            if (checkNotModified(reportUpdated + "|" + employeeUpdated,
+                    employeeUpdated != null && employeeUpdated.isAfter(reportUpdated) ? employeeUpdated : reportUpdated)) {
+                return;
+            }
+
             putRequestScope(AttributeConst.REPORT, reportView); //取得した日報データ
 
             //詳細画面を表示
@@ -173,10 +412,10 @@ public class ReportAction extends ActionBase {
         //idを条件に日報データを取得する
         ReportView rv = reportService.findOne(toNumber(getRequestParam(AttributeConst.REP_ID)));
 
-        //セッションからログイン中の従業員情報を取得
-        EmployeeView ev = (EmployeeView) getSessionScope(AttributeConst.LOGIN_EMP);
+        //ログイン中の従業員情報を取得
+        EmployeeView ev = getLoginEmployee();
 
-        if (rv == null || ev.getId() != rv.getEmployee().getId()) {
+        if (rv == null || !ev.getId().equals(rv.getEmployee().getId())) {
             //該当の日報データが存在しない、または
             //ログインしている従業員が日報の作成者でない場合はエラー画面を表示
             forward(ForwardConst.FW_ERR_UNKNOWN);
@@ -199,39 +438,35 @@ public class ReportAction extends ActionBase {
      */
     public void update() throws ServletException, IOException {
 
-        //CSRF対策 tokenのチェック
-        if (checkToken()) {
-
-            //idを条件に日報データを取得する
-            ReportView rv = reportService.findOne(toNumber(getRequestParam(AttributeConst.REP_ID)));
+        //idを条件に日報データを取得する
+        ReportView rv = reportService.findOne(toNumber(getRequestParam(AttributeConst.REP_ID)));
 
-            //入力された日報内容を設定する
-            rv.setReportDate(toLocalDate(getRequestParam(AttributeConst.REP_DATE)));
-            rv.setTitle(getRequestParam(AttributeConst.REP_TITLE));
-            rv.setContent(getRequestParam(AttributeConst.REP_CONTENT));
+        //入力された日報内容を設定する
+        rv.setReportDate(toLocalDate(getRequestParam(AttributeConst.REP_DATE)));
+        rv.setTitle(getRequestParam(AttributeConst.REP_TITLE));
+        rv.setContent(getRequestParam(AttributeConst.REP_CONTENT));
 
-            //日報データを更新する
-            List<String> errors = reportService.update(rv);
+        //日報データを更新する
+        List<String> errors = reportService.update(rv);
 
-            if (errors.size() > 0) {
-                //更新中にエラーが発生した場合
+        if (errors.size() > 0) {
+            //更新中にエラーが発生した場合
 
-                putRequestScope(AttributeConst.TOKEN, getTokenId()); //CSRF対策用トークン
-                putRequestScope(AttributeConst.REPORT, rv); //入力された日報情報
-                putRequestScope(AttributeConst.ERR, errors); //エラーのリスト
+            putRequestScope(AttributeConst.TOKEN, getTokenId()); //CSRF対策用トークン
+            putRequestScope(AttributeConst.REPORT, rv); //入力された日報情報
+            putRequestScope(AttributeConst.ERR, errors); //エラーのリスト
 
-                //編集画面を再表示
-                forward(ForwardConst.FW_REP_EDIT);
-            } else {
-                //更新中にエラーがなかった場合
+            //編集画面を再表示
+            forward(ForwardConst.FW_REP_EDIT);
+        } else {
+            //更新中にエラーがなかった場合
 
-                //セッションに更新完了のフラッシュメッセージを設定
-                putSessionScope(AttributeConst.FLUSH, MessageConst.I_UPDATED.getMessage());
+            //セッションに更新完了のフラッシュメッセージを設定
+            putSessionScope(AttributeConst.FLUSH, MessageConst.I_UPDATED.getMessage());
 
-                //一覧画面にリダイレクト
-                redirect(ForwardConst.ACT_REP, ForwardConst.CMD_INDEX);
+            //一覧画面にリダイレクト
+            redirect(ForwardConst.ACT_REP, ForwardConst.CMD_INDEX);
 
-            }
         }
     }
 
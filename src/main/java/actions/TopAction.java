@@ -9,7 +9,6 @@ import actions.views.EmployeeView;
 import actions.views.ReportView;
 import constants.AttributeConst;
 import constants.ForwardConst;
-import constants.JpaConst;
 import services.ReportService;
 
 
@@ -29,10 +28,12 @@ public class TopAction extends ActionBase {
 
         reportService = new ReportService(); //追記
 
-        //メソッドを実行
-        invoke();
-
-        reportService.close(); //追記
+        //メソッドを実行(例外が発生した場合もDBとの接続は必ず閉じる)
+        try {
+            invoke();
+        } finally {
+            reportService.close(); //追記
+        }
 
     }
 
@@ -43,20 +44,33 @@ public class TopAction extends ActionBase {
 
         // 以下追記
 
-        //セッションからログイン中の従業員情報を取得
-        EmployeeView loginEmployee = (EmployeeView) getSessionScope(AttributeConst.LOGIN_EMP);
+        //ログイン中の従業員情報を取得
+        EmployeeView loginEmployee = getLoginEmployee();
 
-        //ログイン中の従業員が作成した日報データを、指定されたページ数の一覧画面に表示する分取得する
+        //ログイン中の従業員が作成した日報データを、指定されたページの一覧画面に表示する分取得する
+        //(前後のページ・近くのページへの移動はidをカーソルとして取得し、ページ数のみの指定は近い方の端から読み飛ばして取得する)
         int page = getPage();
-        List<ReportView> reports = reportService.getMinePerPage(loginEmployee, page);
+        Integer after = getCursor(AttributeConst.PAGE_AFTER);
+        Integer before = getCursor(AttributeConst.PAGE_BEFORE);
+        int skip = getSkip();
 
         //ログイン中の従業員が作成した日報データの件数を取得
         long myReportsCount = reportService.countAllMine(loginEmployee);
 
+        List<ReportView> reports;
+        if (after != null) {
+            reports = reportService.getMineAfter(loginEmployee, after, skip);
+        } else if (before != null) {
+            reports = reportService.getMineBefore(loginEmployee, before, skip);
+        } else {
+            reports = reportService.getMinePerPage(loginEmployee, page, myReportsCount);
+        }
+
         putRequestScope(AttributeConst.REPORTS, reports); //取得した日報データ
         putRequestScope(AttributeConst.REP_COUNT, myReportsCount); //ログイン中の従業員が作成した日報の数
-        putRequestScope(AttributeConst.PAGE, page); //ページ数
-        putRequestScope(AttributeConst.MAX_ROW, JpaConst.ROW_PER_PAGE); //1ページに表示するレコードの数
+        putPagerScope(page, myReportsCount,
+                reports.isEmpty() ? null : reports.get(0).getId(),
+                reports.isEmpty() ? null : reports.get(reports.size() - 1).getId()); //ページ送り
 
         //↑ここまで追記
 
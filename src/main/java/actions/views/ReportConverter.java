@@ -1,5 +1,6 @@
 package actions.views;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -63,6 +64,33 @@ public class ReportConverter {
         return evs;
     }
 
+    /**
+     * 一覧画面用に取得した項目のリストからViewモデルのリストを作成する
+     * 各要素は 日報id, 日付, タイトル, 従業員id, 氏名 の順の配列(JpaConst.Q_REP_LIST_SELECT)
+     * 一覧画面に表示しない項目(内容、従業員のパスワード等)はnullとなる
+     * @param rows 取得した項目のリスト
+     * @return Viewモデルのリスト
+     */
+    public static List<ReportView> toListViewList(List<Object[]> rows) {
+        List<ReportView> evs = new ArrayList<>(rows.size());
+
+        for (Object[] row : rows) {
+            EmployeeView employeeView = new EmployeeView();
+            employeeView.setId((Integer) row[3]);
+            employeeView.setName((String) row[4]);
+
+            ReportView reportView = new ReportView();
+            reportView.setId((Integer) row[0]);
+            reportView.setEmployee(employeeView);
+            reportView.setReportDate((LocalDate) row[1]);
+            reportView.setTitle((String) row[2]);
+
+            evs.add(reportView);
+        }
+
+        return evs;
+    }
+
     /**
      * Viewモデルの全フィールドの内容をDTOモデルのフィールドにコピーする
      * @param report DTOモデル(コピー先)
@@ -0,0 +1,126 @@
+package actions.views;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.hibernate.stat.EntityStatistics;
+import org.hibernate.stat.QueryStatistics;
+import org.hibernate.stat.Statistics;
+
+public class StatisticsConverter {
+
+    /**
+     * Hibernateの統計情報からViewモデルのインスタンスを作成する
+     * 名前付きクエリは実行されていないものも含めて全て表示し、それ以外に実行されたクエリは名前なしで表示する
+     * @param statistics Hibernateの統計情報
+     * @param namedQueries 名前付きクエリの名前とクエリ(JPQL)の組み合わせ
+     * @return StatisticsViewのインスタンス
+     */
+    public static StatisticsView toView(Statistics statistics, Map<String, String> namedQueries) {
+
+        //実行されたクエリ(getQueryStatistics は未実行のクエリの集計領域を作成するため、実行済みのもののみ参照する)
+        Set<String> executed = new HashSet<>();
+        for (String query : statistics.getQueries()) {
+            executed.add(query);
+        }
+
+        List<StatisticsView.QueryRow> queries = new ArrayList<>();
+        for (Map.Entry<String, String> entry : namedQueries.entrySet()) {
+            String query = entry.getValue();
+            queries.add(toQueryRow(entry.getKey(), query,
+                    executed.remove(query) ? statistics.getQueryStatistics(query) : null));
+        }
+        for (String query : executed) {
+            queries.add(toQueryRow(null, query, statistics.getQueryStatistics(query)));
+        }
+
+        //時間のかかっているクエリから表示する
+        queries.sort(Comparator.comparingLong(StatisticsView.QueryRow::getTotalMillis)
+                .thenComparingLong(StatisticsView.QueryRow::getExecutionCount).reversed());
+
+        List<StatisticsView.EntityRow> entities = new ArrayList<>();
+        for (String name : statistics.getEntityNames()) {
+            entities.add(toEntityRow(name, statistics.getEntityStatistics(name)));
+        }
+
+        return new StatisticsView(
+                LocalDateTime.ofInstant(Instant.ofEpochMilli(statistics.getStartTime()), ZoneId.systemDefault())
+                        .truncatedTo(ChronoUnit.SECONDS),
+                statistics.getSessionOpenCount(),
+                statistics.getPrepareStatementCount(),
+                statistics.getQueryExecutionCount(),
+                statistics.getEntityLoadCount(),
+                statistics.getEntityFetchCount(),
+                statistics.getCollectionFetchCount(),
+                statistics.getSecondLevelCacheHitCount(),
+                statistics.getSecondLevelCacheMissCount(),
+                statistics.getSecondLevelCachePutCount(),
+                statistics.getQueryCacheHitCount(),
+                statistics.getQueryCacheMissCount(),
+                statistics.getQueryCachePutCount(),
+                queries,
+                entities);
+    }
+
+    /**
+     * クエリ1件分の統計情報を作成する
+     * @param name 名前付きクエリの名前(名前付きクエリ以外の場合null)
+     * @param query クエリ(JPQL)
+     * @param qs クエリの統計情報(実行されていない場合null)
+     * @return QueryRowのインスタンス
+     */
+    private static StatisticsView.QueryRow toQueryRow(String name, String query, QueryStatistics qs) {
+
+        if (qs == null) {
+            return new StatisticsView.QueryRow(name, query, 0, 0, 0, 0, 0, 0, 0);
+        }
+
+        return new StatisticsView.QueryRow(
+                name,
+                query,
+                qs.getExecutionCount(),
+                qs.getExecutionAvgTimeAsDouble(),
+                qs.getExecutionMaxTime(),
+                qs.getExecutionTotalTime(),
+                qs.getExecutionRowCount(),
+                qs.getCacheHitCount(),
+                qs.getCacheMissCount());
+    }
+
+    /**
+     * エンティティ1種類分の統計情報を作成する
+     * @param name エンティティ名
+     * @param es エンティティの統計情報
+     * @return EntityRowのインスタンス
+     */
+    private static StatisticsView.EntityRow toEntityRow(String name, EntityStatistics es) {
+
+        return new StatisticsView.EntityRow(
+                name.substring(name.lastIndexOf('.') + 1),
+                es.getLoadCount(),
+                es.getFetchCount(),
+                es.getInsertCount(),
+                es.getUpdateCount(),
+                es.getDeleteCount(),
+                cached(es.getCacheHitCount()),
+                cached(es.getCacheMissCount()),
+                cached(es.getCachePutCount()));
+    }
+
+    /**
+     * 二次キャッシュの対象でないエンティティの件数(NOT_CACHED_COUNT)を0に置き換える
+     * @param count 件数
+     * @return 件数
+     */
+    private static long cached(long count) {
+        return Math.max(0, count);
+    }
+}
@@ -0,0 +1,196 @@
+package actions.views;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+//Hibernateの統計情報を統計情報画面に表示するためのViewモデル
+//(集計を開始した時点、またはリセットした時点からの累計値)
+
+@Getter //全てのクラスフィールドについてgetterを自動生成する(Lombok)
+@AllArgsConstructor //全てのクラスフィールドを引数にもつ引数ありコンストラクタを自動生成する(Lombok)
+public class StatisticsView {
+
+    /**
+     * 集計を開始(リセット)した日時
+     */
+    private LocalDateTime startedAt;
+
+    /**
+     * 開いたセッション(EntityManager)の数
+     */
+    private long sessionOpenCount;
+
+    /**
+     * 実行したSQL文の数
+     */
+    private long prepareStatementCount;
+
+    /**
+     * クエリの実行回数の合計
+     */
+    private long queryExecutionCount;
+
+    /**
+     * DBから読み込んだエンティティの件数の合計(クエリの結果・findを含む)
+     */
+    private long entityLoadCount;
+
+    /**
+     * 関連の参照などにより個別に取得したエンティティの件数の合計(多い場合はN+1問題が発生している)
+     */
+    private long entityFetchCount;
+
+    /**
+     * 個別に取得したコレクションの件数の合計
+     */
+    private long collectionFetchCount;
+
+    /**
+     * 二次キャッシュのヒット件数
+     */
+    private long secondLevelCacheHitCount;
+
+    /**
+     * 二次キャッシュのミス件数
+     */
+    private long secondLevelCacheMissCount;
+
+    /**
+     * 二次キャッシュへの格納件数
+     */
+    private long secondLevelCachePutCount;
+
+    /**
+     * クエリキャッシュのヒット件数
+     */
+    private long queryCacheHitCount;
+
+    /**
+     * クエリキャッシュのミス件数
+     */
+    private long queryCacheMissCount;
+
+    /**
+     * クエリキャッシュへの格納件数
+     */
+    private long queryCachePutCount;
+
+    /**
+     * クエリごとの統計情報(合計実行時間の降順)
+     */
+    private List<QueryRow> queries;
+
+    /**
+     * エンティティごとの統計情報
+     */
+    private List<EntityRow> entities;
+
+    /**
+     * クエリ1件分の統計情報
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class QueryRow {
+
+        /**
+         * 名前付きクエリの名前(名前付きクエリ以外の場合null)
+         */
+        private String name;
+
+        /**
+         * クエリ(JPQL)
+         */
+        private String query;
+
+        /**
+         * 実行回数
+         */
+        private long executionCount;
+
+        /**
+         * 平均実行時間(ミリ秒)
+         */
+        private double averageMillis;
+
+        /**
+         * 最大実行時間(ミリ秒)
+         */
+        private long maxMillis;
+
+        /**
+         * 合計実行時間(ミリ秒)
+         */
+        private long totalMillis;
+
+        /**
+         * 取得した行数の合計
+         */
+        private long rowCount;
+
+        /**
+         * クエリキャッシュのヒット件数
+         */
+        private long cacheHitCount;
+
+        /**
+         * クエリキャッシュのミス件数
+         */
+        private long cacheMissCount;
+    }
+
+    /**
+     * エンティティ1種類分の統計情報
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class EntityRow {
+
+        /**
+         * エンティティ名
+         */
+        private String name;
+
+        /**
+         * DBから読み込んだ件数
+         */
+        private long loadCount;
+
+        /**
+         * 個別に取得した件数
+         */
+        private long fetchCount;
+
+        /**
+         * 登録件数
+         */
+        private long insertCount;
+
+        /**
+         * 更新件数
+         */
+        private long updateCount;
+
+        /**
+         * 削除件数
+         */
+        private long deleteCount;
+
+        /**
+         * 二次キャッシュのヒット件数
+         */
+        private long cacheHitCount;
+
+        /**
+         * 二次キャッシュのミス件数
+         */
+        private long cacheMissCount;
+
+        /**
+         * 二次キャッシュへの格納件数
+         */
+        private long cachePutCount;
+    }
+}
@@ -0,0 +1,16 @@
+package constants;
+
+//ビルド時に加工した静的ファイル(CSS)に関する定数
+//(加工は src/build/java の AssetPipeline がビルド時に行い、配信は AssetServlet が行う)
+public interface AssetConst {
+
+    //加工したファイルを置くディレクトリ(warのルートからのパス)
+    String ASSET_DIR = "assets";
+
+    //元のファイル名と加工したファイル名の対応を出力するファイル(warのルートからのパス)
+    String MANIFEST = "WEB-INF/asset-manifest.properties";
+
+    //圧縮版のファイルの拡張子
+    String GZIP_SUFFIX = ".gz";
+
+}
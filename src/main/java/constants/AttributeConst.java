@@ -4,16 +4,30 @@ public enum AttributeConst {
   //フラッシュメッセージ
     FLUSH("flush"),
 
+    //静的ファイルのURL(アプリケーションスコープ AssetServletが設定する 例: assets['css/style.css'])
+    ASSETS("assets"),
+
     //一覧画面共通
     MAX_ROW("maxRow"),
     PAGE("page"),
+    PAGE_AFTER("after"),
+    PAGE_BEFORE("before"),
+    PAGE_SKIP("skip"),
+    NEXT_CURSOR("nextCursor"),
+    PREV_CURSOR("prevCursor"),
+    LAST_PAGE("lastPage"),
+    PAGER_BEGIN("pagerBegin"),
+    PAGER_END("pagerEnd"),
 
     //入力フォーム共通
     TOKEN("_token"),
     ERR("errors"),
 
-    //ログイン中の従業員
+    //ログイン中の従業員(リクエストスコープ LoginFilterが設定する)
     LOGIN_EMP("login_employee"),
+    //ログイン中の従業員のidとバージョン(セッションスコープ)
+    LOGIN_EMP_ID("login_employee_id"),
+    LOGIN_EMP_VERSION("login_employee_version"),
 
     //ログイン画面
     LOGIN_ERR("loginError"),
@@ -43,7 +57,20 @@ public enum AttributeConst {
     REP_ID("id"),
     REP_DATE("report_date"),
     REP_TITLE("title"),
-    REP_CONTENT("content_msg");
+    REP_CONTENT("content_msg"),
+    REP_IMPORT_FILE("import_file"),
+    REP_EXPORT_CODE("export_code"),
+    REP_EXPORT_FROM("export_from"),
+    REP_EXPORT_TO("export_to"),
+
+    //日報の検索
+    SEARCH_QUERY("q"),
+    SEARCH_QUERY_PARAM("searchQueryParam"),
+    SEARCH_TRUNCATED("searchTruncated"),
+    SEARCH_REBUILDING("searchRebuilding"),
+
+    //統計情報
+    STATISTICS("statistics");
 
     private final String text;
     private final Integer i;
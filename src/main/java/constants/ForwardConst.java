@@ -7,6 +7,7 @@ public enum ForwardConst {
     ACT_EMP("Employee"),
     ACT_REP("Report"),
     ACT_AUTH("Auth"),
+    ACT_METRICS("Metrics"),
 
     //command
     CMD("command"),
@@ -21,6 +22,13 @@ public enum ForwardConst {
     CMD_EDIT("edit"),
     CMD_UPDATE("update"),
     CMD_DESTROY("destroy"),
+    CMD_ENTRY_IMPORT("entryImport"),
+    CMD_IMPORT("importReports"),
+    CMD_EXPORT("export"),
+    CMD_SEARCH("search"),
+    CMD_REINDEX("reindex"),
+    CMD_STATISTICS("statistics"),
+    CMD_RESET_STATISTICS("resetStatistics"),
 
     //jsp
     FW_ERR_UNKNOWN("error/unknown"),
@@ -33,7 +41,10 @@ public enum ForwardConst {
     FW_REP_INDEX("reports/index"),
     FW_REP_SHOW("reports/show"),
     FW_REP_NEW("reports/new"),
-    FW_REP_EDIT("reports/edit");
+    FW_REP_EDIT("reports/edit"),
+    FW_REP_IMPORT("reports/import"),
+    FW_REP_SEARCH("reports/search"),
+    FW_METRICS_STATISTICS("metrics/statistics");
 
     /**
      * 文字列
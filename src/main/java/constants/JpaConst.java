@@ -6,9 +6,11 @@ public interface JpaConst {
 
     //データ取得件数の最大値
     int ROW_PER_PAGE = 15; //1ページに表示するレコードの数
+    int PAGE_LINK_RANGE = 4; //一覧画面で現在のページの前後に表示するページリンクの数
 
     //従業員テーブル
     String TABLE_EMP = "employees"; //テーブル名
+    int EMP_CODE_LENGTH = 255; //社員番号の最大文字数
     //従業員テーブルカラム
     String EMP_COL_ID = "id"; //id
     String EMP_COL_CODE = "code"; //社員番号
@@ -26,6 +28,7 @@ public interface JpaConst {
 
     //日報テーブル
     String TABLE_REP = "reports"; //テーブル名
+    int REP_TITLE_LENGTH = 255; //タイトルの最大文字数
     //日報テーブルカラム
     String REP_COL_ID = "id"; //id
     String REP_COL_EMP = "employee_id"; //日報を作成した従業員のid
@@ -34,40 +37,128 @@ public interface JpaConst {
     String REP_COL_CONTENT = "content"; //日報の内容
     String REP_COL_CREATED_AT = "created_at"; //登録日時
     String REP_COL_UPDATED_AT = "updated_at"; //更新日時
+    //日報テーブルインデックス
+    String REP_IDX_EMP_ID = "idx_reports_employee_id_id"; //従業員ごとの日報をidの降順で取得する
+    String REP_IDX_UPDATED_AT = "idx_reports_updated_at"; //最終更新日時を取得する
+
+    //日報件数テーブル
+    String TABLE_REP_CNT = "report_counters"; //テーブル名
+    //日報件数テーブルカラム
+    String REP_CNT_COL_EMP = "employee_id"; //従業員のid
+    String REP_CNT_COL_COUNT = "report_count"; //日報の件数
 
     //Entity名
     String ENTITY_EMP = "employee"; //従業員
     String ENTITY_REP = "report"; //日報
+    String ENTITY_REP_CNT = "reportCounter"; //日報件数
 
     //JPQL内パラメータ
     String JPQL_PARM_CODE = "code"; //社員番号
     String JPQL_PARM_PASSWORD = "password"; //パスワード
     String JPQL_PARM_EMPLOYEE = "employee"; //従業員
+    String JPQL_PARM_CURSOR = "cursor"; //一覧画面の基準となるid
+    String JPQL_PARM_EMPLOYEE_ID = "employeeId"; //従業員のid
+    String JPQL_PARM_AMOUNT = "amount"; //加算する件数
+    String JPQL_PARM_DATE_FROM = "dateFrom"; //期間の開始日
+    String JPQL_PARM_DATE_TO = "dateTo"; //期間の終了日
 
     //NamedQueryの nameとquery
     //全ての従業員をidの降順に取得する
     String Q_EMP_GET_ALL = ENTITY_EMP + ".getAll"; //name
     String Q_EMP_GET_ALL_DEF = "SELECT e FROM Employee AS e ORDER BY e.id DESC"; //query
+    //指定したidより古い従業員をidの降順に取得する(次ページ)
+    String Q_EMP_GET_AFTER = ENTITY_EMP + ".getAfter";
+    String Q_EMP_GET_AFTER_DEF = "SELECT e FROM Employee AS e WHERE e.id < :" + JPQL_PARM_CURSOR + " ORDER BY e.id DESC";
+    //指定したidより新しい従業員をidの昇順に取得する(前ページ)
+    String Q_EMP_GET_BEFORE = ENTITY_EMP + ".getBefore";
+    String Q_EMP_GET_BEFORE_DEF = "SELECT e FROM Employee AS e WHERE e.id > :" + JPQL_PARM_CURSOR + " ORDER BY e.id";
+    //全ての従業員のidを取得する
+    String Q_EMP_GET_ALL_ID = ENTITY_EMP + ".getAllId";
+    String Q_EMP_GET_ALL_ID_DEF = "SELECT e.id FROM Employee AS e";
     //全ての従業員の件数を取得する
     String Q_EMP_COUNT = ENTITY_EMP + ".count";
     String Q_EMP_COUNT_DEF = "SELECT COUNT(e) FROM Employee AS e";
-    //社員番号とハッシュ化済パスワードを条件に未削除の従業員を取得する
-    String Q_EMP_GET_BY_CODE_AND_PASS = ENTITY_EMP + ".getByCodeAndPass";
-    String Q_EMP_GET_BY_CODE_AND_PASS_DEF = "SELECT e FROM Employee AS e WHERE e.deleteFlag = 0 AND e.code = :" + JPQL_PARM_CODE + " AND e.password = :" + JPQL_PARM_PASSWORD;
+    //全ての従業員の最終更新日時を取得する
+    String Q_EMP_GET_LAST_UPDATED = ENTITY_EMP + ".getLastUpdated";
+    String Q_EMP_GET_LAST_UPDATED_DEF = "SELECT MAX(e.updatedAt) FROM Employee AS e";
+    //社員番号を条件に未削除の従業員を取得する(パスワードはソルト付きでハッシュ化しているため、取得後に照合する)
+    String Q_EMP_GET_BY_CODE = ENTITY_EMP + ".getByCode";
+    String Q_EMP_GET_BY_CODE_DEF = "SELECT e FROM Employee AS e WHERE e.deleteFlag = 0 AND e.code = :" + JPQL_PARM_CODE;
     //指定した社員番号を保持する従業員の件数を取得する
     String Q_EMP_COUNT_REGISTERED_BY_CODE = ENTITY_EMP + ".countRegisteredByCode";
     String Q_EMP_COUNT_REGISTERED_BY_CODE_DEF = "SELECT COUNT(e) FROM Employee AS e WHERE e.code = :" + JPQL_PARM_CODE;
-    //全ての日報をidの降順に取得する
+    //日報一覧画面に表示する項目(日報id, 日付, タイトル, 従業員id, 氏名)
+    //内容(@Lob)や従業員のパスワード等は取得せず、従業員とは1回のJOINで取得する
+    String Q_REP_LIST_SELECT = "SELECT r.id, r.reportDate, r.title, e.id, e.name FROM Report AS r JOIN r.employee AS e";
+    //全ての日報の一覧表示項目をidの降順に取得する
     String Q_REP_GET_ALL = ENTITY_REP + ".getAll";
-    String Q_REP_GET_ALL_DEF = "SELECT r FROM Report AS r ORDER BY r.id DESC";
+    String Q_REP_GET_ALL_DEF = Q_REP_LIST_SELECT + " ORDER BY r.id DESC";
+    //指定したidより古い日報の一覧表示項目をidの降順に取得する(次ページ)
+    String Q_REP_GET_AFTER = ENTITY_REP + ".getAfter";
+    String Q_REP_GET_AFTER_DEF = Q_REP_LIST_SELECT + " WHERE r.id < :" + JPQL_PARM_CURSOR + " ORDER BY r.id DESC";
+    //指定したidより新しい日報の一覧表示項目をidの昇順に取得する(前ページ)
+    String Q_REP_GET_BEFORE = ENTITY_REP + ".getBefore";
+    String Q_REP_GET_BEFORE_DEF = Q_REP_LIST_SELECT + " WHERE r.id > :" + JPQL_PARM_CURSOR + " ORDER BY r.id";
     //全ての日報の件数を取得する
     String Q_REP_COUNT = ENTITY_REP + ".count";
     String Q_REP_COUNT_DEF = "SELECT COUNT(r) FROM Report AS r";
-    //指定した従業員が作成した日報を全件idの降順で取得する
+    //全ての日報の最終更新日時を取得する(更新日時のインデックスから取得する)
+    String Q_REP_GET_LAST_UPDATED = ENTITY_REP + ".getLastUpdated";
+    String Q_REP_GET_LAST_UPDATED_DEF = "SELECT MAX(r.updatedAt) FROM Report AS r";
+    //指定した従業員が作成した日報の一覧表示項目を全件idの降順で取得する
     String Q_REP_GET_ALL_MINE = ENTITY_REP + ".getAllMine";
-    String Q_REP_GET_ALL_MINE_DEF = "SELECT r FROM Report AS r WHERE r.employee = :" + JPQL_PARM_EMPLOYEE + " ORDER BY r.id DESC";
+    String Q_REP_GET_ALL_MINE_DEF = Q_REP_LIST_SELECT + " WHERE r.employee = :" + JPQL_PARM_EMPLOYEE + " ORDER BY r.id DESC";
+    //指定した従業員が作成した日報のうち、指定したidより古いものの一覧表示項目をidの降順に取得する(次ページ)
+    String Q_REP_GET_MINE_AFTER = ENTITY_REP + ".getMineAfter";
+    String Q_REP_GET_MINE_AFTER_DEF = Q_REP_LIST_SELECT + " WHERE r.employee = :" + JPQL_PARM_EMPLOYEE + " AND r.id < :" + JPQL_PARM_CURSOR + " ORDER BY r.id DESC";
+    //指定した従業員が作成した日報のうち、指定したidより新しいものの一覧表示項目をidの昇順に取得する(前ページ)
+    String Q_REP_GET_MINE_BEFORE = ENTITY_REP + ".getMineBefore";
+    String Q_REP_GET_MINE_BEFORE_DEF = Q_REP_LIST_SELECT + " WHERE r.employee = :" + JPQL_PARM_EMPLOYEE + " AND r.id > :" + JPQL_PARM_CURSOR + " ORDER BY r.id";
     //指定した従業員が作成した日報の件数を取得する
     String Q_REP_COUNT_ALL_MINE = ENTITY_REP + ".countAllMine";
     String Q_REP_COUNT_ALL_MINE_DEF = "SELECT COUNT(r) FROM Report AS r WHERE r.employee = :" + JPQL_PARM_EMPLOYEE;
+    //全従業員の日報件数の合計を取得する
+    String Q_REP_CNT_SUM = ENTITY_REP_CNT + ".sum";
+    String Q_REP_CNT_SUM_DEF = "SELECT SUM(c.reportCount) FROM ReportCounter AS c";
+    //指定した従業員の日報件数を加算する
+    String Q_REP_CNT_ADD = ENTITY_REP_CNT + ".add";
+    String Q_REP_CNT_ADD_DEF = "UPDATE ReportCounter AS c SET c.reportCount = c.reportCount + :" + JPQL_PARM_AMOUNT + " WHERE c.employeeId = :" + JPQL_PARM_EMPLOYEE_ID;
+    //全文検索用インデックスの作成に必要な項目を全ての日報について取得する
+    String Q_REP_GET_ALL_FOR_INDEX = ENTITY_REP + ".getAllForIndex";
+    String Q_REP_GET_ALL_FOR_INDEX_DEF = "SELECT r.id, e.id, e.name, r.reportDate, r.title, r.content FROM Report AS r JOIN r.employee AS e ORDER BY r.id";
+    //全文検索用インデックスの作成に必要な項目を指定した従業員の日報について取得する(氏名の変更時に使用)
+    String Q_REP_GET_MINE_FOR_INDEX = ENTITY_REP + ".getMineForIndex";
+    String Q_REP_GET_MINE_FOR_INDEX_DEF = "SELECT r.id, e.id, e.name, r.reportDate, r.title, r.content FROM Report AS r JOIN r.employee AS e WHERE e.id = :" + JPQL_PARM_EMPLOYEE_ID + " ORDER BY r.id";
+
+    //日報のエクスポート(指定された条件のみを WHERE 句に連結するため、NamedQueryにはしない)
+    String Q_REP_EXPORT_SELECT = "SELECT r.id, e.code, e.name, r.reportDate, r.title, r.content, r.createdAt, r.updatedAt FROM Report AS r JOIN r.employee AS e";
+    String Q_REP_EXPORT_COND_CODE = "e.code = :" + JPQL_PARM_CODE;
+    String Q_REP_EXPORT_COND_FROM = "r.reportDate >= :" + JPQL_PARM_DATE_FROM;
+    String Q_REP_EXPORT_COND_TO = "r.reportDate <= :" + JPQL_PARM_DATE_TO;
+    String Q_REP_EXPORT_ORDER = " ORDER BY r.id";
+
+    //起動時に事前コンパイルする全てのNamedQueryのname
+    String[] NAMED_QUERIES = {
+            Q_EMP_GET_ALL,
+            Q_EMP_GET_AFTER,
+            Q_EMP_GET_BEFORE,
+            Q_EMP_GET_ALL_ID,
+            Q_EMP_COUNT,
+            Q_EMP_GET_LAST_UPDATED,
+            Q_EMP_GET_BY_CODE,
+            Q_EMP_COUNT_REGISTERED_BY_CODE,
+            Q_REP_GET_ALL,
+            Q_REP_GET_AFTER,
+            Q_REP_GET_BEFORE,
+            Q_REP_COUNT,
+            Q_REP_GET_LAST_UPDATED,
+            Q_REP_GET_ALL_MINE,
+            Q_REP_GET_MINE_AFTER,
+            Q_REP_GET_MINE_BEFORE,
+            Q_REP_COUNT_ALL_MINE,
+            Q_REP_GET_ALL_FOR_INDEX,
+            Q_REP_GET_MINE_FOR_INDEX,
+            Q_REP_CNT_SUM,
+            Q_REP_CNT_ADD };
 
 }
@@ -6,11 +6,14 @@ public enum MessageConst {
     I_LOGINED("ログインしました"),
     E_LOGINED("ログインに失敗しました。"),
     I_LOGOUT("ログアウトしました。"),
+    E_LOGIN_THROTTLED("ログインの試行回数が多すぎます。しばらくしてから再度ログインしてください。"),
+    E_LOGIN_BUSY("ログインが集中しています。しばらくしてから再度ログインしてください。"),
 
     //DB更新
     I_REGISTERED("登録が完了しました。"),
     I_UPDATED("更新が完了しました。"),
     I_DELETED("削除が完了しました。"),
+    E_HASH_BUSY("処理が集中しています。しばらくしてから再度登録してください。"),
 
     //バリデーション
     E_NONAME("氏名を入力してください。"),
@@ -18,7 +21,27 @@ public enum MessageConst {
     E_NOEMP_CODE("社員番号を入力してください。"),
     E_EMP_CODE_EXIST("入力された社員番号の情報は既に存在しています。"),
     E_NOTITLE("タイトルを入力してください。"),
-    E_NOCONTENT("内容を入力してください。");
+    E_NOCONTENT("内容を入力してください。"),
+
+    //日報の一括登録
+    I_IMPORTED("%d件の日報を登録しました。"),
+    E_IMPORT_NOFILE("登録するファイルを選択してください。"),
+    E_IMPORT_NOROW("ファイルに日報が含まれていません。"),
+    E_IMPORT_ROW("%d行目：%s"),
+    E_IMPORT_TOO_MANY("エラーが多いため、以降の行のチェックを省略しました。"),
+    E_IMPORT_COLUMNS("項目の数が正しくありません。"),
+    E_IMPORT_FORMAT("JSONの形式が正しくありません。"),
+    E_IMPORT_DATE("日付の形式が正しくありません。(例: 2021-04-01)"),
+    E_IMPORT_TITLE_LENGTH("タイトルは%d文字以内で入力してください。"),
+    E_IMPORT_FAILED("%d件の日報を登録しましたが、%d行目から%d行目の登録に失敗したため、%d行目以降は登録していません。"
+            + "%d行目以降の行のみのファイルで登録し直してください。"),
+
+    //日報の検索
+    I_REINDEX_STARTED("検索用インデックスの作成を開始しました。"),
+    E_REINDEX_RUNNING("検索用インデックスは作成中です。"),
+
+    //統計情報
+    I_STATISTICS_RESET("統計情報をリセットしました。");
 
 
     /**
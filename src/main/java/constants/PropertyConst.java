@@ -3,7 +3,61 @@ package constants;
 public enum PropertyConst {
 
     //ペッパー文字列
-    PEPPER("pepper");
+    PEPPER("pepper"),
+
+    //パスワードのハッシュ化(PBKDF2の繰り返し回数、ハッシュ化を実行するスレッド数、実行を待つことができる件数)
+    PASSWORD_PBKDF2_ITERATIONS("password.pbkdf2.iterations"),
+    PASSWORD_HASH_THREADS("password.hash.threads"),
+    PASSWORD_HASH_QUEUE_SIZE("password.hash.queueSize"),
+
+    //ログインの試行回数の制限(連続して試行できる回数と1分あたりに回復する回数、保持する件数の上限)
+    LOGIN_THROTTLE_CODE_CAPACITY("login.throttle.code.capacity"),
+    LOGIN_THROTTLE_CODE_PER_MINUTE("login.throttle.code.perMinute"),
+    LOGIN_THROTTLE_ADDRESS_CAPACITY("login.throttle.address.capacity"),
+    LOGIN_THROTTLE_ADDRESS_PER_MINUTE("login.throttle.address.perMinute"),
+    LOGIN_THROTTLE_MAX_ENTRIES("login.throttle.maxEntries"),
+
+    //接続元のアドレスを設定するヘッダと、そのヘッダを信頼するプロキシのアドレス(正規表現)
+    CLIENT_ADDRESS_HEADER("client.address.header"),
+    CLIENT_ADDRESS_TRUSTED_PROXIES("client.address.trustedProxies"),
+
+    //リクエストを仮想スレッドで非同期に処理するかどうかと、非同期処理のタイムアウト(秒)
+    REQUEST_ASYNC("request.async"),
+    REQUEST_ASYNC_TIMEOUT_SECONDS("request.async.timeoutSeconds"),
+
+    //応答をgzip形式に圧縮するかどうか、圧縮する最小のバイト数、圧縮レベル、圧縮する Content-Type
+    COMPRESSION_ENABLED("compression.enabled"),
+    COMPRESSION_MIN_SIZE("compression.minSize"),
+    COMPRESSION_LEVEL("compression.level"),
+    COMPRESSION_MIME_TYPES("compression.mimeTypes"),
+
+    //ログイン中の従業員の情報をDBから取得し直すまでの時間(秒)
+    EMP_SNAPSHOT_TTL_SECONDS("employee.snapshot.ttlSeconds"),
+
+    //日報件数の補正処理を実行する間隔(分)
+    REP_COUNTER_RECONCILE_MINUTES("report.counter.reconcileMinutes"),
+
+    //日報一覧画面のキャッシュに保持するページ数の上限と、キャッシュを使用する時間(秒)
+    REP_LIST_CACHE_MAX_ENTRIES("report.listCache.maxEntries"),
+    REP_LIST_CACHE_TTL_SECONDS("report.listCache.ttlSeconds"),
+
+    //日報の登録をまとめて行うかどうか、登録を待つことができる件数、1トランザクションで登録する件数の上限、登録の完了を待つ時間(秒)
+    REP_WRITE_BEHIND("report.writeBehind"),
+    REP_WRITE_BEHIND_QUEUE_SIZE("report.writeBehind.queueSize"),
+    REP_WRITE_BEHIND_MAX_GROUP_SIZE("report.writeBehind.maxGroupSize"),
+    REP_WRITE_BEHIND_TIMEOUT_SECONDS("report.writeBehind.timeoutSeconds"),
+
+    //日報の一括登録で1トランザクションに登録する件数
+    REP_IMPORT_CHUNK_SIZE("report.import.chunkSize"),
+
+    //日報のエクスポートで1度にDBから受け取る件数
+    REP_EXPORT_FETCH_SIZE("report.export.fetchSize"),
+
+    //全文検索用インデックスを保存するディレクトリ(未設定の場合は一時ディレクトリ)
+    REP_SEARCH_INDEX_DIR("report.search.indexDir"),
+
+    //全文検索用インデックスの変更をディスクに書き出す間隔(秒)
+    REP_SEARCH_COMMIT_SECONDS("report.search.commitSeconds");
 
     private final String text;
     private PropertyConst(final String text) {
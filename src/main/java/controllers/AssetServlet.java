@@ -0,0 +1,157 @@
+package controllers;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import javax.servlet.ServletContext;
+import javax.servlet.ServletException;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import constants.AssetConst;
+import constants.AttributeConst;
+import filters.CompressionFilter;
+
+//ビルド時にファイル名へ内容のハッシュ値を付けた静的ファイル(CSS)を返却するサーブレット
+//URLは内容が変わると変わるため、ブラウザには期限なしでキャッシュさせる(2回目以降の表示ではCSSを取得しない)
+//ビルド時に作成したgzip圧縮版があり、クライアントが受け付ける場合は圧縮版を返却する
+//(FrontControllerへのリクエストのみに適用するフィルタ(認証・文字コード・圧縮)は経由しない)
+@WebServlet(name = "AssetServlet", urlPatterns = { "/" + AssetConst.ASSET_DIR + "/*" }, loadOnStartup = 1,
+        asyncSupported = true)
+public class AssetServlet extends HttpServlet {
+    private static final long serialVersionUID = 1L;
+
+    //期限なし(1年)でキャッシュさせ、再読み込み時にも問い合わせさせない
+    private static final String CACHE_CONTROL = "public, max-age=31536000, immutable";
+
+    //返却するファイル(assetsディレクトリからのパス → 内容)
+    private Map<String, Asset> assets = Collections.emptyMap();
+
+    /**
+     * マニフェストに記載された静的ファイルを読み込み、画面から参照するURLをアプリケーションスコープに設定する
+     * マニフェストがない場合(ビルド時の処理を経ずに実行した場合)は、元のファイルのURLを設定する
+     */
+    @Override
+    public void init() throws ServletException {
+        ServletContext context = getServletContext();
+
+        Properties manifest = new Properties();
+        try (InputStream in = context.getResourceAsStream("/" + AssetConst.MANIFEST)) {
+            if (in != null) {
+                try (Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+                    manifest.load(reader);
+                }
+            }
+        } catch (IOException e) {
+            throw new ServletException(e);
+        }
+
+        Map<String, Asset> loaded = new HashMap<String, Asset>();
+        Map<String, String> urls = new HashMap<String, String>();
+        for (String name : manifest.stringPropertyNames()) {
+            String hashed = manifest.getProperty(name);
+            String path = "/" + AssetConst.ASSET_DIR + "/" + hashed;
+
+            byte[] content = read(context, path);
+            if (content == null) {
+                continue;
+            }
+            String contentType = context.getMimeType(name);
+            loaded.put(hashed, new Asset(
+                    contentType == null ? "application/octet-stream" : contentType,
+                    content,
+                    read(context, path + AssetConst.GZIP_SUFFIX)));
+            urls.put(name, path);
+        }
+        assets = loaded;
+
+        //jspからは ${assets['css/style.css']} で参照する(マニフェストにないファイルは元のURLを返却する)
+        context.setAttribute(AttributeConst.ASSETS.getValue(), new HashMap<String, String>(urls) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public String get(Object name) {
+                String url = super.get(name);
+                return url != null ? url : "/" + name;
+            }
+        });
+    }
+
+    /**
+     * @see HttpServlet#doGet(HttpServletRequest request, HttpServletResponse response)
+     */
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+
+        String pathInfo = request.getPathInfo();
+        Asset asset = pathInfo == null ? null : assets.get(pathInfo.substring(1));
+        if (asset == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        response.setContentType(asset.contentType);
+        if (asset.contentType.startsWith("text/")) {
+            response.setCharacterEncoding("UTF-8");
+        }
+        response.setHeader("Cache-Control", CACHE_CONTROL);
+
+        byte[] body = asset.content;
+        if (asset.gzip != null) {
+            response.setHeader("Vary", "Accept-Encoding");
+            if (CompressionFilter.acceptsGzip(request.getHeader("Accept-Encoding"))) {
+                response.setHeader("Content-Encoding", "gzip");
+                body = asset.gzip;
+            }
+        }
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    /**
+     * webアプリケーション内のファイルを読み込む
+     * @param context サーブレットコンテキスト
+     * @param path ファイルのパス
+     * @return ファイルの内容 ファイルがない場合null
+     * @throws ServletException
+     */
+    private static byte[] read(ServletContext context, String path) throws ServletException {
+        try (InputStream in = context.getResourceAsStream(path)) {
+            if (in == null) {
+                return null;
+            }
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new ServletException(e);
+        }
+    }
+
+    /**
+     * 返却するファイル1件分の内容
+     */
+    private static final class Asset {
+
+        private final String contentType;
+
+        private final byte[] content;
+
+        //gzip圧縮版(作成していない場合null)
+        private final byte[] gzip;
+
+        private Asset(String contentType, byte[] content, byte[] gzip) {
+            this.contentType = contentType;
+            this.content = content;
+            this.gzip = gzip;
+        }
+    }
+}
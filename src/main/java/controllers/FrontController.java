@@ -1,9 +1,11 @@
 package controllers;
 
 import java.io.IOException;
-import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.RejectedExecutionException;
 
+import javax.servlet.AsyncContext;
 import javax.servlet.ServletException;
+import javax.servlet.annotation.MultipartConfig;
 import javax.servlet.annotation.WebServlet;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
@@ -12,8 +14,11 @@ import javax.servlet.http.HttpServletResponse;
 import actions.ActionBase;
 import actions.UnknownAction;
 import constants.ForwardConst;
+import utilties.RequestExecutor;
+import utilties.RequestMetrics;
 
-@WebServlet(name="FrontController", urlPatterns={"/"})
+@WebServlet(name="FrontController", urlPatterns={"/"}, asyncSupported = true)
+@MultipartConfig(fileSizeThreshold = 1024 * 1024, maxFileSize = 100 * 1024 * 1024) //日報の一括登録(1MBを超えるファイルは一時ファイルに保存する)
 public class FrontController extends HttpServlet {
     private static final long serialVersionUID = 1L;
 
@@ -27,57 +32,127 @@ public class FrontController extends HttpServlet {
     protected void doGet(HttpServletRequest request, HttpServletResponse response)
             throws ServletException, IOException {
 
-        //パラメータに該当するActionクラスのインスタンス
-        ActionBase action = getAction(request, response);
+        if (!RequestExecutor.isEnabled() || !request.isAsyncSupported()) {
+            //コンテナのスレッドでそのまま処理する
+            dispatch(request, response);
+            return;
+        }
 
-        //サーブレットコンテキスト、リクエスト、レスポンスをActionインスタンスのフィールドに設定
-        action.init(getServletContext(), request, response);
+        //非同期処理を開始し、コンテナのスレッドは解放する(応答は complete() を呼び出すまで返却されない)
+        AsyncContext asyncContext = request.startAsync(request, response);
+        asyncContext.setTimeout(RequestExecutor.getTimeoutMillis());
 
-        //Actionクラスの処理を呼び出し
-        action.process();
+        //Actionクラスの処理は仮想スレッドで実行する
+        try {
+            RequestExecutor.execute(() -> {
+                try {
+                    dispatch(request, response);
+                } catch (ServletException | IOException | RuntimeException e) {
+                    //コンテナのスレッドで処理した場合と同じく、エラーの応答を返却する
+                    log("リクエストの処理中に例外が発生しました", e);
+                    if (!response.isCommitted()) {
+                        try {
+                            response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+                        } catch (IOException | IllegalStateException ignore) {
+                            //応答を返却できない場合(接続が切れた場合など)は何もしない
+                        }
+                    }
+                } finally {
+                    closeResponse(response);
+                    asyncContext.complete();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            //アプリケーションの終了中で処理を受け付けられない場合は、503を返却して非同期処理を終了する
+            //(complete() を呼び出さないと、タイムアウトしない設定では応答が返却されないままになる)
+            try {
+                response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            } catch (IOException | IllegalStateException ignore) {
+                //応答を返却できない場合(接続が切れた場合など)は何もしない
+            }
+            closeResponse(response);
+            asyncContext.complete();
+        }
     }
 
-
     /**
-     * @see HttpServlet#doPost(HttpServletRequest request, HttpServletResponse response)
+     * 非同期処理で返却する応答の本文を閉じる
+     * (コンテナのスレッドで処理した場合はコンテナが閉じるが、非同期処理では complete() の前に閉じないと、
+     * フィルタがレスポンスを包んでいる場合(圧縮など)に本文の最後が書き込まれない)
+     * @param response レスポンス
      */
-    protected void doPost(HttpServletRequest request, HttpServletResponse response)
-            throws ServletException, IOException {
-        doGet(request, response);
+    private void closeResponse(HttpServletResponse response) {
+        try {
+            try {
+                response.getWriter().close();
+            } catch (IllegalStateException e) {
+                //getOutputStream() で書き込んだ応答の場合
+                response.getOutputStream().close();
+            }
+        } catch (IOException | IllegalStateException ignore) {
+            //応答を返却できない場合(接続が切れた場合など)は何もしない
+        }
     }
 
     /**
-     * リクエストパラメータの値から該当するActionクラスのインスタンスを作成し、返却する
-     * (例:パラメータが action=Employee の場合、actions.EmployeeActionオブジェクト)
+     * パラメータの action と command に該当するActionクラスの処理を呼び出す
      * @param request リクエスト
      * @param response レスポンス
-     * @return
+     * @throws ServletException
+     * @throws IOException
      */
-    @SuppressWarnings({ "rawtypes", "unchecked" }) //コンパイラ警告を抑制
-    private ActionBase getAction(HttpServletRequest request, HttpServletResponse response) {
-        Class type = null;
-        ActionBase action = null;
+    private void dispatch(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+
+        //パラメータ action と command に該当する経路(該当しない場合null)
+        RouteRegistry.Route route = RouteRegistry.resolve(
+                request.getParameter(ForwardConst.ACT.getValue()),
+                request.getParameter(ForwardConst.CMD.getValue()));
+
+        //経路に該当するActionクラスのインスタンス
+        ActionBase action = getAction(route);
+
+        //サーブレットコンテキスト、リクエスト、レスポンス、経路をActionインスタンスのフィールドに設定
+        action.init(getServletContext(), request, response, route);
+
+        //経路ごとの処理状況(処理時間・処理中の件数・例外の件数)を記録する
+        RequestMetrics metrics = route == null ? RouteRegistry.getUnknownMetrics() : route.getMetrics();
+        long start = metrics.begin();
         try {
 
-            //リクエストからパラメータ"action"の値を取得 (例:"Employee"、"Report")
-            String actionString = request.getParameter(ForwardConst.ACT.getValue());
+            //Actionクラスの処理を呼び出し
+            action.process();
 
-            //該当するActionオブジェクトを作成 (例:リクエストからパラメータ action=Employee の場合、actions.EmployeeActionオブジェクト)
-            type = Class.forName(String.format("actions.%sAction", actionString));
+        } catch (ServletException | IOException | RuntimeException e) {
+            metrics.error();
+            throw e;
+        } finally {
+            metrics.end(start, action.getViewNanos());
+        }
+    }
 
-            //ActionBaseのオブジェクトにキャスト(例:actions.EmployeeActionオブジェクト→actions.ActionBaseオブジェクト)
-            action = (ActionBase) (type.asSubclass(ActionBase.class)
-                    .getDeclaredConstructor()
-                    .newInstance());
 
-        } catch (ClassNotFoundException | InstantiationException | IllegalAccessException | SecurityException
-                | IllegalArgumentException | InvocationTargetException| NoSuchMethodException e) {
+    /**
+     * @see HttpServlet#doPost(HttpServletRequest request, HttpServletResponse response)
+     */
+    protected void doPost(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+        doGet(request, response);
+    }
 
-            //リクエストパラメータに設定されている"action"の値が不正の場合(例:action=xxxxx 等、該当するActionクラスがない場合)
+    /**
+     * 経路に該当するActionクラスのインスタンスを作成し、返却する
+     * (例:パラメータが action=Employee の場合、actions.EmployeeActionオブジェクト)
+     * @param route 経路
+     * @return Actionクラスのインスタンス
+     */
+    private ActionBase getAction(RouteRegistry.Route route) {
+        if (route == null) {
+            //action と command の組み合わせが不正の場合(例:action=xxxxx 等、該当する経路がない場合)
             //エラー処理を行うActionオブジェクトを作成
-            action = new UnknownAction();
+            return new UnknownAction();
         }
-        return action;
+        return route.createAction();
     }
 
 }
@@ -0,0 +1,334 @@
+package controllers;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import javax.servlet.ServletException;
+
+import actions.ActionBase;
+import actions.AuthAction;
+import actions.EmployeeAction;
+import actions.MetricsAction;
+import actions.ReportAction;
+import actions.TopAction;
+import constants.ForwardConst;
+import utilties.RequestMetrics;
+
+//リクエストパラメータの action と command の組み合わせから、実行するActionクラスとメソッドを引く経路表
+//経路はクラスロード時に1度だけ作成し、以降は変更しない
+//(リクエストごとにクラス名やメソッド名からリフレクションで探す必要がなく、該当しない組み合わせも例外を発生させずに判定できる)
+public final class RouteRegistry {
+
+    //commandの実行に必要な条件(なし)
+    private static final int NONE = 0;
+
+    //commandの実行に必要な条件(CSRF対策用トークンのチェック)
+    private static final int TOKEN = 1;
+
+    //commandの実行に必要な条件(管理者であること)
+    private static final int ADMIN = 2;
+
+    //ログインしていなくても実行できる(ログイン中はトップ画面にリダイレクトする)
+    private static final int LOGIN_PAGE = 4;
+
+    //ログインしていない場合のみ実行できる(ログイン中はエラー画面を表示する)
+    private static final int ANONYMOUS = 8;
+
+    //経路の配列(action と command のハッシュ値を添字とするオープンアドレス法のハッシュ表)
+    private static final Route[] TABLE = createTable(createRoutes());
+
+    //ハッシュ表の添字を求めるためのマスク(配列の長さは2のべき乗)
+    private static final int MASK = TABLE.length - 1;
+
+    //該当する経路がないリクエストの処理状況
+    private static final RequestMetrics UNKNOWN_METRICS = new RequestMetrics();
+
+    private RouteRegistry() {
+    }
+
+    /**
+     * action と command に該当する経路を返却する
+     * @param action パラメータ action の値
+     * @param command パラメータ command の値
+     * @return 該当する経路 該当しない場合null
+     */
+    public static Route resolve(String action, String command) {
+        if (action == null || command == null) {
+            return null;
+        }
+
+        int i = hash(action, command) & MASK;
+        Route route;
+        while ((route = TABLE[i]) != null) {
+            if (route.action.equals(action) && route.command.equals(command)) {
+                return route;
+            }
+            i = (i + 1) & MASK;
+        }
+        return null;
+    }
+
+    /**
+     * action と command に該当する経路の、ログイン状態に関する制限を返却する
+     * 該当する経路がない場合は、ログインしている場合のみ実行できるものとして扱う
+     * @param action パラメータ action の値
+     * @param command パラメータ command の値
+     * @return ログイン状態に関する制限
+     */
+    public static Access classify(String action, String command) {
+        Route route = resolve(action, command);
+        return route == null ? Access.AUTHENTICATED : route.access;
+    }
+
+    /**
+     * 登録されている全ての経路を返却する
+     * @return 経路のリスト
+     */
+    public static List<Route> getRoutes() {
+        List<Route> routes = new ArrayList<>();
+        for (Route route : TABLE) {
+            if (route != null) {
+                routes.add(route);
+            }
+        }
+        return routes;
+    }
+
+    /**
+     * 該当する経路がないリクエストの処理状況を返却する
+     * @return 処理状況の集計値
+     */
+    public static RequestMetrics getUnknownMetrics() {
+        return UNKNOWN_METRICS;
+    }
+
+    /**
+     * 全ての経路を作成する
+     * @return 経路のリスト
+     */
+    private static List<Route> createRoutes() {
+        List<Route> routes = new ArrayList<>();
+
+        //トップページ
+        add(routes, ForwardConst.ACT_TOP, TopAction::new, ForwardConst.CMD_INDEX, TopAction::index, NONE);
+
+        //認証
+        add(routes, ForwardConst.ACT_AUTH, AuthAction::new, ForwardConst.CMD_SHOW_LOGIN, AuthAction::showLogin,
+                LOGIN_PAGE);
+        add(routes, ForwardConst.ACT_AUTH, AuthAction::new, ForwardConst.CMD_LOGIN, AuthAction::login,
+                TOKEN | ANONYMOUS);
+        add(routes, ForwardConst.ACT_AUTH, AuthAction::new, ForwardConst.CMD_LOGOUT, AuthAction::logout, NONE);
+
+        //従業員管理(管理者のみ)
+        add(routes, ForwardConst.ACT_EMP, EmployeeAction::new, ForwardConst.CMD_INDEX, EmployeeAction::index, ADMIN);
+        add(routes, ForwardConst.ACT_EMP, EmployeeAction::new, ForwardConst.CMD_SHOW, EmployeeAction::show, ADMIN);
+        add(routes, ForwardConst.ACT_EMP, EmployeeAction::new, ForwardConst.CMD_NEW, EmployeeAction::entryNew, ADMIN);
+        add(routes, ForwardConst.ACT_EMP, EmployeeAction::new, ForwardConst.CMD_CREATE, EmployeeAction::create,
+                TOKEN | ADMIN);
+        add(routes, ForwardConst.ACT_EMP, EmployeeAction::new, ForwardConst.CMD_EDIT, EmployeeAction::edit, ADMIN);
+        add(routes, ForwardConst.ACT_EMP, EmployeeAction::new, ForwardConst.CMD_UPDATE, EmployeeAction::update,
+                TOKEN | ADMIN);
+        add(routes, ForwardConst.ACT_EMP, EmployeeAction::new, ForwardConst.CMD_DESTROY, EmployeeAction::destroy,
+                TOKEN | ADMIN);
+
+        //日報管理
+        add(routes, ForwardConst.ACT_REP, ReportAction::new, ForwardConst.CMD_INDEX, ReportAction::index, NONE);
+        add(routes, ForwardConst.ACT_REP, ReportAction::new, ForwardConst.CMD_SHOW, ReportAction::show, NONE);
+        add(routes, ForwardConst.ACT_REP, ReportAction::new, ForwardConst.CMD_NEW, ReportAction::entryNew, NONE);
+        add(routes, ForwardConst.ACT_REP, ReportAction::new, ForwardConst.CMD_CREATE, ReportAction::create, TOKEN);
+        add(routes, ForwardConst.ACT_REP, ReportAction::new, ForwardConst.CMD_EDIT, ReportAction::edit, NONE);
+        add(routes, ForwardConst.ACT_REP, ReportAction::new, ForwardConst.CMD_UPDATE, ReportAction::update, TOKEN);
+        add(routes, ForwardConst.ACT_REP, ReportAction::new, ForwardConst.CMD_ENTRY_IMPORT, ReportAction::entryImport,
+                NONE);
+        add(routes, ForwardConst.ACT_REP, ReportAction::new, ForwardConst.CMD_IMPORT, ReportAction::importReports,
+                TOKEN);
+        add(routes, ForwardConst.ACT_REP, ReportAction::new, ForwardConst.CMD_EXPORT, ReportAction::export, NONE);
+        add(routes, ForwardConst.ACT_REP, ReportAction::new, ForwardConst.CMD_SEARCH, ReportAction::search, NONE);
+        add(routes, ForwardConst.ACT_REP, ReportAction::new, ForwardConst.CMD_REINDEX, ReportAction::reindex,
+                TOKEN | ADMIN);
+
+        //メトリクス(管理者のみ)
+        add(routes, ForwardConst.ACT_METRICS, MetricsAction::new, ForwardConst.CMD_INDEX, MetricsAction::index, ADMIN);
+        add(routes, ForwardConst.ACT_METRICS, MetricsAction::new, ForwardConst.CMD_STATISTICS,
+                MetricsAction::statistics, ADMIN);
+        add(routes, ForwardConst.ACT_METRICS, MetricsAction::new, ForwardConst.CMD_RESET_STATISTICS,
+                MetricsAction::resetStatistics, TOKEN | ADMIN);
+
+        return routes;
+    }
+
+    /**
+     * 経路を1件追加する
+     * @param routes 追加先の経路のリスト
+     * @param action パラメータ action の値
+     * @param factory Actionクラスのインスタンスを作成する処理
+     * @param command パラメータ command の値
+     * @param method 実行するメソッド
+     * @param flags 実行に必要な条件(TOKEN、ADMIN、LOGIN_PAGE、ANONYMOUSの組み合わせ)
+     */
+    @SuppressWarnings("unchecked")
+    private static <A extends ActionBase> void add(List<Route> routes, ForwardConst action, Supplier<A> factory,
+            ForwardConst command, Command<A> method, int flags) {
+
+        //factoryで作成したインスタンスに対してのみ実行するため、ActionBaseとして扱っても型は一致する
+        routes.add(new Route(action.getValue(), command.getValue(), factory, (Command<ActionBase>) method,
+                (flags & TOKEN) != 0, (flags & ADMIN) != 0,
+                (flags & LOGIN_PAGE) != 0 ? Access.LOGIN_PAGE
+                        : (flags & ANONYMOUS) != 0 ? Access.ANONYMOUS : Access.AUTHENTICATED));
+    }
+
+    /**
+     * 経路のリストからハッシュ表を作成する
+     * @param routes 経路のリスト
+     * @return ハッシュ表(経路数の2倍以上の長さ)
+     */
+    private static Route[] createTable(List<Route> routes) {
+        int size = Integer.highestOneBit(Math.max(routes.size(), 1) * 2) * 2;
+        Route[] table = new Route[size];
+
+        for (Route route : routes) {
+            int i = hash(route.action, route.command) & (size - 1);
+            while (table[i] != null) {
+                if (table[i].action.equals(route.action) && table[i].command.equals(route.command)) {
+                    throw new IllegalStateException("経路が重複しています: " + route.action + "/" + route.command);
+                }
+                i = (i + 1) & (size - 1);
+            }
+            table[i] = route;
+        }
+        return table;
+    }
+
+    /**
+     * action と command からハッシュ値を求める
+     * (Stringのハッシュ値はインスタンスにキャッシュされるため、リクエストごとの計算はほぼ発生しない)
+     * @param action パラメータ action の値
+     * @param command パラメータ command の値
+     * @return ハッシュ値
+     */
+    private static int hash(String action, String command) {
+        int h = action.hashCode() * 31 + command.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Actionクラスのメソッドを実行する処理
+     * @param <A> Actionクラスの型
+     */
+    @FunctionalInterface
+    public interface Command<A extends ActionBase> {
+
+        /**
+         * メソッドを実行する
+         * @param action 実行対象のActionインスタンス
+         * @throws ServletException
+         * @throws IOException
+         */
+        void execute(A action) throws ServletException, IOException;
+    }
+
+    /**
+     * 経路のログイン状態に関する制限
+     */
+    public enum Access {
+        //ログインしている場合のみ実行できる(ログインしていない場合はログイン画面にリダイレクトする)
+        AUTHENTICATED,
+        //ログイン画面(ログインしている場合はトップ画面にリダイレクトする)
+        LOGIN_PAGE,
+        //ログインしていない場合のみ実行できる(ログインしている場合はエラー画面を表示する)
+        ANONYMOUS
+    }
+
+    /**
+     * action と command の組み合わせ1件分の経路
+     */
+    public static final class Route {
+
+        //パラメータ action の値
+        private final String action;
+
+        //パラメータ command の値
+        private final String command;
+
+        //Actionクラスのインスタンスを作成する処理
+        private final Supplier<? extends ActionBase> factory;
+
+        //実行するメソッド
+        private final Command<ActionBase> method;
+
+        //CSRF対策用トークンのチェックが必要かどうか
+        private final boolean tokenRequired;
+
+        //管理者のみ実行できるかどうか
+        private final boolean adminRequired;
+
+        //ログイン状態に関する制限
+        private final Access access;
+
+        //メトリクスのラベルに使用する名前(例: Report.index)
+        private final String name;
+
+        //この経路へのリクエストの処理状況
+        private final RequestMetrics metrics = new RequestMetrics();
+
+        private Route(String action, String command, Supplier<? extends ActionBase> factory,
+                Command<ActionBase> method, boolean tokenRequired, boolean adminRequired, Access access) {
+            this.action = action;
+            this.command = command;
+            this.factory = factory;
+            this.method = method;
+            this.tokenRequired = tokenRequired;
+            this.adminRequired = adminRequired;
+            this.access = access;
+            this.name = action + "." + command;
+        }
+
+        /**
+         * Actionクラスのインスタンスを作成する
+         * @return Actionクラスのインスタンス
+         */
+        public ActionBase createAction() {
+            return factory.get();
+        }
+
+        /**
+         * メソッドを実行する
+         * @param target 実行対象のActionインスタンス(createActionで作成したもの)
+         * @throws ServletException
+         * @throws IOException
+         */
+        public void execute(ActionBase target) throws ServletException, IOException {
+            method.execute(target);
+        }
+
+        public String getAction() {
+            return action;
+        }
+
+        public String getCommand() {
+            return command;
+        }
+
+        public boolean isTokenRequired() {
+            return tokenRequired;
+        }
+
+        public boolean isAdminRequired() {
+            return adminRequired;
+        }
+
+        public Access getAccess() {
+            return access;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public RequestMetrics getMetrics() {
+            return metrics;
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package filters;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.annotation.WebFilter;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import constants.PropertyConst;
+import utilties.PropertyUtil;
+
+/**
+ * Servlet Filter implementation class CompressionFilter
+ * 画面(text/html)やスタイルシート(text/css)の応答を、書き込まれた順にgzip形式に圧縮しながら返却する
+ * (Accept-Encoding でgzipを受け付けるクライアントで、一定のサイズを超える応答のみ圧縮する)
+ */
+@WebFilter(servletNames = "FrontController", asyncSupported = true)
+public class CompressionFilter implements Filter {
+
+    //圧縮するかどうか
+    private static final boolean ENABLED = !"false".equals(PropertyUtil.getValue(PropertyConst.COMPRESSION_ENABLED));
+
+    //圧縮する最小のバイト数(これより小さい応答は、圧縮しても通信量がほとんど減らないため圧縮しない)
+    private static final int MIN_SIZE = Math.max(1,
+            PropertyUtil.getIntValue(PropertyConst.COMPRESSION_MIN_SIZE, 1024));
+
+    //圧縮レベル(1:速度優先 〜 9:圧縮率優先)
+    private static final int LEVEL = Math.min(9, Math.max(1,
+            PropertyUtil.getIntValue(PropertyConst.COMPRESSION_LEVEL, 6)));
+
+    //圧縮する Content-Type
+    private static final Set<String> MIME_TYPES = parseMimeTypes(
+            PropertyUtil.getValue(PropertyConst.COMPRESSION_MIME_TYPES));
+
+    //圧縮した応答・圧縮しなかった応答の件数
+    private static final LongAdder compressed = new LongAdder();
+    private static final LongAdder skipped = new LongAdder();
+
+    //圧縮した応答の圧縮前・圧縮後のバイト数の合計
+    private static final LongAdder inputBytes = new LongAdder();
+    private static final LongAdder outputBytes = new LongAdder();
+
+    //圧縮にかかった時間の合計(ナノ秒)
+    private static final LongAdder deflateNanos = new LongAdder();
+
+    /**
+     * Default constructor.
+     */
+    public CompressionFilter() {
+
+    }
+
+    /**
+     * @see Filter#destroy()
+     */
+    public void destroy() {
+
+    }
+
+    /**
+     * @see Filter#doFilter(ServletRequest, ServletResponse, FilterChain)
+     */
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+
+        HttpServletRequest req = (HttpServletRequest) request;
+        if (!ENABLED || "HEAD".equals(req.getMethod()) || !acceptsGzip(req.getHeader("Accept-Encoding"))) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        CompressionResponse wrapper = new CompressionResponse(
+                (HttpServletResponse) response, LEVEL, MIN_SIZE, MIME_TYPES);
+        chain.doFilter(request, wrapper);
+
+        //非同期処理を開始した場合は、処理を終えたスレッドが応答を閉じる時点で圧縮を終了する
+        if (!request.isAsyncStarted()) {
+            wrapper.finish();
+        }
+    }
+
+    /**
+     * @see Filter#init(FilterConfig)
+     */
+    public void init(FilterConfig fConfig) throws ServletException {
+
+    }
+
+    /**
+     * 圧縮した応答の件数を返却する
+     * @return 件数
+     */
+    public static long getCompressed() {
+        return compressed.sum();
+    }
+
+    /**
+     * 圧縮の対象外だった応答(サイズが小さいもの、Content-Typeが対象外のもの)の件数を返却する
+     * @return 件数
+     */
+    public static long getSkipped() {
+        return skipped.sum();
+    }
+
+    /**
+     * 圧縮した応答の圧縮前のバイト数の合計を返却する
+     * @return バイト数
+     */
+    public static long getInputBytes() {
+        return inputBytes.sum();
+    }
+
+    /**
+     * 圧縮した応答の圧縮後のバイト数の合計を返却する
+     * @return バイト数
+     */
+    public static long getOutputBytes() {
+        return outputBytes.sum();
+    }
+
+    /**
+     * 圧縮にかかった時間の合計を返却する
+     * @return 時間(ナノ秒)
+     */
+    public static long getDeflateNanos() {
+        return deflateNanos.sum();
+    }
+
+    /**
+     * 圧縮した応答の集計値を加算する
+     * @param input 圧縮前のバイト数
+     * @param output 圧縮後のバイト数
+     * @param nanos 圧縮にかかった時間(ナノ秒)
+     */
+    static void recordCompressed(long input, long output, long nanos) {
+        compressed.increment();
+        inputBytes.add(input);
+        outputBytes.add(output);
+        deflateNanos.add(nanos);
+    }
+
+    /**
+     * 圧縮しなかった応答の件数を加算する
+     */
+    static void recordSkipped() {
+        skipped.increment();
+    }
+
+    /**
+     * Accept-Encoding ヘッダでgzipを受け付けているかどうかを判定する
+     * (例: "gzip, deflate, br" は受け付ける "gzip;q=0" や "*;q=0" は受け付けない)
+     * @param acceptEncoding Accept-Encoding ヘッダの値
+     * @return 受け付けている場合true
+     */
+    public static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+
+        boolean accepted = false;
+        for (String element : acceptEncoding.split(",")) {
+            String[] params = element.split(";");
+            String coding = params[0].trim().toLowerCase(Locale.ROOT);
+            boolean gzip = coding.equals("gzip") || coding.equals("x-gzip");
+            if (!gzip && !coding.equals("*")) {
+                continue;
+            }
+
+            boolean rejected = false;
+            for (int i = 1; i < params.length; i++) {
+                String param = params[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        rejected = Double.parseDouble(param.substring(2).trim()) <= 0;
+                    } catch (NumberFormatException e) {
+                        rejected = true;
+                    }
+                }
+            }
+
+            if (gzip) {
+                //gzipの指定は * の指定より優先する
+                return !rejected;
+            }
+            accepted = !rejected;
+        }
+        return accepted;
+    }
+
+    /**
+     * 圧縮する Content-Type の設定値を解析する(未設定の場合は text/html と text/css)
+     * @param value カンマ区切りの Content-Type
+     * @return Content-Type(小文字)
+     */
+    private static Set<String> parseMimeTypes(String value) {
+        if (value == null || value.trim().equals("")) {
+            value = "text/html,text/css";
+        }
+
+        Set<String> mimeTypes = new HashSet<String>();
+        for (String mimeType : value.split(",")) {
+            if (!mimeType.trim().equals("")) {
+                mimeTypes.add(mimeType.trim().toLowerCase(Locale.ROOT));
+            }
+        }
+        return mimeTypes;
+    }
+}
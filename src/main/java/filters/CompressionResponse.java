@@ -0,0 +1,331 @@
+package filters;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.Locale;
+import java.util.Set;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+
+//応答の本文をgzip形式に圧縮しながら返却するレスポンス
+//本文が一定のサイズを超えるまではバッファに溜め、超えた時点で圧縮するかどうかを決める
+//(超えないまま応答が終わった場合は圧縮せずに返却する)
+class CompressionResponse extends HttpServletResponseWrapper {
+
+    //圧縮するかどうかを決める前・圧縮する・圧縮しない
+    private enum State {
+        UNDECIDED, COMPRESS, IDENTITY
+    }
+
+    //フィルタが受け取ったレスポンス
+    //(jspのインクルードなどでコンテナが包み直したレスポンスはヘッダを設定できないことがあるため、
+    //ヘッダと本文はこのレスポンスに直接書き込む)
+    private final HttpServletResponse origin;
+
+    //圧縮レベル
+    private final int level;
+
+    //圧縮する Content-Type
+    private final Set<String> mimeTypes;
+
+    //圧縮するかどうかを決めるまで本文を溜めるバッファ(サイズは圧縮する最小のバイト数)
+    private final byte[] buffer;
+    private int count;
+
+    private State state = State.UNDECIDED;
+
+    //圧縮する場合の圧縮処理
+    private GzipEncoder encoder;
+
+    //Actionやjspから設定された Content-Length (圧縮しない場合のみ設定する)
+    private long contentLength = -1;
+
+    private CompressingOutputStream stream;
+    private PrintWriter writer;
+    private boolean finished;
+
+    /**
+     * コンストラクタ
+     * @param response レスポンス
+     * @param level 圧縮レベル
+     * @param minSize 圧縮する最小のバイト数
+     * @param mimeTypes 圧縮する Content-Type
+     */
+    CompressionResponse(HttpServletResponse response, int level, int minSize, Set<String> mimeTypes) {
+        super(response);
+        this.origin = response;
+        this.level = level;
+        this.mimeTypes = mimeTypes;
+        this.buffer = new byte[minSize];
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        if (writer != null) {
+            throw new IllegalStateException("getWriter() has already been called for this response");
+        }
+        if (stream == null) {
+            stream = new CompressingOutputStream();
+        }
+        return stream;
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        if (writer == null) {
+            if (stream != null) {
+                throw new IllegalStateException("getOutputStream() has already been called for this response");
+            }
+            stream = new CompressingOutputStream();
+            writer = new PrintWriter(new OutputStreamWriter(stream, getCharacterEncoding()));
+        }
+        return writer;
+    }
+
+    @Override
+    public void setContentLength(int len) {
+        setContentLengthLong(len);
+    }
+
+    @Override
+    public void setContentLengthLong(long len) {
+        if (state == State.IDENTITY) {
+            origin.setContentLengthLong(len);
+        } else {
+            contentLength = len;
+        }
+    }
+
+    @Override
+    public void setHeader(String name, String value) {
+        if ("Content-Length".equalsIgnoreCase(name)) {
+            setContentLengthLong(value == null ? -1 : Long.parseLong(value));
+        } else {
+            super.setHeader(name, value);
+        }
+    }
+
+    @Override
+    public void addHeader(String name, String value) {
+        if ("Content-Length".equalsIgnoreCase(name)) {
+            setContentLengthLong(value == null ? -1 : Long.parseLong(value));
+        } else {
+            super.addHeader(name, value);
+        }
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        } else if (stream != null) {
+            stream.flush();
+        }
+        super.flushBuffer();
+    }
+
+    @Override
+    public void resetBuffer() {
+        super.resetBuffer();
+        discard();
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        discard();
+        contentLength = -1;
+    }
+
+    /**
+     * 本文の書き込みを終了する(バッファに残っている本文を返却し、圧縮している場合はgzipのトレーラを書き込む)
+     * 応答を返却する前に必ず呼び出す(2回目以降の呼び出しは何もしない)
+     * @throws IOException
+     */
+    void finish() throws IOException {
+        if (writer != null) {
+            writer.close();
+        } else if (stream != null) {
+            stream.close();
+        } else {
+            finishBody();
+        }
+    }
+
+    /**
+     * バッファに溜めている本文を破棄する(圧縮するかどうかを決めた後はコミット済みのため、何もしない)
+     */
+    private void discard() {
+        if (state != State.UNDECIDED) {
+            return;
+        }
+        if (writer != null) {
+            //PrintWriterが内部に溜めている文字をバッファに移してから破棄する
+            writer.flush();
+        }
+        count = 0;
+    }
+
+    /**
+     * 本文の書き込みを終了する
+     * @throws IOException
+     */
+    private void finishBody() throws IOException {
+        if (finished) {
+            return;
+        }
+        finished = true;
+
+        if (state == State.UNDECIDED) {
+            //最小のバイト数に満たないまま応答が終わった場合は圧縮しない
+            identity();
+        }
+        if (state == State.COMPRESS) {
+            encoder.finish();
+            CompressionFilter.recordCompressed(encoder.getInputBytes(), encoder.getOutputBytes(),
+                    encoder.getDeflateNanos());
+        } else {
+            CompressionFilter.recordSkipped();
+        }
+    }
+
+    /**
+     * 本文がバッファに収まらなくなった時点で、圧縮するかどうかを決める
+     * @throws IOException
+     */
+    private void decide() throws IOException {
+        if (isCompressible()) {
+            compress();
+        } else {
+            identity();
+        }
+    }
+
+    /**
+     * 圧縮する応答かどうかを判定する
+     * @return 圧縮する場合true
+     */
+    private boolean isCompressible() {
+        int status = getStatus();
+        if (status < HttpServletResponse.SC_OK
+                || status == HttpServletResponse.SC_NO_CONTENT
+                || status == HttpServletResponse.SC_NOT_MODIFIED) {
+            return false;
+        }
+
+        //既に符号化されている場合(圧縮済みのファイルなど)は圧縮しない
+        if (containsHeader("Content-Encoding")) {
+            return false;
+        }
+
+        String contentType = getContentType();
+        if (contentType == null) {
+            return false;
+        }
+        int semicolon = contentType.indexOf(';');
+        String mimeType = (semicolon < 0 ? contentType : contentType.substring(0, semicolon)).trim();
+        return mimeTypes.contains(mimeType.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * 圧縮を開始し、バッファに溜めていた本文を圧縮する
+     * @throws IOException
+     */
+    private void compress() throws IOException {
+        origin.setHeader("Content-Encoding", "gzip");
+        origin.addHeader("Vary", "Accept-Encoding");
+        state = State.COMPRESS;
+
+        encoder = new GzipEncoder(origin.getOutputStream(), level);
+        encoder.write(buffer, 0, count);
+        count = 0;
+    }
+
+    /**
+     * 圧縮せずに返却することにし、バッファに溜めていた本文を書き込む
+     * @throws IOException
+     */
+    private void identity() throws IOException {
+        state = State.IDENTITY;
+        if (contentLength >= 0) {
+            origin.setContentLengthLong(contentLength);
+        }
+        if (count > 0) {
+            origin.getOutputStream().write(buffer, 0, count);
+            count = 0;
+        }
+    }
+
+    /**
+     * 本文をバッファに溜め、圧縮するかどうかを決めた後は圧縮処理またはレスポンスに書き込む出力ストリーム
+     */
+    private final class CompressingOutputStream extends ServletOutputStream {
+
+        //1バイトずつ書き込む場合に使用する
+        private final byte[] single = new byte[1];
+
+        @Override
+        public void write(int b) throws IOException {
+            single[0] = (byte) b;
+            write(single, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (finished) {
+                throw new IOException("Stream closed");
+            }
+
+            if (state == State.UNDECIDED) {
+                if (count + len <= buffer.length) {
+                    System.arraycopy(b, off, buffer, count, len);
+                    count += len;
+                    return;
+                }
+                decide();
+            }
+
+            if (state == State.COMPRESS) {
+                encoder.write(b, off, len);
+            } else {
+                origin.getOutputStream().write(b, off, len);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            //圧縮するかどうかを決める前は、最小のバイト数に達するまで溜めておく
+            //(コンテナは応答の最後にもflushを呼び出すため、ここで決めると小さな応答も圧縮してしまう)
+            if (finished || state == State.UNDECIDED) {
+                return;
+            }
+
+            if (state == State.COMPRESS) {
+                encoder.flush();
+            } else {
+                origin.getOutputStream().flush();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            finishBody();
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        //圧縮しながら同期的に書き込むため、非同期I/O(ノンブロッキングでの書き込み)には対応しない
+        //(サーブレットの仕様に従い、非同期I/Oを使用できない場合は IllegalStateException を送出する)
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            throw new IllegalStateException("非同期I/Oは圧縮する応答では使用できません");
+        }
+    }
+}
@@ -13,7 +13,7 @@ import javax.servlet.annotation.WebFilter;
 /**
  * Servlet Filter implementation class EncodingFilter
  */
-@WebFilter("/*")
+@WebFilter(servletNames = "FrontController", asyncSupported = true)
 public class EncodingFilter implements Filter {
 
     /**
@@ -47,4 +47,4 @@ public class EncodingFilter implements Filter {
 
     }
 
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -0,0 +1,153 @@
+package filters;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+//書き込まれたデータをgzip形式に圧縮して出力先に書き込むクラス
+//圧縮(Deflaterの処理)にかかった時間を、出力先への書き込みにかかった時間と分けて計測する
+class GzipEncoder {
+
+    //gzipのヘッダ(圧縮方式:deflate、フラグ・更新日時なし、OS:不明)
+    private static final byte[] HEADER = { 0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff };
+
+    //出力先
+    private final OutputStream out;
+
+    //圧縮処理(gzipのヘッダとトレーラは自身で書き込むため、zlibのヘッダを付けない)
+    private final Deflater deflater;
+
+    //圧縮前のデータのチェックサム(トレーラに書き込む)
+    private final CRC32 crc = new CRC32();
+
+    //圧縮したデータを出力先に書き込むまで保持するバッファ
+    private final byte[] buf = new byte[8192];
+
+    //圧縮前・圧縮後のバイト数
+    private long inputBytes;
+    private long outputBytes;
+
+    //圧縮にかかった時間(ナノ秒)
+    private long deflateNanos;
+
+    /**
+     * gzipのヘッダを出力先に書き込む
+     * @param out 出力先
+     * @param level 圧縮レベル(1:速度優先 〜 9:圧縮率優先)
+     * @throws IOException
+     */
+    GzipEncoder(OutputStream out, int level) throws IOException {
+        this.out = out;
+        this.deflater = new Deflater(level, true);
+        out.write(HEADER);
+        outputBytes += HEADER.length;
+    }
+
+    /**
+     * データを圧縮する(圧縮されたデータは、ある程度溜まるまで出力先に書き込まれない)
+     * @param b データ
+     * @param off 開始位置
+     * @param len バイト数
+     * @throws IOException
+     */
+    void write(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return;
+        }
+        crc.update(b, off, len);
+        inputBytes += len;
+
+        deflater.setInput(b, off, len);
+        while (!deflater.needsInput()) {
+            deflate(Deflater.NO_FLUSH);
+        }
+    }
+
+    /**
+     * それまでに書き込まれたデータを全て圧縮して出力先に書き込む(ブラウザがそこまでの内容を展開できるようにする)
+     * @throws IOException
+     */
+    void flush() throws IOException {
+        while (deflate(Deflater.SYNC_FLUSH) == buf.length) {
+            //バッファに収まらなかった分を続けて書き込む
+        }
+        out.flush();
+    }
+
+    /**
+     * 残りのデータを圧縮してgzipのトレーラ(チェックサムとサイズ)を書き込む
+     * @throws IOException
+     */
+    void finish() throws IOException {
+        try {
+            deflater.finish();
+            while (!deflater.finished()) {
+                deflate(Deflater.NO_FLUSH);
+            }
+
+            byte[] trailer = new byte[8];
+            writeInt(trailer, 0, (int) crc.getValue());
+            writeInt(trailer, 4, (int) inputBytes);
+            out.write(trailer);
+            outputBytes += trailer.length;
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * 圧縮前のバイト数を返却する
+     * @return バイト数
+     */
+    long getInputBytes() {
+        return inputBytes;
+    }
+
+    /**
+     * 圧縮後のバイト数(ヘッダとトレーラを含む)を返却する
+     * @return バイト数
+     */
+    long getOutputBytes() {
+        return outputBytes;
+    }
+
+    /**
+     * 圧縮にかかった時間を返却する
+     * @return 時間(ナノ秒)
+     */
+    long getDeflateNanos() {
+        return deflateNanos;
+    }
+
+    /**
+     * 圧縮したデータをバッファに受け取り、出力先に書き込む
+     * @param flush Deflaterのフラッシュモード
+     * @return バッファに受け取ったバイト数
+     * @throws IOException
+     */
+    private int deflate(int flush) throws IOException {
+        long start = System.nanoTime();
+        int n = deflater.deflate(buf, 0, buf.length, flush);
+        deflateNanos += System.nanoTime() - start;
+
+        if (n > 0) {
+            out.write(buf, 0, n);
+            outputBytes += n;
+        }
+        return n;
+    }
+
+    /**
+     * 4バイトの整数をリトルエンディアンで設定する
+     * @param b 設定先
+     * @param off 開始位置
+     * @param value 値
+     */
+    private static void writeInt(byte[] b, int off, int value) {
+        b[off] = (byte) value;
+        b[off + 1] = (byte) (value >> 8);
+        b[off + 2] = (byte) (value >> 16);
+        b[off + 3] = (byte) (value >> 24);
+    }
+}
@@ -17,13 +17,27 @@ import javax.servlet.http.HttpSession;
 import actions.views.EmployeeView;
 import constants.AttributeConst;
 import constants.ForwardConst;
+import constants.JpaConst;
+import controllers.RouteRegistry;
+import services.EmployeeSnapshot;
 
 /**
  * Servlet Filter implementation class LoginFilter
+ * (FrontControllerへのリクエストのみに適用し、静的ファイルの取得は認証処理を経由しない)
  */
-@WebFilter("/*")
+@WebFilter(servletNames = "FrontController", asyncSupported = true)
 public class LoginFilter implements Filter {
 
+    //エラー画面のjspファイルのパス
+    private static final String ERROR_PAGE = String.format("/WEB-INF/views/%s.jsp",
+            ForwardConst.FW_ERR_UNKNOWN.getValue());
+
+    //ログイン画面のURL(コンテキストパスが決まった後、initで作成する)
+    private String loginUrl;
+
+    //トップ画面のURL(コンテキストパスが決まった後、initで作成する)
+    private String topUrl;
+
     /**
      * Default constructor.
      */
@@ -43,80 +57,89 @@ public class LoginFilter implements Filter {
      */
     public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
             throws IOException, ServletException {
-        String contextPath = ((HttpServletRequest) request).getContextPath();
-        String servletPath = ((HttpServletRequest) request).getServletPath();
-
-        if (servletPath.matches("/css.*")) {
-            // CSSフォルダ内は認証処理から除外する
-            chain.doFilter(request, response);
-
-        } else {
-
-
-            HttpSession session = ((HttpServletRequest) request).getSession();
-
-            //クエリパラメータからactionとcommandを取得
-            String action = request.getParameter(ForwardConst.ACT.getValue());
-            String command = request.getParameter(ForwardConst.CMD.getValue());
-
-            //セッションからログインしている従業員の情報を取得
-            EmployeeView employeeView = (EmployeeView) session.getAttribute(AttributeConst.LOGIN_EMP.getValue());
-
-            if (employeeView == null) {
-                //not login
-
-                if (!(ForwardConst.ACT_AUTH.getValue().equals(action)
-                        && (ForwardConst.CMD_SHOW_LOGIN.getValue().equals(command)
-                                || ForwardConst.CMD_LOGIN.getValue().equals(command)))) {
+        //既存のセッションのみ取得する(ログインしていない利用者のためにセッションを作成しない)
+        HttpSession session = ((HttpServletRequest) request).getSession(false);
+
+        //クエリパラメータのactionとcommandから、ログイン状態に関する制限を取得
+        RouteRegistry.Access access = RouteRegistry.classify(
+                request.getParameter(ForwardConst.ACT.getValue()),
+                request.getParameter(ForwardConst.CMD.getValue()));
+
+        //ログインしている従業員の情報を取得し、リクエストスコープに設定する
+        EmployeeView employeeView = session == null ? null : resolveLoginEmployee(session);
+        if (employeeView != null) {
+            request.setAttribute(AttributeConst.LOGIN_EMP.getValue(), employeeView);
+        }
 
-                    //ログインページの表示またはログイン実行以外はログインページにリダイレクト
-                    ((HttpServletResponse) response).sendRedirect(
-                            contextPath
-                                    + "?action=" + ForwardConst.ACT_AUTH.getValue()
-                                    + "&command=" + ForwardConst.CMD_SHOW_LOGIN.getValue());
-                    return;
-                }
-            } else {
+        if (employeeView == null) {
+            //not login
 
-                //already login
+            if (access == RouteRegistry.Access.AUTHENTICATED) {
 
-                if (ForwardConst.ACT_AUTH.getValue().equals(action)) {
-                    //認証系Actionを行おうとしている場合
+                //ログインページの表示またはログイン実行以外はログインページにリダイレクト
+                ((HttpServletResponse) response).sendRedirect(loginUrl);
+                return;
+            }
+        } else {
 
-                    if (ForwardConst.CMD_SHOW_LOGIN.getValue().equals(command)) {
-                        //ログインページの表示はトップ画面にリダイレクト
-                        ((HttpServletResponse) response).sendRedirect(
-                                contextPath
-                                        + "?action=" + ForwardConst.ACT_TOP.getValue()
-                                        + "&command=" + ForwardConst.CMD_INDEX.getValue());
-                        return;
+            //already login
 
-                    } else if (ForwardConst.CMD_LOGOUT.getValue().equals(command)) {
-                        //ログアウトの実施は許可
+            if (access == RouteRegistry.Access.LOGIN_PAGE) {
+                //ログインページの表示はトップ画面にリダイレクト
+                ((HttpServletResponse) response).sendRedirect(topUrl);
+                return;
 
-                    } else {
-                        //上記以外の認証系Actionはエラー画面
+            } else if (access == RouteRegistry.Access.ANONYMOUS) {
+                //ログイン中に実行できない認証系Actionはエラー画面
+                RequestDispatcher dispatcher = request.getRequestDispatcher(ERROR_PAGE);
+                dispatcher.forward(request, response);
+                return;
+            }
+        }
 
-                        String forward = String.format("/WEB-INF/views/%s.jsp", "error/unknown");
-                        RequestDispatcher dispatcher = request.getRequestDispatcher(forward);
-                        dispatcher.forward(request, response);
+        //次のフィルタまたはサーブレットを呼び出し
+        chain.doFilter(request, response);
+    }
 
-                        return;
+    /**
+     * セッションに保持している従業員のidから、ログインしている従業員の最新の情報を取得する
+     * 従業員が削除されている場合はログアウトした状態にする
+     * @param session セッション
+     * @return ログインしている従業員 ログインしていない場合null
+     */
+    private EmployeeView resolveLoginEmployee(HttpSession session) {
+        Integer id = (Integer) session.getAttribute(AttributeConst.LOGIN_EMP_ID.getValue());
+        if (id == null) {
+            return null;
+        }
 
-                    }
-                }
-            }
+        EmployeeSnapshot.Entry entry = EmployeeSnapshot.get(id);
+        if (entry == null || entry.getEmployee().getDeleteFlag() == JpaConst.EMP_DEL_TRUE) {
+            session.removeAttribute(AttributeConst.LOGIN_EMP_ID.getValue());
+            session.removeAttribute(AttributeConst.LOGIN_EMP_VERSION.getValue());
+            return null;
+        }
 
-            //次のフィルタまたはサーブレットを呼び出し
-            chain.doFilter(request, response);
+        //ログイン後に従業員の情報が変更された場合は、セッションのバージョンを合わせる
+        //(変更がない間はセッションを書き換えないため、セッションの複製も発生しない)
+        Long version = (Long) session.getAttribute(AttributeConst.LOGIN_EMP_VERSION.getValue());
+        if (version == null || version != entry.getVersion()) {
+            session.setAttribute(AttributeConst.LOGIN_EMP_VERSION.getValue(), entry.getVersion());
         }
+
+        return entry.getEmployee();
     }
 
     /**
      * @see Filter#init(FilterConfig)
      */
     public void init(FilterConfig fConfig) throws ServletException {
-        // TODO Auto-generated method stub
+        //リダイレクト先のURLはリクエストごとに変わらないため、ここで1度だけ作成する
+        String contextPath = fConfig.getServletContext().getContextPath();
+        loginUrl = contextPath + "/?action=" + ForwardConst.ACT_AUTH.getValue()
+                + "&command=" + ForwardConst.CMD_SHOW_LOGIN.getValue();
+        topUrl = contextPath + "/?action=" + ForwardConst.ACT_TOP.getValue()
+                + "&command=" + ForwardConst.CMD_INDEX.getValue();
     }
 
 }
@@ -0,0 +1,64 @@
+package listeners;
+
+import javax.servlet.ServletContextEvent;
+import javax.servlet.ServletContextListener;
+import javax.servlet.annotation.WebListener;
+
+import com.mysql.cj.jdbc.AbandonedConnectionCleanupThread;
+
+import services.ReportSearchIndex;
+import services.ReportWriteQueue;
+import utilties.DB_Utility;
+import utilties.HashExecutor;
+import utilties.RequestExecutor;
+
+/**
+ * Application Lifecycle Listener implementation class DatabaseListener
+ * アプリケーションの起動時にEntityManagerFactoryを生成し、終了時に破棄する
+ *
+ */
+@WebListener
+public class DatabaseListener implements ServletContextListener {
+
+    /**
+     * @see ServletContextListener#contextInitialized(ServletContextEvent)
+     */
+    public void contextInitialized(ServletContextEvent servletContextEvent) {
+
+        //EntityManagerFactoryの生成、名前付きクエリの事前コンパイル、ウォームアップを行う
+        //(最初のリクエストでHibernateの初期化を待たせないようにする)
+        try {
+            DB_Utility.init();
+        } catch (RuntimeException e) {
+            //DBに接続できない場合も起動は継続し、最初のリクエスト時に再度生成を試みる
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * @see ServletContextListener#contextDestroyed(ServletContextEvent)
+     */
+    public void contextDestroyed(ServletContextEvent servletContextEvent) {
+
+        //仮想スレッドで処理中のリクエストの完了を待つ(DBへの接続を閉じる前に行う)
+        RequestExecutor.shutdown();
+
+        //パスワードのハッシュ化を実行するスレッドを終了する
+        HashExecutor.shutdown();
+
+        //書き込みキューに残っている日報を登録する
+        ReportWriteQueue.shutdown();
+
+        //DBにアクセスするバックグラウンドの処理(日報件数の補正、全文検索用インデックスの作り直し)を停止し、完了を待つ
+        //(リスナーの終了処理の順序は決まっていないため、各リスナーの終了処理を待たずにここで停止する)
+        ReportCounterListener.shutdown();
+        ReportSearchIndex.close();
+
+        //EntityManagerFactoryとコネクションプールを閉じる
+        DB_Utility.close();
+
+        //再デプロイ時にMySQLドライバのスレッドが残らないよう停止する
+        AbandonedConnectionCleanupThread.checkedShutdown();
+    }
+
+}
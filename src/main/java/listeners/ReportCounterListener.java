@@ -0,0 +1,88 @@
+package listeners;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.ServletContextEvent;
+import javax.servlet.ServletContextListener;
+import javax.servlet.annotation.WebListener;
+
+import constants.PropertyConst;
+import services.ReportService;
+import utilties.PropertyUtil;
+
+/**
+ * Application Lifecycle Listener implementation class ReportCounterListener
+ * 日報件数テーブルの補正処理を起動時および一定間隔で実行する
+ *
+ */
+@WebListener
+public class ReportCounterListener implements ServletContextListener {
+
+    //終了時に実行中の補正処理の完了を待つ時間(秒)
+    private static final int SHUTDOWN_SECONDS = 30;
+
+    //補正処理を実行するスレッド
+    private static ScheduledExecutorService scheduler;
+
+    /**
+     * @see ServletContextListener#contextInitialized(ServletContextEvent)
+     */
+    public void contextInitialized(ServletContextEvent servletContextEvent) {
+
+        int interval = PropertyUtil.getIntValue(PropertyConst.REP_COUNTER_RECONCILE_MINUTES, 60);
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "report-counter-reconciler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::reconcile, 0, interval, TimeUnit.MINUTES);
+    }
+
+    /**
+     * @see ServletContextListener#contextDestroyed(ServletContextEvent)
+     */
+    public void contextDestroyed(ServletContextEvent servletContextEvent) {
+        shutdown();
+    }
+
+    /**
+     * 補正処理を停止し、実行中の場合は完了を待つ
+     * (リスナーの終了処理の順序は決まっていないため、DBへの接続を閉じる前に DatabaseListener からも呼び出す)
+     */
+    public static synchronized void shutdown() {
+        if (scheduler == null) {
+            return;
+        }
+
+        //実行中の補正処理には割り込みを通知し、従業員1人分の補正が終わった時点で中断させる
+        scheduler.shutdownNow();
+        try {
+            scheduler.awaitTermination(SHUTDOWN_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        scheduler = null;
+    }
+
+    /**
+     * 日報件数の補正処理を実行する
+     */
+    private void reconcile() {
+        ReportService reportService = null;
+        try {
+            reportService = new ReportService();
+            reportService.reconcileCounters();
+        } catch (RuntimeException e) {
+            //例外が発生しても次回の実行は継続する
+            e.printStackTrace();
+        } finally {
+            if (reportService != null) {
+                reportService.close();
+            }
+        }
+    }
+
+}
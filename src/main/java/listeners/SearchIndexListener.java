@@ -0,0 +1,51 @@
+package listeners;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import javax.servlet.ServletContextEvent;
+import javax.servlet.ServletContextListener;
+import javax.servlet.annotation.WebListener;
+
+import constants.PropertyConst;
+import services.ReportSearchIndex;
+import utilties.PropertyUtil;
+
+/**
+ * Application Lifecycle Listener implementation class SearchIndexListener
+ * アプリケーションの起動時に全文検索用インデックスを開き、終了時に閉じる
+ *
+ */
+@WebListener
+public class SearchIndexListener implements ServletContextListener {
+
+    /**
+     * @see ServletContextListener#contextInitialized(ServletContextEvent)
+     */
+    public void contextInitialized(ServletContextEvent servletContextEvent) {
+
+        String dir = PropertyUtil.getValue(PropertyConst.REP_SEARCH_INDEX_DIR);
+        Path path = (dir == null || dir.trim().equals(""))
+                ? Paths.get(System.getProperty("java.io.tmpdir"), "daily_report_system", "index")
+                : Paths.get(dir.trim());
+
+        try {
+            ReportSearchIndex.open(path, PropertyUtil.getIntValue(PropertyConst.REP_SEARCH_COMMIT_SECONDS, 60));
+
+            //インデックスがない、または前回の終了時に反映できなかった変更がある場合は作り直す
+            ReportSearchIndex.rebuildAsync(true);
+        } catch (IOException e) {
+            //インデックスを開けない場合も起動は継続する(検索結果は0件となる)
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * @see ServletContextListener#contextDestroyed(ServletContextEvent)
+     */
+    public void contextDestroyed(ServletContextEvent servletContextEvent) {
+        ReportSearchIndex.close();
+    }
+
+}
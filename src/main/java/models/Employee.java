@@ -2,6 +2,7 @@ package models;
 
 import java.time.LocalDateTime;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
@@ -9,8 +10,13 @@ import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.NamedQueries;
 import javax.persistence.NamedQuery;
+import javax.persistence.QueryHint;
 import javax.persistence.Table;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.QueryHints;
+
 import constants.JpaConst;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -21,16 +27,35 @@ import lombok.Setter;
 @NamedQueries({
     @NamedQuery(
             name = JpaConst.Q_EMP_GET_ALL,
-            query = JpaConst.Q_EMP_GET_ALL_DEF),
+            query = JpaConst.Q_EMP_GET_ALL_DEF,
+            hints = @QueryHint(name = QueryHints.CACHEABLE, value = "true")),
+    @NamedQuery(
+            name = JpaConst.Q_EMP_GET_AFTER,
+            query = JpaConst.Q_EMP_GET_AFTER_DEF,
+            hints = @QueryHint(name = QueryHints.CACHEABLE, value = "true")),
+    @NamedQuery(
+            name = JpaConst.Q_EMP_GET_BEFORE,
+            query = JpaConst.Q_EMP_GET_BEFORE_DEF,
+            hints = @QueryHint(name = QueryHints.CACHEABLE, value = "true")),
+    @NamedQuery(
+            name = JpaConst.Q_EMP_GET_ALL_ID,
+            query = JpaConst.Q_EMP_GET_ALL_ID_DEF),
     @NamedQuery(
             name = JpaConst.Q_EMP_COUNT,
-            query = JpaConst.Q_EMP_COUNT_DEF),
+            query = JpaConst.Q_EMP_COUNT_DEF,
+            hints = @QueryHint(name = QueryHints.CACHEABLE, value = "true")),
+    @NamedQuery(
+            name = JpaConst.Q_EMP_GET_LAST_UPDATED,
+            query = JpaConst.Q_EMP_GET_LAST_UPDATED_DEF,
+            hints = @QueryHint(name = QueryHints.CACHEABLE, value = "true")),
     @NamedQuery(
             name = JpaConst.Q_EMP_COUNT_REGISTERED_BY_CODE,
-            query = JpaConst.Q_EMP_COUNT_REGISTERED_BY_CODE_DEF),
+            query = JpaConst.Q_EMP_COUNT_REGISTERED_BY_CODE_DEF,
+            hints = @QueryHint(name = QueryHints.CACHEABLE, value = "true")),
     @NamedQuery(
-            name = JpaConst.Q_EMP_GET_BY_CODE_AND_PASS,
-            query = JpaConst.Q_EMP_GET_BY_CODE_AND_PASS_DEF)
+            name = JpaConst.Q_EMP_GET_BY_CODE,
+            query = JpaConst.Q_EMP_GET_BY_CODE_DEF,
+            hints = @QueryHint(name = QueryHints.CACHEABLE, value = "true"))
 })
 
 //This is for DTO Data Transform object
@@ -40,6 +65,8 @@ import lombok.Setter;
 @Setter //全てのクラスフィールドについてsetterを自動生成する(Lombok)
 @NoArgsConstructor //引数なしコンストラクタを自動生成する(Lombok)
 @AllArgsConstructor //全てのクラスフィールドを引数にもつ引数ありコンストラクタを自動生成する(Lombok)
+@Cacheable //二次キャッシュの対象とする
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE) //更新時はキャッシュも書き換える
 @Entity
 public class Employee {
 
@@ -54,7 +81,7 @@ public class Employee {
     /**
      * 社員番号
      */
-    @Column(name = JpaConst.EMP_COL_CODE, nullable = false, unique = true)
+    @Column(name = JpaConst.EMP_COL_CODE, length = JpaConst.EMP_CODE_LENGTH, nullable = false, unique = true)
     private String code;
 
     /**
@@ -66,7 +93,7 @@ public class Employee {
     /**
      * パスワード
      */
-    @Column(name = JpaConst.EMP_COL_PASS, length = 64, nullable = false)
+    @Column(name = JpaConst.EMP_COL_PASS, length = 128, nullable = false)
     private String password;
 
     /**
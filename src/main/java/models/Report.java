@@ -3,18 +3,26 @@ package models;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.Lob;
 import javax.persistence.ManyToOne;
 import javax.persistence.NamedQueries;
 import javax.persistence.NamedQuery;
+import javax.persistence.QueryHint;
 import javax.persistence.Table;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.QueryHints;
+
 import constants.JpaConst;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -25,26 +33,59 @@ import lombok.Setter;
  * 日報データのDTOモデル
  *
  */
-@Table(name = JpaConst.TABLE_REP)
+@Table(name = JpaConst.TABLE_REP, indexes = {
+    @Index(name = JpaConst.REP_IDX_EMP_ID, columnList = JpaConst.REP_COL_EMP + ", " + JpaConst.REP_COL_ID),
+    @Index(name = JpaConst.REP_IDX_UPDATED_AT, columnList = JpaConst.REP_COL_UPDATED_AT)
+})
 @NamedQueries({
     @NamedQuery(
             name = JpaConst.Q_REP_GET_ALL,
-            query = JpaConst.Q_REP_GET_ALL_DEF),
+            query = JpaConst.Q_REP_GET_ALL_DEF,
+            hints = @QueryHint(name = QueryHints.CACHEABLE, value = "true")),
+    @NamedQuery(
+            name = JpaConst.Q_REP_GET_AFTER,
+            query = JpaConst.Q_REP_GET_AFTER_DEF,
+            hints = @QueryHint(name = QueryHints.CACHEABLE, value = "true")),
+    @NamedQuery(
+            name = JpaConst.Q_REP_GET_BEFORE,
+            query = JpaConst.Q_REP_GET_BEFORE_DEF,
+            hints = @QueryHint(name = QueryHints.CACHEABLE, value = "true")),
     @NamedQuery(
             name = JpaConst.Q_REP_COUNT,
             query = JpaConst.Q_REP_COUNT_DEF),
+    @NamedQuery(
+            name = JpaConst.Q_REP_GET_LAST_UPDATED,
+            query = JpaConst.Q_REP_GET_LAST_UPDATED_DEF,
+            hints = @QueryHint(name = QueryHints.CACHEABLE, value = "true")),
     @NamedQuery(
             name = JpaConst.Q_REP_GET_ALL_MINE,
-            query = JpaConst.Q_REP_GET_ALL_MINE_DEF),
+            query = JpaConst.Q_REP_GET_ALL_MINE_DEF,
+            hints = @QueryHint(name = QueryHints.CACHEABLE, value = "true")),
+    @NamedQuery(
+            name = JpaConst.Q_REP_GET_MINE_AFTER,
+            query = JpaConst.Q_REP_GET_MINE_AFTER_DEF,
+            hints = @QueryHint(name = QueryHints.CACHEABLE, value = "true")),
+    @NamedQuery(
+            name = JpaConst.Q_REP_GET_MINE_BEFORE,
+            query = JpaConst.Q_REP_GET_MINE_BEFORE_DEF,
+            hints = @QueryHint(name = QueryHints.CACHEABLE, value = "true")),
     @NamedQuery(
             name = JpaConst.Q_REP_COUNT_ALL_MINE,
-            query = JpaConst.Q_REP_COUNT_ALL_MINE_DEF)
+            query = JpaConst.Q_REP_COUNT_ALL_MINE_DEF),
+    @NamedQuery(
+            name = JpaConst.Q_REP_GET_ALL_FOR_INDEX,
+            query = JpaConst.Q_REP_GET_ALL_FOR_INDEX_DEF),
+    @NamedQuery(
+            name = JpaConst.Q_REP_GET_MINE_FOR_INDEX,
+            query = JpaConst.Q_REP_GET_MINE_FOR_INDEX_DEF)
 })
 
 @Getter //全てのクラスフィールドについてgetterを自動生成する(Lombok)
 @Setter //全てのクラスフィールドについてsetterを自動生成する(Lombok)
 @NoArgsConstructor //引数なしコンストラクタを自動生成する(Lombok)
 @AllArgsConstructor //全てのクラスフィールドを引数にもつ引数ありコンストラクタを自動生成する(Lombok)
+@Cacheable //二次キャッシュの対象とする
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE) //更新時はキャッシュも書き換える
 @Entity
 public class Report {
 
@@ -58,8 +99,9 @@ public class Report {
 
     /**
      * 日報を登録した従業員
+     * (参照されたときに取得する 一覧画面では JpaConst.Q_REP_LIST_SELECT で氏名のみJOINして取得する)
      */
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = JpaConst.REP_COL_EMP, nullable = false)
     private Employee employee;
 
@@ -72,7 +114,7 @@ public class Report {
     /**
      * 日報のタイトル
      */
-    @Column(name = JpaConst.REP_COL_TITLE, length = 255, nullable = false)
+    @Column(name = JpaConst.REP_COL_TITLE, length = JpaConst.REP_TITLE_LENGTH, nullable = false)
     private String title;
 
     /**
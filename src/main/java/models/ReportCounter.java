@@ -0,0 +1,56 @@
+package models;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.NamedQueries;
+import javax.persistence.NamedQuery;
+import javax.persistence.QueryHint;
+import javax.persistence.Table;
+
+import org.hibernate.annotations.QueryHints;
+
+import constants.JpaConst;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * 従業員ごとの日報件数のDTOモデル
+ * 日報の登録時に同じトランザクション内で加算し、一覧画面の件数表示でCOUNTを実行しないようにする
+ * (全体の件数は全従業員分の合計とする)
+ *
+ */
+@Table(name = JpaConst.TABLE_REP_CNT)
+@NamedQueries({
+    @NamedQuery(
+            name = JpaConst.Q_REP_CNT_SUM,
+            query = JpaConst.Q_REP_CNT_SUM_DEF,
+            hints = @QueryHint(name = QueryHints.CACHEABLE, value = "true")),
+    @NamedQuery(
+            name = JpaConst.Q_REP_CNT_ADD,
+            query = JpaConst.Q_REP_CNT_ADD_DEF)
+})
+
+@Getter //全てのクラスフィールドについてgetterを自動生成する(Lombok)
+@Setter //全てのクラスフィールドについてsetterを自動生成する(Lombok)
+@NoArgsConstructor //引数なしコンストラクタを自動生成する(Lombok)
+@AllArgsConstructor //全てのクラスフィールドを引数にもつ引数ありコンストラクタを自動生成する(Lombok)
+@Entity
+public class ReportCounter {
+
+    /**
+     * 従業員のid
+     */
+    @Id
+    @Column(name = JpaConst.REP_CNT_COL_EMP)
+    private Integer employeeId;
+
+    /**
+     * 従業員が作成した日報の件数
+     */
+    @Column(name = JpaConst.REP_CNT_COL_COUNT, nullable = false)
+    private Long reportCount;
+
+}
@@ -1,36 +1,100 @@
 package services;
 
 import java.time.LocalDateTime;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
 
 import javax.persistence.NoResultException;
 
 import actions.views.EmployeeConverter;
 import actions.views.EmployeeView;
 import constants.JpaConst;
+import constants.MessageConst;
 import models.Employee;
+import models.ReportCounter;
 import models.validators.EmployeeValidator;
 import utilties.EncryptUtil;
+import utilties.HashExecutor;
 
 /**
  * 従業員テーブルの操作に関わる処理を行うクラス
  */
 public class EmployeeService extends ServiceBase {
 
+    //該当する従業員がいない場合に照合するハッシュ値
+    private static final String DUMMY_HASH = EncryptUtil.getPasswordHash("dummy", "");
+
     /**
      * 指定されたページ数の一覧画面に表示するデータを取得し、EmployeeViewのリストで返却する
+     * (後半のページは古い方から読み飛ばすため、最後のページも先頭のページと同じく読み飛ばす行がほとんどない)
      * @param page ページ数
+     * @param count 全従業員データの件数
      * @return 表示するデータのリスト
      */
-    public List<EmployeeView> getPerPage(int page) {
-        List<Employee> employees = entityManager.createNamedQuery(JpaConst.Q_EMP_GET_ALL, Employee.class)
-                .setFirstResult(JpaConst.ROW_PER_PAGE * (page - 1))
+    public List<EmployeeView> getPerPage(int page, long count) {
+        int first = JpaConst.ROW_PER_PAGE * (page - 1);
+        int end = (int) Math.min(count, (long) first + JpaConst.ROW_PER_PAGE);
+        if (first <= count - end) {
+            List<Employee> employees = entityManager.createNamedQuery(JpaConst.Q_EMP_GET_ALL, Employee.class)
+                    .setFirstResult(first)
+                    .setMaxResults(JpaConst.ROW_PER_PAGE)
+                    .getResultList();
+
+            return EmployeeConverter.toViewList(employees);
+        }
+        if (end <= first) {
+            return Collections.emptyList();
+        }
+
+        //最も古い従業員(idは1以上)から昇順に数えて、ページの範囲を取得する
+        List<Employee> employees = entityManager.createNamedQuery(JpaConst.Q_EMP_GET_BEFORE, Employee.class)
+                .setParameter(JpaConst.JPQL_PARM_CURSOR, 0)
+                .setFirstResult((int) count - end)
+                .setMaxResults(end - first)
+                .getResultList();
+
+        //idの昇順で取得しているため、表示順(降順)に並べ替える
+        Collections.reverse(employees);
+        return EmployeeConverter.toViewList(employees);
+    }
+
+    /**
+     * 指定したidより古い従業員データを一覧画面に表示する分取得し、EmployeeViewのリストで返却する
+     * (次ページ・近くのページの表示 読み飛ばす行は近くのページまでの分のみのため、ページが深くなっても取得時間が変わらない)
+     * @param cursor 現在のページの最後の従業員のid
+     * @param skip 読み飛ばす件数(次ページの場合0)
+     * @return 表示するデータのリスト(idの降順)
+     */
+    public List<EmployeeView> getAfter(int cursor, int skip) {
+        List<Employee> employees = entityManager.createNamedQuery(JpaConst.Q_EMP_GET_AFTER, Employee.class)
+                .setParameter(JpaConst.JPQL_PARM_CURSOR, cursor)
+                .setFirstResult(skip)
                 .setMaxResults(JpaConst.ROW_PER_PAGE)
                 .getResultList();
 
         return EmployeeConverter.toViewList(employees);
     }
 
+    /**
+     * 指定したidより新しい従業員データを一覧画面に表示する分取得し、EmployeeViewのリストで返却する
+     * (前ページ・近くのページの表示)
+     * @param cursor 現在のページの最初の従業員のid
+     * @param skip 読み飛ばす件数(前ページの場合0)
+     * @return 表示するデータのリスト(idの降順)
+     */
+    public List<EmployeeView> getBefore(int cursor, int skip) {
+        List<Employee> employees = entityManager.createNamedQuery(JpaConst.Q_EMP_GET_BEFORE, Employee.class)
+                .setParameter(JpaConst.JPQL_PARM_CURSOR, cursor)
+                .setFirstResult(skip)
+                .setMaxResults(JpaConst.ROW_PER_PAGE)
+                .getResultList();
+
+        //idの昇順で取得しているため、表示順(降順)に並べ替える
+        Collections.reverse(employees);
+        return EmployeeConverter.toViewList(employees);
+    }
+
     /**
      * 従業員テーブルのデータの件数を取得し、返却する
      * @return 従業員テーブルのデータの件数
@@ -43,29 +107,55 @@ public class EmployeeService extends ServiceBase {
     }
 
     /**
-     * 社員番号、パスワードを条件に取得したデータをEmployeeViewのインスタンスで返却する
+     * 全ての従業員の最終更新日時を取得し、返却する
+     * (一覧画面の内容が変わったかどうかの判定に使用する。従業員テーブルが更新されるまではクエリキャッシュから取得する)
+     * @return 最終更新日時 データがない場合null
+     */
+    public LocalDateTime getLastUpdated() {
+        return entityManager.createNamedQuery(JpaConst.Q_EMP_GET_LAST_UPDATED, LocalDateTime.class)
+                .getSingleResult();
+    }
+
+    /**
+     * 社員番号で従業員を1回だけ取得し、パスワードを照合して認証する
+     * パスワードの照合・ハッシュ化はHashExecutorのスレッドで行う
+     * 保存済みのハッシュ値が以前の形式(SHA-256)または現在と異なる設定の場合は、照合に成功した時点でハッシュ化し直す
      * @param code 社員番号
      * @param plainPass パスワード文字列
      * @param pepper pepper文字列
-     * @return 取得データのインスタンス 取得できない場合null
+     * @return 認証に成功した従業員のインスタンス 失敗した場合null
+     * @throws RejectedExecutionException ログインが集中し、照合を受け付けられない場合
      */
-    public EmployeeView findOne(String code, String plainPass, String pepper) {
+    public EmployeeView authenticate(String code, String plainPass, String pepper) {
+        if (code == null || code.equals("") || plainPass == null || plainPass.equals("")) {
+            return null;
+        }
+
+        //社員番号を条件に未削除の従業員を1件取得する
         Employee employee = null;
         try {
-            //パスワードのハッシュ化
-            String pass = EncryptUtil.getPasswordEncrypt(plainPass, pepper);
-
-            //社員番号とハッシュ化済パスワードを条件に未削除の従業員を1件取得する
-            employee = entityManager.createNamedQuery(JpaConst.Q_EMP_GET_BY_CODE_AND_PASS, Employee.class)
+            employee = entityManager.createNamedQuery(JpaConst.Q_EMP_GET_BY_CODE, Employee.class)
                     .setParameter(JpaConst.JPQL_PARM_CODE, code)
-                    .setParameter(JpaConst.JPQL_PARM_PASSWORD, pass)
                     .getSingleResult();
-
         } catch (NoResultException ex) {
         }
 
-        return EmployeeConverter.toView(employee);
+        //該当する従業員がいない場合も照合を行い、処理時間から社員番号の有無を推測されないようにする
+        String storedHash = employee != null ? employee.getPassword() : DUMMY_HASH;
+        boolean verified = HashExecutor.execute(() -> EncryptUtil.verifyPassword(plainPass, pepper, storedHash));
+        if (employee == null || !verified) {
+            return null;
+        }
 
+        if (EncryptUtil.needsRehash(storedHash)) {
+            //現在の設定でハッシュ化し直して保存する
+            String newHash = HashExecutor.execute(() -> EncryptUtil.getPasswordHash(plainPass, pepper));
+            entityManager.getTransaction().begin();
+            employee.setPassword(newHash);
+            entityManager.getTransaction().commit();
+        }
+
+        return EmployeeConverter.toView(employee);
     }
 
     /**
@@ -94,6 +184,7 @@ public class EmployeeService extends ServiceBase {
 
     /**
      * 画面から入力された従業員の登録内容を元にデータを1件作成し、従業員テーブルに登録する
+     * パスワードのハッシュ化はHashExecutorのスレッドで行う
      * @param employeeView 画面から入力された従業員の登録内容
      * @param pepper pepper文字列
      * @return バリデーションや登録処理中に発生したエラーのリスト
@@ -101,7 +192,14 @@ public class EmployeeService extends ServiceBase {
     public List<String> create(EmployeeView employeeView, String pepper) {
 
         //パスワードをハッシュ化して設定
-        String pass = EncryptUtil.getPasswordEncrypt(employeeView.getPassword(), pepper);
+        //(ハッシュ化の待ち行列が一杯で受け付けられない場合は登録せずにエラーを返却する)
+        String plainPass = employeeView.getPassword();
+        String pass;
+        try {
+            pass = HashExecutor.execute(() -> EncryptUtil.getPasswordHash(plainPass, pepper));
+        } catch (RejectedExecutionException e) {
+            return Collections.singletonList(MessageConst.E_HASH_BUSY.getMessage());
+        }
         employeeView.setPassword(pass);
 
         //登録日時、更新日時は現在時刻を設定する
@@ -123,6 +221,7 @@ public class EmployeeService extends ServiceBase {
 
     /**
      * 画面から入力された従業員の更新内容を元にデータを1件作成し、従業員テーブルを更新する
+     * パスワードのハッシュ化はHashExecutorのスレッドで行う
      * @param employeeView 画面から入力された従業員の登録内容
      * @param pepper pepper文字列
      * @return バリデーションや更新処理中に発生したエラーのリスト
@@ -150,8 +249,14 @@ public class EmployeeService extends ServiceBase {
             validatePass = true;
 
             //変更後のパスワードをハッシュ化し設定する
-            savedEmp.setPassword(
-                    EncryptUtil.getPasswordEncrypt(employeeView.getPassword(), pepper));
+            //(ハッシュ化の待ち行列が一杯で受け付けられない場合は更新せずにエラーを返却する)
+            String plainPass = employeeView.getPassword();
+            try {
+                savedEmp.setPassword(
+                        HashExecutor.execute(() -> EncryptUtil.getPasswordHash(plainPass, pepper)));
+            } catch (RejectedExecutionException e) {
+                return Collections.singletonList(MessageConst.E_HASH_BUSY.getMessage());
+            }
         }
 
         savedEmp.setName(employeeView.getName()); //変更後の氏名を設定する
@@ -194,30 +299,6 @@ public class EmployeeService extends ServiceBase {
 
     }
 
-    /**
-     * 社員番号とパスワードを条件に検索し、データが取得できるかどうかで認証結果を返却する
-     * @param code 社員番号
-     * @param plainPass パスワード
-     * @param pepper pepper文字列
-     * @return 認証結果を返却す(成功:true 失敗:false)
-     */
-    public Boolean validateLogin(String code, String plainPass, String pepper) {
-
-        boolean isValidEmployee = false;
-        if (code != null && !code.equals("") && plainPass != null && !plainPass.equals("")) {
-            EmployeeView employeeView = findOne(code, plainPass, pepper);
-
-            if (employeeView != null && employeeView.getId() != null) {
-
-                //データが取得できた場合、認証成功
-                isValidEmployee = true;
-            }
-        }
-
-        //認証結果を返却する
-        return isValidEmployee;
-    }
-
     /**
      * idを条件にデータを1件取得し、Employeeのインスタンスで返却する
      * @param id
@@ -237,9 +318,16 @@ public class EmployeeService extends ServiceBase {
     private void create(EmployeeView employeeView) {
 
         entityManager.getTransaction().begin();
-        entityManager.persist(EmployeeConverter.toModel(employeeView));
+        Employee employee = EmployeeConverter.toModel(employeeView);
+        entityManager.persist(employee);
+        //日報件数を0件で登録する
+        entityManager.persist(new ReportCounter(employee.getId(), 0L));
         entityManager.getTransaction().commit();
 
+        //ログイン中の従業員の情報を置き換える
+        employeeView.setId(employee.getId());
+        EmployeeSnapshot.put(employeeView);
+
     }
 
     /**
@@ -250,9 +338,21 @@ public class EmployeeService extends ServiceBase {
 
         entityManager.getTransaction().begin();
         Employee e = findOneInternal(employeeView.getId());
+        boolean renamed = !e.getName().equals(employeeView.getName());
         EmployeeConverter.copyViewToModel(e, employeeView);
         entityManager.getTransaction().commit();
 
+        //ログイン中の従業員の情報を置き換える(管理者権限・氏名・削除を次のリクエストから反映する)
+        EmployeeSnapshot.put(employeeView);
+
+        //日報一覧画面に表示する氏名が変わるため、キャッシュを無効にする
+        ReportListCache.invalidate();
+
+        //全文検索用インデックスは氏名を保存・検索対象としているため、氏名が変わった場合は日報を登録し直す
+        if (renamed) {
+            ReportSearchIndex.reindexEmployeeAsync(employeeView.getId());
+        }
+
     }
 
 }
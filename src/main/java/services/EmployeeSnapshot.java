@@ -0,0 +1,122 @@
+package services;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import actions.views.EmployeeView;
+import constants.PropertyConst;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import utilties.PropertyUtil;
+
+/**
+ * ログイン中の従業員の情報をアプリケーション全体で1件ずつ保持するクラス
+ * セッションには従業員のidとバージョンのみを保持し、画面に表示する情報はここから取得する
+ * 従業員の登録・更新時に置き換えるため、管理者による変更(管理者権限・氏名・削除)は次のリクエストから反映される
+ * (他のサーバーで行われた変更は、保持してから一定時間が経過した時点でDBから取得し直して反映する)
+ */
+public class EmployeeSnapshot {
+
+    /**
+     * 保持している従業員の情報
+     */
+    @Getter //全てのクラスフィールドについてgetterを自動生成する(Lombok)
+    @AllArgsConstructor //全てのクラスフィールドを引数にもつ引数ありコンストラクタを自動生成する(Lombok)
+    public static class Entry {
+
+        /**
+         * 従業員(パスワードは保持しない)
+         */
+        private final EmployeeView employee;
+
+        /**
+         * バージョン(内容が変わるたびに大きくなる)
+         */
+        private final long version;
+
+        /**
+         * 取得した時刻(System.nanoTime)
+         */
+        private final long loadedAt;
+    }
+
+    //バージョンの採番に使用する
+    private static final AtomicLong versions = new AtomicLong();
+
+    //従業員のidごとの情報
+    private static final ConcurrentHashMap<Integer, Entry> entries = new ConcurrentHashMap<>();
+
+    //DBから取得し直すまでの時間
+    private static final long ttlNanos = TimeUnit.SECONDS.toNanos(
+            PropertyUtil.getIntValue(PropertyConst.EMP_SNAPSHOT_TTL_SECONDS, 60));
+
+    /**
+     * idに該当する従業員の情報を返却する
+     * 保持していない、または保持してから一定時間が経過している場合はDBから取得する
+     * @param id 従業員のid
+     * @return 従業員の情報 該当する従業員がいない場合null
+     */
+    public static Entry get(int id) {
+        long now = System.nanoTime();
+
+        Entry entry = entries.get(id);
+        if (entry != null && now - entry.getLoadedAt() < ttlNanos) {
+            return entry;
+        }
+
+        EmployeeService employeeService = new EmployeeService();
+        try {
+            EmployeeView loaded = employeeService.findOne(id);
+            if (loaded == null) {
+                entries.remove(id);
+                return null;
+            }
+
+            Entry fresh = new Entry(withoutPassword(loaded), versions.incrementAndGet(), now);
+            return entries.merge(id, fresh, (current, candidate) -> {
+                if (current.getLoadedAt() >= candidate.getLoadedAt()) {
+                    //取得中に置き換えられた場合は、置き換えた後の内容を優先する
+                    return current;
+                }
+                if (Objects.equals(current.getEmployee().getUpdatedAt(), candidate.getEmployee().getUpdatedAt())) {
+                    //内容が変わっていなければ、バージョンは変えずに取得時刻のみ更新する
+                    return new Entry(candidate.getEmployee(), current.getVersion(), candidate.getLoadedAt());
+                }
+                return candidate;
+            });
+        } finally {
+            employeeService.close();
+        }
+    }
+
+    /**
+     * 従業員の情報を置き換える(従業員の登録・更新時、ログイン時に呼び出す)
+     * @param employee 従業員
+     * @return 置き換えた後の情報
+     */
+    public static Entry put(EmployeeView employee) {
+        Entry entry = new Entry(withoutPassword(employee), versions.incrementAndGet(), System.nanoTime());
+        entries.put(employee.getId(), entry);
+        return entry;
+    }
+
+    /**
+     * 保持している件数を返却する
+     * @return 件数
+     */
+    public static int getSize() {
+        return entries.size();
+    }
+
+    /**
+     * パスワードを除いた従業員の情報を作成する
+     * @param ev 従業員
+     * @return パスワード以外を複写した従業員
+     */
+    private static EmployeeView withoutPassword(EmployeeView ev) {
+        return new EmployeeView(ev.getId(), ev.getCode(), ev.getName(), null, ev.getAdminFlag(),
+                ev.getCreatedAt(), ev.getUpdatedAt(), ev.getDeleteFlag());
+    }
+}
@@ -0,0 +1,240 @@
+package services;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import actions.views.ReportView;
+import constants.JpaConst;
+import constants.MessageConst;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import utilties.CsvUtil;
+
+/**
+ * 一括登録用にアップロードされたファイルから日報を1件ずつ読み込むクラス
+ * ファイル全体をメモリに保持しないため、件数が多くても使用メモリは変わらない
+ *
+ * CSV形式: 1行目は項目名(report_date,title,content)とし、項目名の順に値を読み込む
+ *         項目名の行がない場合は report_date,title,content の順とみなす
+ * JSON Lines形式: 1行に1件、{"report_date":"2021-04-01","title":"...","content":"..."} の形式とする
+ * 日付が空の場合は今日の日付とする
+ */
+public class ReportImportReader implements Closeable {
+
+    /**
+     * ファイル形式
+     */
+    public enum Format {
+        CSV,
+        JSON_LINES;
+
+        /**
+         * ファイル名の拡張子からファイル形式を判定する
+         * @param fileName ファイル名
+         * @return ファイル形式(.jsonl, .json 以外はCSVとみなす)
+         */
+        public static Format fromFileName(String fileName) {
+            if (fileName != null) {
+                String name = fileName.toLowerCase();
+                if (name.endsWith(".jsonl") || name.endsWith(".json")) {
+                    return JSON_LINES;
+                }
+            }
+            return CSV;
+        }
+    }
+
+    /**
+     * 読み込んだ1件分の内容
+     */
+    @Getter //全てのクラスフィールドについてgetterを自動生成する(Lombok)
+    @AllArgsConstructor //全てのクラスフィールドを引数にもつ引数ありコンストラクタを自動生成する(Lombok)
+    public static class Row {
+
+        /**
+         * ファイル内での行番号(CSVの場合はレコードの番号 項目名の行を1行目とする)
+         */
+        private final int rowNumber;
+
+        /**
+         * 読み込んだ日報(日付・タイトル・内容のみ設定済み) 形式に誤りがある場合null
+         */
+        private final ReportView report;
+
+        /**
+         * 形式の誤りを示すエラーメッセージ 誤りがない場合null
+         */
+        private final String error;
+    }
+
+    //JSONの解析に使用するインスタンス(スレッドセーフのため共有する)
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    //CSVの項目名(既定の並び順)
+    private static final String[] CSV_HEADER = {
+            JpaConst.REP_COL_REP_DATE, JpaConst.REP_COL_TITLE, JpaConst.REP_COL_CONTENT };
+
+    private final BufferedReader reader;
+    private final Format format;
+
+    //CSVの各項目(日付・タイトル・内容)が何番目の列にあるか
+    private int[] columns = { 0, 1, 2 };
+
+    //CSVの1行あたりの項目数
+    private int columnCount = CSV_HEADER.length;
+
+    //読み込んだ行数
+    private int rowNumber = 0;
+
+    /**
+     * コンストラクタ
+     * @param inputStream 読み込むファイル(UTF-8 先頭のBOMは読み飛ばす)
+     * @param format ファイル形式
+     * @throws IOException
+     */
+    public ReportImportReader(InputStream inputStream, Format format) throws IOException {
+        this.reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+        this.format = format;
+
+        //Excel等で保存したファイルの先頭に付くBOMを読み飛ばす
+        reader.mark(1);
+        if (reader.read() != '\uFEFF') {
+            reader.reset();
+        }
+    }
+
+    /**
+     * 次の1件を読み込む
+     * @return 読み込んだ内容 読み込むデータがない場合null
+     * @throws IOException
+     */
+    public Row next() throws IOException {
+        return format == Format.JSON_LINES ? nextJson() : nextCsv();
+    }
+
+    /**
+     * CSVのレコードを1件読み込む
+     * @return 読み込んだ内容 読み込むデータがない場合null
+     * @throws IOException
+     */
+    private Row nextCsv() throws IOException {
+        List<String> record;
+        do {
+            record = CsvUtil.readRecord(reader);
+            if (record == null) {
+                return null;
+            }
+            rowNumber++;
+
+            //1行目が項目名の場合は、項目名の並び順を読み込む
+            if (rowNumber == 1 && readHeader(record)) {
+                record = null;
+            }
+        } while (record == null || isBlank(record));
+
+        if (record.size() != columnCount) {
+            return new Row(rowNumber, null, MessageConst.E_IMPORT_COLUMNS.getMessage());
+        }
+
+        return toRow(record.get(columns[0]), record.get(columns[1]), record.get(columns[2]));
+    }
+
+    /**
+     * JSON Linesの行を1件読み込む
+     * @return 読み込んだ内容 読み込むデータがない場合null
+     * @throws IOException
+     */
+    private Row nextJson() throws IOException {
+        String line;
+        do {
+            line = reader.readLine();
+            if (line == null) {
+                return null;
+            }
+            rowNumber++;
+        } while (line.trim().isEmpty());
+
+        JsonNode node;
+        try {
+            node = MAPPER.readTree(line);
+        } catch (JsonProcessingException e) {
+            return new Row(rowNumber, null, MessageConst.E_IMPORT_FORMAT.getMessage());
+        }
+        if (!node.isObject()) {
+            return new Row(rowNumber, null, MessageConst.E_IMPORT_FORMAT.getMessage());
+        }
+
+        return toRow(node.path(JpaConst.REP_COL_REP_DATE).asText(""),
+                node.path(JpaConst.REP_COL_TITLE).asText(""),
+                node.path(JpaConst.REP_COL_CONTENT).asText(""));
+    }
+
+    /**
+     * 項目名の行であれば各項目の位置を読み込む
+     * @param record CSVの1行目
+     * @return 項目名の行の場合true
+     */
+    private boolean readHeader(List<String> record) {
+        int[] found = new int[CSV_HEADER.length];
+        for (int i = 0; i < CSV_HEADER.length; i++) {
+            found[i] = record.indexOf(CSV_HEADER[i]);
+            if (found[i] < 0) {
+                return false;
+            }
+        }
+        columns = found;
+        columnCount = record.size();
+        return true;
+    }
+
+    /**
+     * 読み込んだ値から日報を作成する
+     * @param date 日付(yyyy-MM-dd)
+     * @param title タイトル
+     * @param content 内容
+     * @return 読み込んだ内容
+     */
+    private Row toRow(String date, String title, String content) {
+        LocalDate reportDate;
+        if (date == null || date.trim().equals("")) {
+            reportDate = LocalDate.now();
+        } else {
+            try {
+                reportDate = LocalDate.parse(date.trim());
+            } catch (DateTimeParseException e) {
+                return new Row(rowNumber, null, MessageConst.E_IMPORT_DATE.getMessage());
+            }
+        }
+
+        ReportView rv = new ReportView(null, null, reportDate, title, content, null, null);
+        return new Row(rowNumber, rv, null);
+    }
+
+    /**
+     * 空行かどうかを判定する
+     * @param record CSVの1行
+     * @return 全ての項目が空の場合true
+     */
+    private static boolean isBlank(List<String> record) {
+        return record.size() == 1 && record.get(0).trim().isEmpty();
+    }
+
+    /**
+     * ファイルを閉じる
+     */
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
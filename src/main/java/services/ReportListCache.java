@@ -0,0 +1,157 @@
+package services;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import actions.views.ReportView;
+import constants.PropertyConst;
+import utilties.PropertyUtil;
+
+/**
+ * 日報一覧画面(全従業員分)に表示するデータをページごとに保持するキャッシュ
+ * キーにデータのバージョンを含め、日報・従業員の登録や更新時にバージョンを上げることで古いデータを参照しないようにする
+ * (古いバージョンのデータは参照されなくなり、件数の上限を超えた時点で古い順に破棄される)
+ * バージョンはサーバーごとに持つため、他のサーバーで行われた変更は保持してから一定時間が経過した時点で反映する
+ */
+public class ReportListCache {
+
+    //データのバージョン
+    private static final AtomicLong version = new AtomicLong();
+
+    //保持する件数の上限
+    private static final int maxEntries = PropertyUtil.getIntValue(PropertyConst.REP_LIST_CACHE_MAX_ENTRIES, 200);
+
+    //保持したデータを使用する時間(ナノ秒)
+    private static final long ttlNanos = TimeUnit.SECONDS.toNanos(
+            PropertyUtil.getIntValue(PropertyConst.REP_LIST_CACHE_TTL_SECONDS, 10));
+
+    //ヒット・ミス・破棄の件数
+    private static final LongAdder hits = new LongAdder();
+    private static final LongAdder misses = new LongAdder();
+    private static final LongAdder evictions = new LongAdder();
+
+    //最後に参照された順に並べ、上限を超えた場合は最も古く参照されたものから破棄する
+    private static final Map<String, Page> pages = Collections.synchronizedMap(
+            new LinkedHashMap<String, Page>(16, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Page> eldest) {
+                    if (size() > maxEntries) {
+                        evictions.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            });
+
+    /**
+     * 表示するページを表すキーを作成する(現在のバージョンを含む)
+     * データを取得する前に作成し、取得中に更新があった場合は古いバージョンのキーで保持されるようにする
+     * @param page ページ数
+     * @param after 次ページの基準となるid(指定がない場合null)
+     * @param before 前ページの基準となるid(指定がない場合null)
+     * @param skip 基準となるidから読み飛ばす件数
+     * @return キー
+     */
+    public static String createKey(int page, Integer after, Integer before, int skip) {
+        return version.get() + ":" + page + ":" + after + ":" + before + ":" + skip;
+    }
+
+    /**
+     * キーに該当するデータを返却する
+     * @param key キー
+     * @return 保持しているデータ 保持していない場合や、保持してから一定時間が経過した場合null
+     */
+    public static Page get(String key) {
+        Page page = pages.get(key);
+        if (page != null && System.nanoTime() - page.cachedAt >= ttlNanos) {
+            //他のサーバーで行われた変更を反映するため、古いデータは破棄して取得し直す
+            pages.remove(key, page);
+            page = null;
+        }
+        if (page == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return page;
+    }
+
+    /**
+     * データを保持する
+     * @param key キー
+     * @param reports 一覧画面に表示する日報データ
+     * @param count 全日報データの件数
+     * @param lastUpdated 日報・従業員の最終更新日時
+     */
+    public static void put(String key, List<ReportView> reports, long count, LocalDateTime lastUpdated) {
+        pages.put(key, new Page(Collections.unmodifiableList(reports), count, lastUpdated));
+    }
+
+    /**
+     * バージョンを上げ、保持しているデータを全て無効にする
+     * 日報・従業員の登録や更新を行った場合に呼び出す
+     */
+    public static void invalidate() {
+        version.incrementAndGet();
+    }
+
+    public static long getHits() {
+        return hits.sum();
+    }
+
+    public static long getMisses() {
+        return misses.sum();
+    }
+
+    public static long getEvictions() {
+        return evictions.sum();
+    }
+
+    public static int getSize() {
+        return pages.size();
+    }
+
+    /**
+     * 1ページ分のデータ
+     */
+    public static class Page {
+
+        //一覧画面に表示する日報データ
+        private final List<ReportView> reports;
+
+        //全日報データの件数
+        private final long count;
+
+        //日報・従業員の最終更新日時(一覧画面のバリデータに使用する)
+        private final LocalDateTime lastUpdated;
+
+        //保持した時刻(System.nanoTime)
+        private final long cachedAt = System.nanoTime();
+
+        private Page(List<ReportView> reports, long count, LocalDateTime lastUpdated) {
+            this.reports = reports;
+            this.count = count;
+            this.lastUpdated = lastUpdated;
+        }
+
+        public List<ReportView> getReports() {
+            return reports;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public LocalDateTime getLastUpdated() {
+            return lastUpdated;
+        }
+    }
+}
@@ -0,0 +1,367 @@
+package services;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.ja.JapaneseAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TotalHits;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.QueryBuilder;
+
+import actions.views.EmployeeView;
+import actions.views.ReportView;
+import constants.JpaConst;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 日報の全文検索用インデックス(Lucene)を管理するクラス
+ * 日本語の形態素解析(kuromoji)で単語に分割して索引を作成し、タイトル・内容・氏名から日報を検索する
+ * 日報の登録・更新時に1件ずつ反映し、DBとの件数が一致しない場合は全件から作り直す
+ * 従業員の氏名を変更した場合は、その従業員の日報を登録し直す
+ */
+public class ReportSearchIndex {
+
+    /**
+     * 検索結果
+     */
+    @Getter //全てのクラスフィールドについてgetterを自動生成する(Lombok)
+    @AllArgsConstructor //全てのクラスフィールドを引数にもつ引数ありコンストラクタを自動生成する(Lombok)
+    public static class Result {
+
+        /**
+         * 表示するページの日報(id・日付・タイトル・氏名のみ設定済み) 関連度の高い順
+         */
+        private final List<ReportView> reports;
+
+        /**
+         * 該当した件数(MAX_RESULTS件まで)
+         */
+        private final long count;
+
+        /**
+         * 該当した件数がMAX_RESULTS件を超えている場合true
+         */
+        private final boolean truncated;
+    }
+
+    //検索結果として表示する件数の上限(これを超える件数は数えない)
+    public static final int MAX_RESULTS = 1000;
+
+    //フィールド名
+    private static final String FIELD_ID = JpaConst.REP_COL_ID;
+    private static final String FIELD_EMP_ID = JpaConst.REP_COL_EMP;
+    private static final String FIELD_EMP_NAME = JpaConst.EMP_COL_NAME;
+    private static final String FIELD_DATE = JpaConst.REP_COL_REP_DATE;
+    private static final String FIELD_TITLE = JpaConst.REP_COL_TITLE;
+    private static final String FIELD_TEXT = "text"; //タイトル・内容・氏名をまとめて検索するためのフィールド
+
+    //タイトルに検索語を含む日報を上位に表示するための重み
+    private static final float TITLE_BOOST = 2.0f;
+
+    //形態素解析を行うAnalyzer(スレッドセーフ)
+    private static final Analyzer analyzer = new JapaneseAnalyzer();
+
+    private static volatile IndexWriter writer;
+    private static volatile SearcherManager searcherManager;
+
+    //定期的なコミットとインデックスの作り直しを実行するスレッド
+    private static ScheduledExecutorService executor;
+
+    //インデックスを作り直している間true(途中の状態を検索結果に反映しない)
+    private static final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    /**
+     * インデックスを開く(存在しない場合は作成する)
+     * @param directory インデックスを保存するディレクトリ
+     * @param commitSeconds 変更をディスクに書き出す間隔(秒)
+     * @throws IOException
+     */
+    public static synchronized void open(Path directory, int commitSeconds) throws IOException {
+        if (writer != null) {
+            return;
+        }
+
+        IndexWriterConfig config = new IndexWriterConfig(analyzer)
+                .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND);
+        writer = new IndexWriter(FSDirectory.open(directory), config);
+        searcherManager = new SearcherManager(writer, null);
+
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "report-search-indexer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(ReportSearchIndex::commit, commitSeconds, commitSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * インデックスを閉じる(未反映の変更はディスクに書き出す)
+     */
+    public static synchronized void close() {
+        if (writer == null) {
+            return;
+        }
+
+        //実行中の処理は中断せずに完了を待つ(Luceneは割り込まれるとファイルを閉じてしまうため)
+        executor.shutdown();
+        try {
+            executor.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        try {
+            searcherManager.close();
+            writer.close();
+            writer.getDirectory().close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        writer = null;
+        searcherManager = null;
+    }
+
+    /**
+     * 日報1件をインデックスに反映する(登録済みの場合は置き換える)
+     * インデックスを開いていない場合は何もしない
+     * @param rv 日報(id・従業員のid・氏名・日付・タイトル・内容を設定済みのもの)
+     */
+    public static void index(ReportView rv) {
+        index(Collections.singletonList(rv));
+    }
+
+    /**
+     * 複数の日報をまとめてインデックスに反映する(検索結果への反映は最後に1度だけ行う)
+     * インデックスを開いていない場合は何もしない
+     * @param reports 日報(id・従業員のid・氏名・日付・タイトル・内容を設定済みのもの)のリスト
+     */
+    public static void index(List<ReportView> reports) {
+        IndexWriter w = writer;
+        if (w == null) {
+            return;
+        }
+
+        try {
+            for (ReportView rv : reports) {
+                w.updateDocument(new Term(FIELD_ID, String.valueOf(rv.getId())), toDocument(rv));
+            }
+            if (!rebuilding.get()) {
+                //検索結果にすぐ反映する(ディスクへの書き出しは定期的に行う)
+                searcherManager.maybeRefresh();
+            }
+        } catch (IOException e) {
+            //インデックスへの反映に失敗しても日報の登録は完了しているため、例外は呼び出し元に返さない
+            //(件数の不一致は次回起動時の作り直しで解消する)
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * キーワードに該当する日報を関連度の高い順に検索する
+     * @param keywords キーワード(空白区切りで複数指定した場合は全てを含むもの)
+     * @param page ページ数(1未満の場合は1ページ目)
+     * @return 検索結果
+     * @throws IOException
+     */
+    public static Result search(String keywords, int page) throws IOException {
+        SearcherManager manager = searcherManager;
+        page = Math.max(1, page); //URLで0以下のページ数が指定された場合は先頭のページとする
+        int from = JpaConst.ROW_PER_PAGE * (page - 1);
+        int to = Math.min(JpaConst.ROW_PER_PAGE * page, MAX_RESULTS);
+
+        QueryBuilder builder = new QueryBuilder(analyzer);
+        Query text = builder.createBooleanQuery(FIELD_TEXT, keywords, BooleanClause.Occur.MUST);
+        if (manager == null || text == null || from >= to) {
+            //検索できる単語がない場合は0件とする
+            return new Result(new ArrayList<ReportView>(), 0, false);
+        }
+
+        BooleanQuery.Builder query = new BooleanQuery.Builder().add(text, BooleanClause.Occur.MUST);
+        Query title = builder.createBooleanQuery(FIELD_TITLE, keywords, BooleanClause.Occur.SHOULD);
+        if (title != null) {
+            query.add(new BoostQuery(title, TITLE_BOOST), BooleanClause.Occur.SHOULD);
+        }
+
+        IndexSearcher searcher = manager.acquire();
+        try {
+            TopDocs topDocs = searcher.search(query.build(), to);
+
+            List<ReportView> reports = new ArrayList<ReportView>();
+            ScoreDoc[] scoreDocs = topDocs.scoreDocs;
+            for (int i = from; i < scoreDocs.length; i++) {
+                reports.add(toView(searcher.doc(scoreDocs[i].doc)));
+            }
+
+            long count = topDocs.totalHits.value;
+            boolean truncated = count > MAX_RESULTS
+                    || topDocs.totalHits.relation == TotalHits.Relation.GREATER_THAN_OR_EQUAL_TO;
+            return new Result(reports, Math.min(count, MAX_RESULTS), truncated);
+        } finally {
+            manager.release(searcher);
+        }
+    }
+
+    /**
+     * インデックスに登録されている日報の件数を返却する
+     * @return 件数(インデックスを開いていない場合は-1)
+     */
+    public static long count() {
+        IndexWriter w = writer;
+        return w == null ? -1 : w.getDocStats().numDocs;
+    }
+
+    /**
+     * 別スレッドでDBの全ての日報からインデックスを作り直す
+     * @param onlyIfStale trueの場合、インデックスの件数がDBの件数と一致していれば作り直さない
+     * @return 作り直しを開始した場合true(既に実行中、またはインデックスを開いていない場合false)
+     */
+    public static boolean rebuildAsync(boolean onlyIfStale) {
+        if (writer == null || !rebuilding.compareAndSet(false, true)) {
+            return false;
+        }
+
+        executor.execute(() -> {
+            ReportService reportService = null;
+            try {
+                reportService = new ReportService();
+                if (!onlyIfStale || count() != reportService.countAll()) {
+                    writer.deleteAll();
+                    reportService.indexAll();
+                }
+            } catch (IOException | RuntimeException e) {
+                e.printStackTrace();
+            } finally {
+                if (reportService != null) {
+                    reportService.close();
+                }
+                commitInternal();
+                rebuilding.set(false);
+            }
+        });
+        return true;
+    }
+
+    /**
+     * 別スレッドで指定した従業員の日報をインデックスに登録し直す(氏名を変更した場合に呼び出す)
+     * インデックスを開いていない場合は何もしない
+     * @param employeeId 従業員のid
+     */
+    public static void reindexEmployeeAsync(int employeeId) {
+        if (writer == null) {
+            return;
+        }
+
+        executor.execute(() -> {
+            ReportService reportService = null;
+            try {
+                reportService = new ReportService();
+                reportService.indexMine(employeeId);
+            } catch (RuntimeException e) {
+                //失敗した場合も次回のインデックスの作り直しで解消する
+                e.printStackTrace();
+            } finally {
+                if (reportService != null) {
+                    reportService.close();
+                }
+            }
+        });
+    }
+
+    /**
+     * インデックスを作り直している途中かどうかを返却する
+     * @return 作り直している途中の場合true
+     */
+    public static boolean isRebuilding() {
+        return rebuilding.get();
+    }
+
+    /**
+     * 未反映の変更をディスクに書き出し、検索結果に反映する
+     */
+    private static void commit() {
+        if (!rebuilding.get()) {
+            commitInternal();
+        }
+    }
+
+    /**
+     * 未反映の変更をディスクに書き出し、検索結果に反映する(作り直しの途中かどうかにかかわらず実行する)
+     */
+    private static void commitInternal() {
+        IndexWriter w = writer;
+        if (w == null) {
+            return;
+        }
+
+        try {
+            w.commit();
+            searcherManager.maybeRefresh();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * 日報からインデックスに登録するドキュメントを作成する
+     * 内容は検索にのみ使用し、ドキュメントには保存しない(一覧の表示に必要な項目のみ保存する)
+     * @param rv 日報
+     * @return ドキュメント
+     */
+    private static Document toDocument(ReportView rv) {
+        EmployeeView ev = rv.getEmployee();
+
+        Document doc = new Document();
+        doc.add(new StringField(FIELD_ID, String.valueOf(rv.getId()), Field.Store.YES));
+        doc.add(new StoredField(FIELD_EMP_ID, ev.getId()));
+        doc.add(new StoredField(FIELD_EMP_NAME, ev.getName()));
+        doc.add(new StoredField(FIELD_DATE, rv.getReportDate().toString()));
+        doc.add(new TextField(FIELD_TITLE, rv.getTitle(), Field.Store.YES));
+        doc.add(new TextField(FIELD_TEXT,
+                rv.getTitle() + "\n" + rv.getContent() + "\n" + ev.getName(), Field.Store.NO));
+        return doc;
+    }
+
+    /**
+     * ドキュメントから一覧画面に表示する日報を作成する
+     * @param doc ドキュメント
+     * @return 日報(id・日付・タイトル・従業員のid・氏名のみ設定済み)
+     */
+    private static ReportView toView(Document doc) {
+        EmployeeView ev = new EmployeeView();
+        ev.setId(doc.getField(FIELD_EMP_ID).numericValue().intValue());
+        ev.setName(doc.get(FIELD_EMP_NAME));
+
+        ReportView rv = new ReportView();
+        rv.setId(Integer.parseInt(doc.get(FIELD_ID)));
+        rv.setEmployee(ev);
+        rv.setReportDate(LocalDate.parse(doc.get(FIELD_DATE)));
+        rv.setTitle(doc.get(FIELD_TITLE));
+        return rv;
+    }
+}
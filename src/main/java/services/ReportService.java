@@ -1,35 +1,142 @@
 package services;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+
+import javax.persistence.LockModeType;
+
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.query.Query;
 
 import actions.views.EmployeeConverter;
 import actions.views.EmployeeView;
 import actions.views.ReportConverter;
 import actions.views.ReportView;
 import constants.JpaConst;
+import constants.MessageConst;
+import constants.PropertyConst;
+import models.Employee;
 import models.Report;
+import models.ReportCounter;
 import models.validators.ReportValidator;
+import utilties.CsvUtil;
+import utilties.PropertyUtil;
 
 /**
  * 日報テーブルの操作に関わる処理を行うクラス
  */
 public class ReportService extends ServiceBase {
 
+    //一括登録で使用するINSERT文(JDBCバッチで送信する)
+    private static final String SQL_REP_INSERT = String.format(
+            "INSERT INTO %s (%s, %s, %s, %s, %s, %s) VALUES (?, ?, ?, ?, ?, ?)",
+            JpaConst.TABLE_REP, JpaConst.REP_COL_EMP, JpaConst.REP_COL_REP_DATE, JpaConst.REP_COL_TITLE,
+            JpaConst.REP_COL_CONTENT, JpaConst.REP_COL_CREATED_AT, JpaConst.REP_COL_UPDATED_AT);
+
+    //一括登録のチェックで返却するエラーの件数の上限
+    private static final int IMPORT_MAX_ERRORS = 100;
+
+    //エクスポートするCSVの項目名(report_date,title,content は一括登録でそのまま読み込める)
+    private static final String[] EXPORT_HEADER = {
+            JpaConst.REP_COL_ID, JpaConst.EMP_COL_CODE, JpaConst.EMP_COL_NAME, JpaConst.REP_COL_REP_DATE,
+            JpaConst.REP_COL_TITLE, JpaConst.REP_COL_CONTENT, JpaConst.REP_COL_CREATED_AT,
+            JpaConst.REP_COL_UPDATED_AT };
+
+    //エクスポートする日時の形式
+    private static final DateTimeFormatter EXPORT_DATETIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
     /**
      * 指定した従業員が作成した日報データを、指定されたページ数の一覧画面に表示する分取得しReportViewのリストで返却する
+     * (後半のページは古い方から読み飛ばすため、最後のページも先頭のページと同じく読み飛ばす行がほとんどない)
      * @param employee 従業員
      * @param page ページ数
+     * @param count 従業員が作成した日報データの件数
      * @return 一覧画面に表示するデータのリスト
      */
-    public List<ReportView> getMinePerPage(EmployeeView employee, int page) {
+    public List<ReportView> getMinePerPage(EmployeeView employee, int page, long count) {
+
+        int first = JpaConst.ROW_PER_PAGE * (page - 1);
+        int end = (int) Math.min(count, (long) first + JpaConst.ROW_PER_PAGE);
+        if (first <= count - end) {
+            List<Object[]> reports = entityManager.createNamedQuery(JpaConst.Q_REP_GET_ALL_MINE, Object[].class)
+                    .setParameter(JpaConst.JPQL_PARM_EMPLOYEE, EmployeeConverter.toModel(employee))
+                    .setFirstResult(first)
+                    .setMaxResults(JpaConst.ROW_PER_PAGE)
+                    .getResultList();
+            return ReportConverter.toListViewList(reports);
+        }
+        if (end <= first) {
+            return Collections.emptyList();
+        }
+
+        //最も古い日報(idは1以上)から昇順に数えて、ページの範囲を取得する
+        List<Object[]> reports = entityManager.createNamedQuery(JpaConst.Q_REP_GET_MINE_BEFORE, Object[].class)
+                .setParameter(JpaConst.JPQL_PARM_EMPLOYEE, EmployeeConverter.toModel(employee))
+                .setParameter(JpaConst.JPQL_PARM_CURSOR, 0)
+                .setFirstResult((int) count - end)
+                .setMaxResults(end - first)
+                .getResultList();
+
+        //idの昇順で取得しているため、表示順(降順)に並べ替える
+        Collections.reverse(reports);
+        return ReportConverter.toListViewList(reports);
+    }
+
+    /**
+     * 指定した従業員が作成した日報データのうち、指定したidより古いものを一覧画面に表示する分取得しReportViewのリストで返却する
+     * (次ページ・近くのページの表示 読み飛ばす行は近くのページまでの分のみのため、ページが深くなっても取得時間が変わらない)
+     * @param employee 従業員
+     * @param cursor 現在のページの最後の日報のid
+     * @param skip 読み飛ばす件数(次ページの場合0)
+     * @return 一覧画面に表示するデータのリスト(idの降順)
+     */
+    public List<ReportView> getMineAfter(EmployeeView employee, int cursor, int skip) {
 
-        List<Report> reports = entityManager.createNamedQuery(JpaConst.Q_REP_GET_ALL_MINE, Report.class)
+        List<Object[]> reports = entityManager.createNamedQuery(JpaConst.Q_REP_GET_MINE_AFTER, Object[].class)
                 .setParameter(JpaConst.JPQL_PARM_EMPLOYEE, EmployeeConverter.toModel(employee))
-                .setFirstResult(JpaConst.ROW_PER_PAGE * (page - 1))
+                .setParameter(JpaConst.JPQL_PARM_CURSOR, cursor)
+                .setFirstResult(skip)
                 .setMaxResults(JpaConst.ROW_PER_PAGE)
                 .getResultList();
-        return ReportConverter.toViewList(reports);
+        return ReportConverter.toListViewList(reports);
+    }
+
+    /**
+     * 指定した従業員が作成した日報データのうち、指定したidより新しいものを一覧画面に表示する分取得しReportViewのリストで返却する
+     * (前ページ・近くのページの表示)
+     * @param employee 従業員
+     * @param cursor 現在のページの最初の日報のid
+     * @param skip 読み飛ばす件数(前ページの場合0)
+     * @return 一覧画面に表示するデータのリスト(idの降順)
+     */
+    public List<ReportView> getMineBefore(EmployeeView employee, int cursor, int skip) {
+
+        List<Object[]> reports = entityManager.createNamedQuery(JpaConst.Q_REP_GET_MINE_BEFORE, Object[].class)
+                .setParameter(JpaConst.JPQL_PARM_EMPLOYEE, EmployeeConverter.toModel(employee))
+                .setParameter(JpaConst.JPQL_PARM_CURSOR, cursor)
+                .setFirstResult(skip)
+                .setMaxResults(JpaConst.ROW_PER_PAGE)
+                .getResultList();
+
+        //idの昇順で取得しているため、表示順(降順)に並べ替える
+        Collections.reverse(reports);
+        return ReportConverter.toListViewList(reports);
     }
 
     /**
@@ -39,6 +146,13 @@ public class ReportService extends ServiceBase {
      */
     public long countAllMine(EmployeeView employee) {
 
+        //日報件数テーブルから取得する
+        ReportCounter counter = entityManager.find(ReportCounter.class, employee.getId());
+        if (counter != null) {
+            return counter.getReportCount();
+        }
+
+        //日報件数がまだ登録されていない場合は日報テーブルから数える
         long count = (long) entityManager.createNamedQuery(JpaConst.Q_REP_COUNT_ALL_MINE, Long.class)
                 .setParameter(JpaConst.JPQL_PARM_EMPLOYEE, EmployeeConverter.toModel(employee))
                 .getSingleResult();
@@ -48,16 +162,73 @@ public class ReportService extends ServiceBase {
 
     /**
      * 指定されたページ数の一覧画面に表示する日報データを取得し、ReportViewのリストで返却する
+     * (後半のページは古い方から読み飛ばすため、最後のページも先頭のページと同じく読み飛ばす行がほとんどない)
      * @param page ページ数
+     * @param count 全日報データの件数
      * @return 一覧画面に表示するデータのリスト
      */
-    public List<ReportView> getAllPerPage(int page) {
+    public List<ReportView> getAllPerPage(int page, long count) {
+
+        int first = JpaConst.ROW_PER_PAGE * (page - 1);
+        int end = (int) Math.min(count, (long) first + JpaConst.ROW_PER_PAGE);
+        if (first <= count - end) {
+            List<Object[]> reports = entityManager.createNamedQuery(JpaConst.Q_REP_GET_ALL, Object[].class)
+                    .setFirstResult(first)
+                    .setMaxResults(JpaConst.ROW_PER_PAGE)
+                    .getResultList();
+            return ReportConverter.toListViewList(reports);
+        }
+        if (end <= first) {
+            return Collections.emptyList();
+        }
 
-        List<Report> reports = entityManager.createNamedQuery(JpaConst.Q_REP_GET_ALL, Report.class)
-                .setFirstResult(JpaConst.ROW_PER_PAGE * (page - 1))
+        //最も古い日報(idは1以上)から昇順に数えて、ページの範囲を取得する
+        List<Object[]> reports = entityManager.createNamedQuery(JpaConst.Q_REP_GET_BEFORE, Object[].class)
+                .setParameter(JpaConst.JPQL_PARM_CURSOR, 0)
+                .setFirstResult((int) count - end)
+                .setMaxResults(end - first)
+                .getResultList();
+
+        //idの昇順で取得しているため、表示順(降順)に並べ替える
+        Collections.reverse(reports);
+        return ReportConverter.toListViewList(reports);
+    }
+
+    /**
+     * 指定したidより古い日報データを一覧画面に表示する分取得し、ReportViewのリストで返却する
+     * (次ページ・近くのページの表示 読み飛ばす行は近くのページまでの分のみのため、ページが深くなっても取得時間が変わらない)
+     * @param cursor 現在のページの最後の日報のid
+     * @param skip 読み飛ばす件数(次ページの場合0)
+     * @return 一覧画面に表示するデータのリスト(idの降順)
+     */
+    public List<ReportView> getAllAfter(int cursor, int skip) {
+
+        List<Object[]> reports = entityManager.createNamedQuery(JpaConst.Q_REP_GET_AFTER, Object[].class)
+                .setParameter(JpaConst.JPQL_PARM_CURSOR, cursor)
+                .setFirstResult(skip)
+                .setMaxResults(JpaConst.ROW_PER_PAGE)
+                .getResultList();
+        return ReportConverter.toListViewList(reports);
+    }
+
+    /**
+     * 指定したidより新しい日報データを一覧画面に表示する分取得し、ReportViewのリストで返却する
+     * (前ページ・近くのページの表示)
+     * @param cursor 現在のページの最初の日報のid
+     * @param skip 読み飛ばす件数(前ページの場合0)
+     * @return 一覧画面に表示するデータのリスト(idの降順)
+     */
+    public List<ReportView> getAllBefore(int cursor, int skip) {
+
+        List<Object[]> reports = entityManager.createNamedQuery(JpaConst.Q_REP_GET_BEFORE, Object[].class)
+                .setParameter(JpaConst.JPQL_PARM_CURSOR, cursor)
+                .setFirstResult(skip)
                 .setMaxResults(JpaConst.ROW_PER_PAGE)
                 .getResultList();
-        return ReportConverter.toViewList(reports);
+
+        //idの昇順で取得しているため、表示順(降順)に並べ替える
+        Collections.reverse(reports);
+        return ReportConverter.toListViewList(reports);
     }
 
     /**
@@ -65,11 +236,39 @@ public class ReportService extends ServiceBase {
      * @return データの件数
      */
     public long countAll() {
+
+        //日報件数テーブルの全従業員分の合計を取得する
+        Long total = entityManager.createNamedQuery(JpaConst.Q_REP_CNT_SUM, Long.class)
+                .getSingleResult();
+        if (total != null) {
+            return total;
+        }
+
+        //日報件数が1件も登録されていない場合(従業員がいない場合)は日報テーブルから数える
+        //(既存のデータベースでは sql/upgrade.sql で全従業員分を登録するため、一部の従業員分のみの合計にはならない)
         long reports_count = (long) entityManager.createNamedQuery(JpaConst.Q_REP_COUNT, Long.class)
                 .getSingleResult();
         return reports_count;
     }
 
+    /**
+     * 日報・従業員の最終更新日時を取得し、遅い方を返却する
+     * (日報一覧画面には従業員の氏名も表示するため、従業員の更新も含める)
+     * (一覧画面の内容が変わったかどうかの判定に使用する。テーブルが更新されるまではクエリキャッシュから取得する)
+     * @return 最終更新日時 データがない場合null
+     */
+    public LocalDateTime getLastUpdated() {
+        LocalDateTime report = entityManager.createNamedQuery(JpaConst.Q_REP_GET_LAST_UPDATED, LocalDateTime.class)
+                .getSingleResult();
+        LocalDateTime employee = entityManager.createNamedQuery(JpaConst.Q_EMP_GET_LAST_UPDATED, LocalDateTime.class)
+                .getSingleResult();
+
+        if (report == null || (employee != null && employee.isAfter(report))) {
+            return employee;
+        }
+        return report;
+    }
+
     /**
      * idを条件に取得したデータをReportViewのインスタンスで返却する
      * @param id
@@ -90,7 +289,12 @@ public class ReportService extends ServiceBase {
             LocalDateTime ldt = LocalDateTime.now();
             reportView.setCreatedAt(ldt);
             reportView.setUpdatedAt(ldt);
-            createInternal(reportView);
+
+            //書き込みキューが有効な場合は、他のリクエストの日報とまとめて登録されるまで待つ
+            //(キューを使用しない設定の場合や、キューが一杯の場合はこのリクエストで登録する)
+            if (!ReportWriteQueue.write(reportView)) {
+                createInternal(reportView);
+            }
         }
 
         //バリデーションで発生したエラーを返却（エラーがなければ0件の空リスト）
@@ -120,6 +324,313 @@ public class ReportService extends ServiceBase {
         return errors;
     }
 
+    /**
+     * 一括登録用のファイルの全ての行についてバリデーションを行う
+     * (登録前に全ての行をチェックし、エラーがある場合は1件も登録しない)
+     * @param inputStream 登録するファイル
+     * @param format ファイル形式
+     * @return 行番号付きのエラーのリスト(エラーがなければ0件の空リスト)
+     * @throws IOException
+     */
+    public List<String> validateImport(InputStream inputStream, ReportImportReader.Format format)
+            throws IOException {
+        List<String> errors = new ArrayList<String>();
+        int rows = 0;
+
+        try (ReportImportReader reader = new ReportImportReader(inputStream, format)) {
+            ReportImportReader.Row row;
+            while ((row = reader.next()) != null) {
+                rows++;
+
+                List<String> rowErrors = row.getError() != null
+                        ? Collections.singletonList(row.getError())
+                        : validateImportRow(row.getReport());
+
+                for (String error : rowErrors) {
+                    if (errors.size() >= IMPORT_MAX_ERRORS) {
+                        errors.add(MessageConst.E_IMPORT_TOO_MANY.getMessage());
+                        return errors;
+                    }
+                    errors.add(String.format(MessageConst.E_IMPORT_ROW.getMessage(), row.getRowNumber(), error));
+                }
+            }
+        }
+
+        if (rows == 0) {
+            errors.add(MessageConst.E_IMPORT_NOROW.getMessage());
+        }
+
+        return errors;
+    }
+
+    /**
+     * 一括登録用のファイルの1行分の日報についてバリデーションを行う
+     * (画面からの登録と同じチェックに加え、一部の行を登録した後にDBのエラーで中断しないよう、カラムの長さもチェックする)
+     * @param rv 日報の登録内容
+     * @return エラーのリスト
+     */
+    private List<String> validateImportRow(ReportView rv) {
+        List<String> errors = ReportValidator.validate(rv);
+
+        String title = rv.getTitle();
+        if (title != null && title.codePointCount(0, title.length()) > JpaConst.REP_TITLE_LENGTH) {
+            errors.add(String.format(MessageConst.E_IMPORT_TITLE_LENGTH.getMessage(), JpaConst.REP_TITLE_LENGTH));
+        }
+
+        return errors;
+    }
+
+    /**
+     * 一括登録用のファイルの日報を全て登録する(validateImportでチェック済みのファイルを指定する)
+     * ファイルを先頭から読みながら、一定件数ごとに1トランザクションでまとめて登録する
+     * 登録に失敗した場合は、それまでに登録した件数と失敗した行の範囲を返却し、以降の行は登録しない
+     * @param employee 日報を作成した従業員
+     * @param inputStream 登録するファイル
+     * @param format ファイル形式
+     * @return 登録結果
+     * @throws IOException
+     */
+    public ImportResult importReports(EmployeeView employee, InputStream inputStream,
+            ReportImportReader.Format format) throws IOException {
+        int chunkSize = Math.max(1, PropertyUtil.getIntValue(PropertyConst.REP_IMPORT_CHUNK_SIZE, 1000));
+        LocalDateTime ldt = LocalDateTime.now();
+        List<ReportView> chunk = new ArrayList<ReportView>(chunkSize);
+        int imported = 0;
+
+        //登録していない行の最初と最後の行番号
+        int firstRow = 0;
+        int lastRow = 0;
+
+        try (ReportImportReader reader = new ReportImportReader(inputStream, format)) {
+            ReportImportReader.Row row;
+            while ((row = reader.next()) != null) {
+                ReportView rv = row.getReport();
+                rv.setEmployee(employee);
+                rv.setCreatedAt(ldt);
+                rv.setUpdatedAt(ldt);
+                if (chunk.isEmpty()) {
+                    firstRow = row.getRowNumber();
+                }
+                lastRow = row.getRowNumber();
+                chunk.add(rv);
+
+                if (chunk.size() == chunkSize) {
+                    if (!createChunk(employee.getId(), chunk)) {
+                        return new ImportResult(imported, firstRow, lastRow);
+                    }
+                    imported += chunk.size();
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                if (!createChunk(employee.getId(), chunk)) {
+                    return new ImportResult(imported, firstRow, lastRow);
+                }
+                imported += chunk.size();
+            }
+        } finally {
+            if (entityManager.getTransaction().isActive()) {
+                entityManager.getTransaction().rollback();
+            }
+
+            //Hibernateを経由せずに登録しているため、日報を含むクエリキャッシュを破棄する
+            entityManager.unwrap(Session.class).getSessionFactory().getCache().evictQueryRegions();
+
+            //日報一覧画面のキャッシュを無効にする
+            ReportListCache.invalidate();
+        }
+
+        return new ImportResult(imported, 0, 0);
+    }
+
+    /**
+     * 一括登録の1トランザクション分の日報を登録する
+     * @param employeeId 日報を作成した従業員のid
+     * @param reports 日報データのリスト
+     * @return 登録した場合true 失敗した場合false(トランザクションはロールバックする)
+     */
+    private boolean createChunk(int employeeId, List<ReportView> reports) {
+        try {
+            createAllInternal(employeeId, reports);
+            return true;
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            if (entityManager.getTransaction().isActive()) {
+                entityManager.getTransaction().rollback();
+            }
+            return false;
+        }
+    }
+
+    /**
+     * 条件に該当する日報データをidの昇順にCSV形式で書き出す
+     * DBからは前方向のみのカーソルで一定件数ずつ受け取り、書き出した行は保持しないため、
+     * 件数にかかわらず使用メモリは変わらない
+     * 利用者が入力した項目(社員番号・氏名・タイトル・内容)は、Excelなどで開いた際に数式として実行されないよう
+     * =、+、-、@、タブ、CRで始まる場合は先頭に ' を付けて書き出す
+     * @param writer 書き出し先(一定件数ごとにflushする)
+     * @param code 従業員の社員番号(nullの場合は全従業員)
+     * @param from 日報の日付の開始日(nullの場合は指定なし)
+     * @param to 日報の日付の終了日(nullの場合は指定なし)
+     * @return 書き出した件数
+     * @throws IOException
+     */
+    public int exportCsv(Writer writer, String code, LocalDate from, LocalDate to) throws IOException {
+        int fetchSize = Math.max(1, PropertyUtil.getIntValue(PropertyConst.REP_EXPORT_FETCH_SIZE, 1000));
+
+        //指定された条件のみをWHERE句に連結する
+        List<String> conditions = new ArrayList<String>();
+        if (code != null) {
+            conditions.add(JpaConst.Q_REP_EXPORT_COND_CODE);
+        }
+        if (from != null) {
+            conditions.add(JpaConst.Q_REP_EXPORT_COND_FROM);
+        }
+        if (to != null) {
+            conditions.add(JpaConst.Q_REP_EXPORT_COND_TO);
+        }
+        String jpql = JpaConst.Q_REP_EXPORT_SELECT
+                + (conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions))
+                + JpaConst.Q_REP_EXPORT_ORDER;
+
+        //エンティティではなく項目の値のみを取得するため、永続化コンテキストには何も保持されない
+        Query<?> query = entityManager.unwrap(Session.class).createQuery(jpql)
+                .setFetchSize(fetchSize)
+                .setReadOnly(true)
+                .setCacheable(false);
+        if (code != null) {
+            query.setParameter(JpaConst.JPQL_PARM_CODE, code);
+        }
+        if (from != null) {
+            query.setParameter(JpaConst.JPQL_PARM_DATE_FROM, from);
+        }
+        if (to != null) {
+            query.setParameter(JpaConst.JPQL_PARM_DATE_TO, to);
+        }
+
+        CsvUtil.writeRecord(writer, EXPORT_HEADER);
+
+        int count = 0;
+        try (ScrollableResults results = query.scroll(ScrollMode.FORWARD_ONLY)) {
+            while (results.next()) {
+                Object[] row = results.get();
+                CsvUtil.writeRecord(writer,
+                        String.valueOf(row[0]),
+                        CsvUtil.neutralizeFormula((String) row[1]),
+                        CsvUtil.neutralizeFormula((String) row[2]),
+                        String.valueOf(row[3]),
+                        CsvUtil.neutralizeFormula((String) row[4]),
+                        CsvUtil.neutralizeFormula((String) row[5]),
+                        ((LocalDateTime) row[6]).format(EXPORT_DATETIME),
+                        ((LocalDateTime) row[7]).format(EXPORT_DATETIME));
+
+                count++;
+                if (count % fetchSize == 0) {
+                    //書き出した分をクライアントに送信する
+                    writer.flush();
+                }
+            }
+        }
+        writer.flush();
+
+        return count;
+    }
+
+    /**
+     * 全ての日報データを全文検索用インデックスに登録する(ReportSearchIndexからインデックスの作り直し時に呼び出す)
+     * DBからは前方向のみのカーソルで一定件数ずつ受け取るため、件数にかかわらず使用メモリは変わらない
+     */
+    public void indexAll() {
+        indexRows(entityManager.unwrap(Session.class).getNamedQuery(JpaConst.Q_REP_GET_ALL_FOR_INDEX));
+    }
+
+    /**
+     * 指定した従業員の日報データを全文検索用インデックスに登録し直す(ReportSearchIndexから氏名の変更時に呼び出す)
+     * インデックスには氏名も保存・検索対象としているため、変更後の氏名で置き換える
+     * @param employeeId 従業員のid
+     */
+    public void indexMine(int employeeId) {
+        indexRows(entityManager.unwrap(Session.class).getNamedQuery(JpaConst.Q_REP_GET_MINE_FOR_INDEX)
+                .setParameter(JpaConst.JPQL_PARM_EMPLOYEE_ID, employeeId));
+    }
+
+    /**
+     * 全文検索用インデックスの作成に必要な項目を取得するクエリを実行し、結果をインデックスに登録する
+     * DBからは前方向のみのカーソルで一定件数ずつ受け取り、同じ件数ずつまとめてインデックスに反映する
+     * @param query 日報のid・従業員のid・氏名・日付・タイトル・内容を取得するクエリ
+     */
+    private void indexRows(Query<?> query) {
+        int fetchSize = Math.max(1, PropertyUtil.getIntValue(PropertyConst.REP_EXPORT_FETCH_SIZE, 1000));
+        query.setFetchSize(fetchSize).setReadOnly(true);
+
+        List<ReportView> chunk = new ArrayList<ReportView>(fetchSize);
+        try (ScrollableResults results = query.scroll(ScrollMode.FORWARD_ONLY)) {
+            while (results.next()) {
+                Object[] row = results.get();
+
+                EmployeeView ev = new EmployeeView();
+                ev.setId((Integer) row[1]);
+                ev.setName((String) row[2]);
+
+                chunk.add(new ReportView(
+                        (Integer) row[0], ev, (LocalDate) row[3], (String) row[4], (String) row[5], null, null));
+                if (chunk.size() >= fetchSize) {
+                    ReportSearchIndex.index(chunk);
+                    chunk.clear();
+                }
+            }
+        }
+        if (!chunk.isEmpty()) {
+            ReportSearchIndex.index(chunk);
+        }
+    }
+
+    /**
+     * 日報件数テーブルの件数を日報テーブルの実際の件数に合わせる
+     * 従業員ごとに行ロックを取得してから数え直すため、同時に行われる日報の登録と食い違うことはない
+     * 定期的に呼び出し、何らかの理由で生じたずれを補正する
+     */
+    public void reconcileCounters() {
+
+        List<Integer> employeeIds = entityManager.createNamedQuery(JpaConst.Q_EMP_GET_ALL_ID, Integer.class)
+                .getResultList();
+
+        for (Integer employeeId : employeeIds) {
+
+            //アプリケーションの終了時(補正処理のスレッドに割り込まれた場合)は残りの従業員を補正せずに終了する
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+
+            entityManager.getTransaction().begin();
+
+            ReportCounter counter = entityManager.find(ReportCounter.class, employeeId,
+                    LockModeType.PESSIMISTIC_WRITE);
+            long count = (long) entityManager.createNamedQuery(JpaConst.Q_REP_COUNT_ALL_MINE, Long.class)
+                    .setParameter(JpaConst.JPQL_PARM_EMPLOYEE, entityManager.getReference(Employee.class, employeeId))
+                    .getSingleResult();
+
+            boolean corrected = false;
+            if (counter == null) {
+                entityManager.persist(new ReportCounter(employeeId, count));
+                corrected = true;
+            } else if (counter.getReportCount() != count) {
+                counter.setReportCount(count);
+                corrected = true;
+            }
+
+            entityManager.getTransaction().commit();
+
+            if (corrected) {
+                //件数を補正した場合は日報一覧画面のキャッシュを無効にする
+                ReportListCache.invalidate();
+            }
+
+            //従業員数分のエンティティを保持し続けないよう永続化コンテキストを空にする
+            entityManager.clear();
+        }
+    }
+
     /**
      * idを条件にデータを1件取得する
      * @param id
@@ -135,10 +646,145 @@ public class ReportService extends ServiceBase {
      */
     private void createInternal(ReportView reportView) {
 
+        Report r = ReportConverter.toModel(reportView);
+
         entityManager.getTransaction().begin();
-        entityManager.persist(ReportConverter.toModel(reportView));
+        entityManager.persist(r);
+        addCount(reportView.getEmployee().getId(), 1);
         entityManager.getTransaction().commit();
 
+        //全文検索用インデックスに反映する
+        reportView.setId(r.getId());
+        ReportSearchIndex.index(reportView);
+
+        //日報一覧画面のキャッシュを無効にする
+        ReportListCache.invalidate();
+
+    }
+
+    /**
+     * 複数の従業員の日報データを1トランザクションでまとめて登録する(ReportWriteQueueの書き込みスレッドから呼び出す)
+     * コミットは全件で1回のみ行い、日報件数は従業員ごとにまとめて加算する
+     * (全文検索用インデックスと日報一覧画面のキャッシュへの反映は、コミット後に afterCreate で行う)
+     * @param reports 日報データのリスト(登録後、採番されたidを設定する)
+     */
+    void createGroup(List<ReportView> reports) {
+
+        List<Report> models = new ArrayList<Report>(reports.size());
+        Map<Integer, Long> counts = new LinkedHashMap<Integer, Long>();
+
+        try {
+            entityManager.getTransaction().begin();
+            for (ReportView rv : reports) {
+                Report r = ReportConverter.toModel(rv);
+                entityManager.persist(r);
+                models.add(r);
+                counts.merge(rv.getEmployee().getId(), 1L, Long::sum);
+            }
+            for (Map.Entry<Integer, Long> count : counts.entrySet()) {
+                addCount(count.getKey(), count.getValue());
+            }
+            entityManager.getTransaction().commit();
+        } finally {
+            if (entityManager.getTransaction().isActive()) {
+                entityManager.getTransaction().rollback();
+            }
+
+            //登録した日報を永続化コンテキストに保持し続けないようにする
+            entityManager.clear();
+        }
+
+        //採番されたidを設定する
+        for (int i = 0; i < reports.size(); i++) {
+            reports.get(i).setId(models.get(i).getId());
+        }
+    }
+
+    /**
+     * 書き込みキューから登録した日報を、全文検索用インデックスと日報一覧画面のキャッシュに反映する
+     * 登録はコミット済みのため、それぞれの処理が失敗しても例外は呼び出し元に返さず、他方の処理は続ける
+     * @param reports 登録した日報(idを設定済みのもの)のリスト
+     */
+    static void afterCreate(List<ReportView> reports) {
+        if (reports.isEmpty()) {
+            return;
+        }
+
+        //全文検索用インデックスに反映する(終了処理中でインデックスを閉じている場合など)
+        try {
+            ReportSearchIndex.index(reports);
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+        }
+
+        //日報一覧画面のキャッシュを無効にする
+        try {
+            ReportListCache.invalidate();
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * 日報データを1トランザクションでまとめて登録する
+     * (idを自動採番するエンティティはHibernateのバッチ登録の対象外となるため、JDBCバッチで直接登録する)
+     * @param employeeId 日報を作成した従業員のid
+     * @param reports 日報データのリスト
+     */
+    private void createAllInternal(int employeeId, List<ReportView> reports) {
+
+        entityManager.getTransaction().begin();
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(SQL_REP_INSERT, Statement.RETURN_GENERATED_KEYS)) {
+                for (ReportView rv : reports) {
+                    ps.setInt(1, employeeId);
+                    ps.setDate(2, Date.valueOf(rv.getReportDate()));
+                    ps.setString(3, rv.getTitle());
+                    ps.setString(4, rv.getContent());
+                    ps.setTimestamp(5, Timestamp.valueOf(rv.getCreatedAt()));
+                    ps.setTimestamp(6, Timestamp.valueOf(rv.getUpdatedAt()));
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+
+                //採番されたidを設定する(全文検索用インデックスへの登録に使用する)
+                try (ResultSet keys = ps.getGeneratedKeys()) {
+                    for (int i = 0; i < reports.size() && keys.next(); i++) {
+                        reports.get(i).setId(keys.getInt(1));
+                    }
+                }
+            }
+        });
+        addCount(employeeId, reports.size());
+        entityManager.getTransaction().commit();
+
+        //全文検索用インデックスに反映する(idを取得できなかった場合は次回起動時の作り直しで反映する)
+        //登録はコミット済みのため、反映に失敗しても登録の失敗としない
+        List<ReportView> indexed = new ArrayList<ReportView>(reports.size());
+        for (ReportView rv : reports) {
+            if (rv.getId() != null) {
+                indexed.add(rv);
+            }
+        }
+        try {
+            ReportSearchIndex.index(indexed);
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+        }
+
+    }
+
+    /**
+     * 指定した従業員の日報件数を加算する(呼び出し元のトランザクション内で実行する)
+     * 日報件数が未登録の従業員の場合は加算せず、定期的な補正処理で登録する
+     * @param employeeId 従業員のid
+     * @param amount 加算する件数
+     */
+    private void addCount(int employeeId, long amount) {
+        entityManager.createNamedQuery(JpaConst.Q_REP_CNT_ADD)
+                .setParameter(JpaConst.JPQL_PARM_AMOUNT, amount)
+                .setParameter(JpaConst.JPQL_PARM_EMPLOYEE_ID, employeeId)
+                .executeUpdate();
     }
 
     /**
@@ -152,6 +798,51 @@ public class ReportService extends ServiceBase {
         ReportConverter.copyViewToModel(r, reportView);
         entityManager.getTransaction().commit();
 
+        //全文検索用インデックスに反映する
+        ReportSearchIndex.index(reportView);
+
+        //日報一覧画面のキャッシュを無効にする
+        ReportListCache.invalidate();
+
+    }
+
+    /**
+     * 日報の一括登録の結果
+     */
+    public static class ImportResult {
+
+        //登録した件数
+        private final int imported;
+
+        //登録に失敗した行の範囲(失敗していない場合0)
+        private final int failedFromRow;
+        private final int failedToRow;
+
+        private ImportResult(int imported, int failedFromRow, int failedToRow) {
+            this.imported = imported;
+            this.failedFromRow = failedFromRow;
+            this.failedToRow = failedToRow;
+        }
+
+        public int getImported() {
+            return imported;
+        }
+
+        public int getFailedFromRow() {
+            return failedFromRow;
+        }
+
+        public int getFailedToRow() {
+            return failedToRow;
+        }
+
+        /**
+         * 登録に失敗した行があるかどうかを返却する
+         * @return 失敗した行がある場合true
+         */
+        public boolean isFailed() {
+            return failedFromRow > 0;
+        }
     }
 
 }
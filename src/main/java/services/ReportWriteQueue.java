@@ -0,0 +1,285 @@
+package services;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+import actions.views.ReportView;
+import constants.PropertyConst;
+import utilties.PropertyUtil;
+
+/**
+ * 日報の登録をまとめて行う書き込みキュー
+ * 登録するリクエストは日報をキューに入れてコミットの完了を待ち、1つの書き込みスレッドがキューに溜まった日報を
+ * 1トランザクションでまとめて登録する(同時に多数の登録があっても、コミットの回数はまとまった数ごとに1回になる)
+ * application.properties で report.writeBehind=true の場合のみ使用する
+ */
+public class ReportWriteQueue {
+
+    //キューを使用するかどうか
+    private static final boolean ENABLED = Boolean.parseBoolean(
+            PropertyUtil.getValue(PropertyConst.REP_WRITE_BEHIND));
+
+    //キューに入れることができる件数
+    private static final int QUEUE_SIZE = Math.max(1,
+            PropertyUtil.getIntValue(PropertyConst.REP_WRITE_BEHIND_QUEUE_SIZE, 1000));
+
+    //1トランザクションで登録する件数の上限
+    private static final int MAX_GROUP_SIZE = Math.max(1,
+            PropertyUtil.getIntValue(PropertyConst.REP_WRITE_BEHIND_MAX_GROUP_SIZE, 100));
+
+    //リクエストが登録の完了を待つ時間の上限(ナノ秒)
+    private static final long TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(Math.max(1,
+            PropertyUtil.getIntValue(PropertyConst.REP_WRITE_BEHIND_TIMEOUT_SECONDS, 10)));
+
+    //終了時にキューに残っている日報の登録を待つ時間(秒)
+    private static final int SHUTDOWN_SECONDS = 30;
+
+    //書き込みスレッドの終了を指示する要素
+    private static final Entry STOP = new Entry(null);
+
+    //登録を待っている日報
+    private static final BlockingQueue<Entry> queue = new ArrayBlockingQueue<Entry>(QUEUE_SIZE);
+
+    //登録したトランザクションの数と日報の件数
+    private static final LongAdder groups = new LongAdder();
+    private static final LongAdder reports = new LongAdder();
+
+    //書き込みスレッド(キューを使用しない場合はnull)
+    private static final Thread writer = ENABLED ? startWriter() : null;
+
+    //終了処理を開始したかどうか(開始後は新しい日報を受け付けない)
+    private static volatile boolean closed;
+
+    /**
+     * 日報をキューに入れ、他の日報とまとめて登録されるまで待つ
+     * 登録後、日報に採番されたidを設定する
+     * 待つ時間の上限を超えた場合、書き込みスレッドがまだ取り出していなければキューから取り除いてfalseを返却し、
+     * 取り出し済み(登録中)であれば登録されたかどうか分からないため例外とする(呼び出し元で登録し直すと二重に登録されるため)
+     * @param reportView 登録する日報(バリデーション済みのもの)
+     * @return 登録した場合true キューを使用しない設定の場合や、キューが一杯で受け付けられない場合、
+     *         時間内に登録が始まらなかった場合false
+     */
+    public static boolean write(ReportView reportView) {
+        if (!ENABLED || closed) {
+            return false;
+        }
+
+        Entry entry = new Entry(reportView);
+        if (!queue.offer(entry)) {
+            return false;
+        }
+
+        long deadline = System.nanoTime() + TIMEOUT_NANOS;
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    entry.future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                    return true;
+                } catch (InterruptedException e) {
+                    //割り込まれても上限の時間までは待つ(登録されたかどうか分からない状態を増やさない)
+                    interrupted = true;
+                } catch (TimeoutException e) {
+                    if (queue.remove(entry)) {
+                        //書き込みスレッドが取り出す前であれば、このリクエストで登録する
+                        return false;
+                    }
+                    throw new IllegalStateException("日報の登録が時間内に完了しませんでした", e);
+                }
+            }
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * 登録を待っている件数を返却する
+     * @return 件数
+     */
+    public static int getQueueSize() {
+        return queue.size();
+    }
+
+    /**
+     * 登録したトランザクションの数を返却する
+     * @return 件数
+     */
+    public static long getGroups() {
+        return groups.sum();
+    }
+
+    /**
+     * 登録した日報の件数を返却する
+     * @return 件数
+     */
+    public static long getReports() {
+        return reports.sum();
+    }
+
+    /**
+     * 新しい日報の受け付けを停止し、キューに残っている日報を登録してから書き込みスレッドを終了する
+     * アプリケーション終了時にリスナーから呼び出す
+     */
+    public static void shutdown() {
+        if (writer == null || closed) {
+            return;
+        }
+        closed = true;
+
+        try {
+            queue.put(STOP);
+            writer.join(TimeUnit.SECONDS.toMillis(SHUTDOWN_SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        //終了処理の開始と同時に入れられ、登録されなかった日報は、待っているリクエストにエラーを通知する
+        Entry entry;
+        while ((entry = queue.poll()) != null) {
+            entry.future.completeExceptionally(new IllegalStateException("アプリケーションを終了しています"));
+        }
+    }
+
+    /**
+     * 書き込みスレッドを開始する
+     * @return 書き込みスレッド
+     */
+    private static Thread startWriter() {
+        Thread thread = new Thread(ReportWriteQueue::run, "report-writer");
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    /**
+     * キューから日報を取り出して登録する処理を、終了を指示されるまで繰り返す
+     * 1件目が届くまで待ち、その時点でキューに溜まっている日報(上限まで)をまとめて登録する
+     * (登録している間に届いた日報は次のトランザクションでまとめて登録される)
+     */
+    private static void run() {
+        List<Entry> group = new ArrayList<Entry>(MAX_GROUP_SIZE);
+        boolean stopping = false;
+
+        while (!stopping) {
+            try {
+                group.add(queue.take());
+            } catch (InterruptedException e) {
+                //終了はSTOPで指示するため、割り込みは無視する
+                continue;
+            }
+            queue.drainTo(group, MAX_GROUP_SIZE - 1);
+
+            //終了の指示より前に入れられた日報は全て登録してから終了する
+            if (group.remove(STOP)) {
+                stopping = true;
+                queue.drainTo(group);
+            }
+
+            try {
+                writeGroup(group);
+            } catch (Throwable t) {
+                //想定外のエラーでも待っているリクエストには結果を通知し、書き込みスレッドは継続する
+                for (Entry entry : group) {
+                    entry.future.completeExceptionally(t);
+                }
+            }
+            group.clear();
+        }
+    }
+
+    /**
+     * 日報をまとめて1トランザクションで登録し、待っているリクエストに結果を通知する
+     * まとめたトランザクションが失敗した場合のみ、他の日報の登録を巻き込まないよう1件ずつ登録し直す
+     * (コミット後の処理(全文検索用インデックス・キャッシュ)の失敗では登録し直さない 二重に登録されるため)
+     * @param group 登録する日報
+     */
+    private static void writeGroup(List<Entry> group) {
+        if (group.isEmpty()) {
+            return;
+        }
+
+        List<Entry> committed;
+        try {
+            commit(toViews(group));
+            committed = group;
+        } catch (RuntimeException e) {
+            if (group.size() == 1) {
+                group.get(0).future.completeExceptionally(e);
+                return;
+            }
+            committed = new ArrayList<Entry>(group.size());
+            for (Entry entry : group) {
+                try {
+                    commit(Collections.singletonList(entry.reportView));
+                    committed.add(entry);
+                } catch (RuntimeException ex) {
+                    entry.future.completeExceptionally(ex);
+                }
+            }
+        }
+
+        //コミット後の処理は、失敗しても登録は完了しているためエラーとしない
+        ReportService.afterCreate(toViews(committed));
+        for (Entry entry : committed) {
+            entry.future.complete(null);
+        }
+    }
+
+    /**
+     * キューに入れた日報の登録内容を返却する
+     * @param entries キューに入れた日報
+     * @return 日報の登録内容
+     */
+    private static List<ReportView> toViews(List<Entry> entries) {
+        List<ReportView> views = new ArrayList<ReportView>(entries.size());
+        for (Entry entry : entries) {
+            views.add(entry.reportView);
+        }
+        return views;
+    }
+
+    /**
+     * 日報を1トランザクションで登録する(コミット後の処理は行わない)
+     * @param views 登録する日報
+     */
+    private static void commit(List<ReportView> views) {
+        ReportService service = new ReportService();
+        try {
+            service.createGroup(views);
+        } finally {
+            service.close();
+        }
+        groups.increment();
+        reports.add(views.size());
+    }
+
+    /**
+     * キューに入れる日報と、登録の完了を通知するFuture
+     */
+    private static final class Entry {
+
+        private final ReportView reportView;
+
+        private final CompletableFuture<Void> future = new CompletableFuture<Void>();
+
+        private Entry(ReportView reportView) {
+            this.reportView = reportView;
+        }
+    }
+}
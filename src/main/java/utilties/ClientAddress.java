@@ -0,0 +1,88 @@
+package utilties;
+
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import javax.servlet.http.HttpServletRequest;
+
+import constants.PropertyConst;
+
+//リクエストの接続元(クライアント)のアドレスを判定するクラス
+//リバースプロキシやロードバランサを経由する場合、request.getRemoteAddr() はプロキシのアドレスになるため、
+//信頼するプロキシから受け取ったリクエストに限り、プロキシが設定したヘッダ(X-Forwarded-For など)から判定する
+//(TomcatのRemoteIpValveを設定している場合は getRemoteAddr() が既にクライアントのアドレスになるため、信頼するプロキシは設定しない)
+public class ClientAddress {
+
+    //クライアントのアドレスを設定するヘッダ
+    private static final String HEADER = headerName(PropertyUtil.getValue(PropertyConst.CLIENT_ADDRESS_HEADER));
+
+    //信頼するプロキシのアドレス(正規表現) 未設定の場合はヘッダを参照しない
+    private static final Pattern TRUSTED_PROXIES = compile(
+            PropertyUtil.getValue(PropertyConst.CLIENT_ADDRESS_TRUSTED_PROXIES));
+
+    /**
+     * リクエストの接続元のアドレスを返却する
+     * ヘッダのアドレスを右(直前のプロキシが追加したもの)から順に確認し、信頼するプロキシでない最初のアドレスを返却する
+     * (クライアントが自身で設定した値は左側に残るため、偽装されたアドレスは使用しない)
+     * @param request リクエスト
+     * @return 接続元のアドレス
+     */
+    public static String of(HttpServletRequest request) {
+        String address = request.getRemoteAddr();
+        if (TRUSTED_PROXIES == null || !isTrusted(address)) {
+            return address;
+        }
+
+        String header = request.getHeader(HEADER);
+        if (header == null) {
+            return address;
+        }
+
+        String[] forwarded = header.split(",");
+        for (int i = forwarded.length - 1; i >= 0; i--) {
+            String candidate = forwarded[i].trim();
+            if (candidate.equals("")) {
+                continue;
+            }
+            address = candidate;
+            if (!isTrusted(candidate)) {
+                break;
+            }
+        }
+        return address;
+    }
+
+    /**
+     * 信頼するプロキシのアドレスかどうかを判定する
+     * @param address アドレス
+     * @return 信頼するプロキシの場合true
+     */
+    private static boolean isTrusted(String address) {
+        return address != null && TRUSTED_PROXIES.matcher(address).matches();
+    }
+
+    /**
+     * クライアントのアドレスを設定するヘッダ名を返却する(未設定の場合は X-Forwarded-For)
+     * @param value 設定値
+     * @return ヘッダ名
+     */
+    private static String headerName(String value) {
+        return value == null || value.trim().equals("") ? "X-Forwarded-For" : value.trim();
+    }
+
+    /**
+     * 信頼するプロキシのアドレスの設定値を解析する
+     * @param value 正規表現
+     * @return 解析した正規表現 未設定または不正な場合null(ヘッダを参照しない)
+     */
+    private static Pattern compile(String value) {
+        if (value == null || value.trim().equals("")) {
+            return null;
+        }
+        try {
+            return Pattern.compile(value.trim());
+        } catch (PatternSyntaxException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package utilties;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+//CSV形式(RFC 4180)の読み込み・書き出しを行うクラス
+public class CsvUtil {
+
+    /**
+     * 1レコード分の項目を読み込み、返却する
+     * ダブルクォートで囲まれた項目内のカンマ・改行・連続したダブルクォート("")に対応する
+     * @param reader 読み込み元(呼び出し側でバッファリングしておく)
+     * @return 項目のリスト 読み込むデータがない場合null
+     * @throws IOException
+     */
+    public static List<String> readRecord(Reader reader) throws IOException {
+        int c = reader.read();
+        if (c == -1) {
+            return null;
+        }
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+
+        while (c != -1) {
+            if (quoted) {
+                if (c == '"') {
+                    reader.mark(1);
+                    int next = reader.read();
+                    if (next == '"') {
+                        //連続したダブルクォートは1文字として扱う
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        reader.reset();
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\r' || c == '\n') {
+                if (c == '\r') {
+                    //CRLFの場合はLFも読み飛ばす
+                    reader.mark(1);
+                    if (reader.read() != '\n') {
+                        reader.reset();
+                    }
+                }
+                break;
+            } else {
+                field.append((char) c);
+            }
+            c = reader.read();
+        }
+        fields.add(field.toString());
+
+        return fields;
+    }
+
+    /**
+     * 項目をCSVの1レコードとして書き出す(改行を含む)
+     * カンマ・ダブルクォート・改行を含む項目はダブルクォートで囲む
+     * @param out 書き出し先
+     * @param fields 項目
+     * @throws IOException
+     */
+    public static void writeRecord(Appendable out, String... fields) throws IOException {
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) {
+                out.append(',');
+            }
+            String field = fields[i] == null ? "" : fields[i];
+            if (field.indexOf(',') >= 0 || field.indexOf('"') >= 0
+                    || field.indexOf('\n') >= 0 || field.indexOf('\r') >= 0) {
+                out.append('"').append(field.replace("\"", "\"\"")).append('"');
+            } else {
+                out.append(field);
+            }
+        }
+        out.append("\r\n");
+    }
+
+    /**
+     * 表計算ソフトで開いた際に数式として実行される項目(=、+、-、@、タブ、CRで始まるもの)の先頭に ' を付けて返却する
+     * (CSVインジェクション対策 利用者が入力した項目を書き出す場合に使用する)
+     * @param field 項目
+     * @return 数式として解釈されない項目(nullの場合はnull)
+     */
+    public static String neutralizeFormula(String field) {
+        if (field == null || field.isEmpty()) {
+            return field;
+        }
+        switch (field.charAt(0)) {
+        case '=':
+        case '+':
+        case '-':
+        case '@':
+        case '\t':
+        case '\r':
+            return "'" + field;
+        default:
+            return field;
+        }
+    }
+}
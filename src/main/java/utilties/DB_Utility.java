@@ -1,25 +1,134 @@
 package utilties;
 
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
+import javax.persistence.NamedQuery;
 import javax.persistence.Persistence;
+import javax.persistence.metamodel.EntityType;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 
 import constants.JpaConst;
 
 public class DB_Utility {
-    private static EntityManagerFactory emf;
+    private static volatile EntityManagerFactory emf;
+
+    //close() で破棄した後はtrue(終了処理の後に実行されたスレッドが、閉じられることのないコネクションプールを作らないようにする)
+    private static volatile boolean closed;
+
+    //persistence.xmlの設定を上書きするプロパティの接頭辞
+    private static final String PROPERTY_PREFIX = "hibernate.";
 
     //EntityManagerインスタンスを生成
     public static EntityManager createEntityManager() {
         return _getEntityManagerFactory().createEntityManager();
     }
 
-    //EntityManagerFactoryインスタンスを生成
+    /**
+     * EntityManagerFactoryインスタンスを生成し、名前付きクエリの事前コンパイルと接続確認を行う
+     * アプリケーション起動時にリスナーから1度だけ呼び出す(生成済みの場合は何もしない)
+     */
+    public static synchronized void init() {
+        if (emf != null) {
+            return;
+        }
+        closed = false;
+
+        //application.properties の hibernate.* の値で persistence.xml の設定を上書きする(コネクションプールの設定など)
+        EntityManagerFactory factory = Persistence.createEntityManagerFactory(JpaConst.PERSISTENCE_UNIT_NAME,
+                PropertyUtil.getValuesByPrefix(PROPERTY_PREFIX));
+
+        //ウォームアップに失敗した場合(テーブル定義が古い場合など)は、生成したコネクションプールを閉じてから例外を送出する
+        //(次のリクエストで再度生成するため、閉じないとリクエストごとにプールが残り続ける)
+        try {
+            EntityManager em = factory.createEntityManager();
+            try {
+                //全ての名前付きクエリを1度生成し、クエリプランをキャッシュさせる
+                for (String name : JpaConst.NAMED_QUERIES) {
+                    em.createNamedQuery(name);
+                }
+
+                //ウォームアップ用のクエリを実行し、コネクションとJDBCドライバを初期化しておく
+                em.createNamedQuery(JpaConst.Q_EMP_COUNT, Long.class).getSingleResult();
+            } finally {
+                em.close();
+            }
+        } catch (RuntimeException e) {
+            factory.close();
+            throw e;
+        }
+
+        emf = factory;
+    }
+
+    /**
+     * Hibernateの統計情報(クエリ・キャッシュごとの実行回数など)を返却する
+     * application.properties で hibernate.generate_statistics=true の場合のみ集計される
+     * @return 統計情報
+     */
+    public static Statistics getStatistics() {
+        return _getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+    }
+
+    /**
+     * 名前付きクエリの名前と、統計情報の集計に使われるクエリ(JPQL)の組み合わせを返却する
+     * (エンティティクラスの @NamedQuery から取得する)
+     * @return 名前とクエリの組み合わせ(JpaConst.NAMED_QUERIES の順)
+     */
+    public static Map<String, String> getNamedQueries() {
+
+        //全てのエンティティクラスに定義されている名前付きクエリ(@NamedQueries で複数指定したものを含む)
+        Map<String, String> defined = new HashMap<>();
+        for (EntityType<?> entity : _getEntityManagerFactory().getMetamodel().getEntities()) {
+            for (NamedQuery namedQuery : entity.getJavaType().getAnnotationsByType(NamedQuery.class)) {
+                defined.put(namedQuery.name(), namedQuery.query());
+            }
+        }
+
+        Map<String, String> queries = new LinkedHashMap<>();
+        for (String name : JpaConst.NAMED_QUERIES) {
+            String query = defined.get(name);
+            if (query != null) {
+                queries.put(name, query);
+            }
+        }
+        return queries;
+    }
+
+    /**
+     * EntityManagerFactoryインスタンスを破棄する(コネクションプールも合わせて閉じられる)
+     * アプリケーション終了時にリスナーから呼び出す(破棄した後は init() を呼び出すまで使用できない)
+     */
+    public static synchronized void close() {
+        closed = true;
+        if (emf != null) {
+            if (emf.isOpen()) {
+                emf.close();
+            }
+            emf = null;
+        }
+    }
+
+    //EntityManagerFactoryインスタンスを取得
+    //リスナーを経由しない場合(バッチ処理など)は初回呼び出し時に生成する
+    //close() で破棄した後は生成し直さずに例外を送出する
     private static EntityManagerFactory _getEntityManagerFactory() {
-        if (emf == null) {
-            emf = Persistence.createEntityManagerFactory(JpaConst.PERSISTENCE_UNIT_NAME);
+        EntityManagerFactory factory = emf;
+        if (factory == null) {
+            synchronized (DB_Utility.class) {
+                if (closed) {
+                    throw new IllegalStateException("EntityManagerFactoryは既に閉じられています");
+                }
+                init();
+                factory = emf;
+            }
         }
 
-        return emf;
+        return factory;
     }
 }
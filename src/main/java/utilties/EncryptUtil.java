@@ -1,14 +1,35 @@
 package utilties;
 
+import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.security.spec.InvalidKeySpecException;
+import java.util.Base64;
 
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
 import javax.xml.bind.DatatypeConverter;
 
+import constants.PropertyConst;
+
 //ハッシュ化処理を行うクラス
 public class EncryptUtil {
 
+    //PBKDF2で作成したハッシュ値の接頭辞 ("pbkdf2$繰り返し回数$ソルト$ハッシュ値" の形式で保存する)
+    private static final String PBKDF2_PREFIX = "pbkdf2";
+    private static final String PBKDF2_ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final int PBKDF2_SALT_BYTES = 16;
+    private static final int PBKDF2_HASH_BITS = 256;
+
+    //PBKDF2の繰り返し回数(大きくするほど総当たりに強くなるが、ログイン時のCPU負荷が増える)
+    private static final int PBKDF2_ITERATIONS = Math.max(1,
+            PropertyUtil.getIntValue(PropertyConst.PASSWORD_PBKDF2_ITERATIONS, 120000));
+
+    private static final SecureRandom random = new SecureRandom();
+
     //生のパスワード文字列とpepper文字列を連結した文字列をSHA-256関数でハッシュ化し、返却する
+    //(以前の形式 ログイン時の照合と、PBKDF2への移行にのみ使用する)
     public static String getPasswordEncrypt(String plainPass, String pepper) {
         String ret = "";
 
@@ -24,4 +45,66 @@ public class EncryptUtil {
 
         return ret;
     }
-}
\ No newline at end of file
+
+    //生のパスワード文字列とpepper文字列を連結した文字列を、ランダムなソルトを付けてPBKDF2でハッシュ化し、返却する
+    //(パスワードが空の場合は空文字を返却する)
+    public static String getPasswordHash(String plainPass, String pepper) {
+        if (plainPass == null || plainPass.equals("")) {
+            return "";
+        }
+
+        byte[] salt = new byte[PBKDF2_SALT_BYTES];
+        random.nextBytes(salt);
+        byte[] hash = pbkdf2(plainPass + pepper, salt, PBKDF2_ITERATIONS);
+
+        return String.join("$", PBKDF2_PREFIX, String.valueOf(PBKDF2_ITERATIONS),
+                Base64.getEncoder().encodeToString(salt), Base64.getEncoder().encodeToString(hash));
+    }
+
+    //生のパスワード文字列が保存済みのハッシュ値と一致するかを照合する(PBKDF2・以前のSHA-256の両方に対応する)
+    public static boolean verifyPassword(String plainPass, String pepper, String storedHash) {
+        if (plainPass == null || plainPass.equals("") || storedHash == null) {
+            return false;
+        }
+
+        byte[] expected;
+        byte[] actual;
+        String[] parts = storedHash.split("\\$");
+        if (parts.length == 4 && parts[0].equals(PBKDF2_PREFIX)) {
+            try {
+                int iterations = Integer.parseInt(parts[1]);
+                byte[] salt = Base64.getDecoder().decode(parts[2]);
+                expected = Base64.getDecoder().decode(parts[3]);
+                actual = pbkdf2(plainPass + pepper, salt, iterations);
+            } catch (IllegalArgumentException e) {
+                return false;
+            }
+        } else {
+            expected = storedHash.getBytes(StandardCharsets.US_ASCII);
+            actual = getPasswordEncrypt(plainPass, pepper).getBytes(StandardCharsets.US_ASCII);
+        }
+
+        //一致するまでの時間から推測されないよう、全てのバイトを比較する
+        return MessageDigest.isEqual(expected, actual);
+    }
+
+    //保存済みのハッシュ値が以前の形式、または現在と異なる繰り返し回数で作成されたものかを判定する
+    //(trueの場合はログイン成功時に現在の設定でハッシュ化し直す)
+    public static boolean needsRehash(String storedHash) {
+        String[] parts = storedHash == null ? new String[0] : storedHash.split("\\$");
+        return parts.length != 4 || !parts[0].equals(PBKDF2_PREFIX)
+                || !parts[1].equals(String.valueOf(PBKDF2_ITERATIONS));
+    }
+
+    //PBKDF2でハッシュ値を計算する
+    private static byte[] pbkdf2(String password, byte[] salt, int iterations) {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, PBKDF2_HASH_BITS);
+        try {
+            return SecretKeyFactory.getInstance(PBKDF2_ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (NoSuchAlgorithmException | InvalidKeySpecException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+}
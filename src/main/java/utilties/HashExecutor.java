@@ -0,0 +1,110 @@
+package utilties;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import constants.PropertyConst;
+
+//パスワードのハッシュ化を決められた数のスレッドで実行するクラス
+//ログインが集中しても、ハッシュ化に使用するCPUはスレッド数分までに抑えられる
+//(待ち行列が一杯の場合は受け付けず、リクエストを処理するスレッドが全てハッシュ化で埋まらないようにする)
+public class HashExecutor {
+
+    //ハッシュ化を実行するスレッドの数
+    private static final int THREADS = Math.max(1, PropertyUtil.getIntValue(PropertyConst.PASSWORD_HASH_THREADS,
+            Runtime.getRuntime().availableProcessors()));
+
+    //実行を待つことができる件数
+    private static final int QUEUE_SIZE = Math.max(1, PropertyUtil.getIntValue(PropertyConst.PASSWORD_HASH_QUEUE_SIZE, 64));
+
+    //終了時に実行中のハッシュ化の完了を待つ時間(秒)
+    private static final int SHUTDOWN_SECONDS = 10;
+
+    private static final ThreadPoolExecutor executor = createExecutor();
+
+    /**
+     * 処理をハッシュ化用のスレッドで実行し、完了するまで待って結果を返却する
+     * @param task 実行する処理
+     * @return 処理の結果
+     * @throws RejectedExecutionException 待ち行列が一杯で受け付けられない場合
+     */
+    public static <T> T execute(Callable<T> task) {
+        Future<T> future = executor.submit(task);
+
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return future.get();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * 実行を待っている件数を返却する
+     * @return 件数
+     */
+    public static int getQueueSize() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * 実行中の件数を返却する
+     * @return 件数
+     */
+    public static int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    /**
+     * 新しい処理の受け付けを停止し、実行中のハッシュ化の完了を待ってスレッドを終了する
+     * (再デプロイ時にスレッドが残り、webアプリケーションのクラスが解放されなくなるのを防ぐ)
+     * アプリケーション終了時にリスナーから呼び出す
+     */
+    public static void shutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(SHUTDOWN_SECONDS, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * スレッド数と待ち行列の長さを固定したExecutorを作成する
+     * @return Executor
+     */
+    private static ThreadPoolExecutor createExecutor() {
+        AtomicInteger count = new AtomicInteger();
+        return new ThreadPoolExecutor(THREADS, THREADS, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<Runnable>(QUEUE_SIZE),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+}
@@ -0,0 +1,83 @@
+package utilties;
+
+import java.util.concurrent.atomic.LongAdder;
+
+//処理時間の分布を固定の区切り(バケット)ごとに集計するクラス
+//記録はロックを取らずに行えるため、リクエスト処理中に呼び出しても負荷が小さい
+public class LatencyHistogram {
+
+    //バケットの上限値(秒) Prometheusのヒストグラムの "le" ラベルに対応する
+    private static final double[] BOUNDS = {
+            0.0005, 0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10 };
+
+    //バケットごとの件数(最後の要素は上限なし)
+    private final LongAdder[] buckets = new LongAdder[BOUNDS.length + 1];
+
+    //記録した処理時間の合計(ナノ秒)
+    private final LongAdder sumNanos = new LongAdder();
+
+    //記録した件数
+    private final LongAdder count = new LongAdder();
+
+    /**
+     * コンストラクタ
+     */
+    public LatencyHistogram() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * 処理時間を1件記録する
+     * @param nanos 処理時間(ナノ秒)
+     */
+    public void record(long nanos) {
+        double seconds = nanos / 1_000_000_000.0;
+        int i = 0;
+        while (i < BOUNDS.length && seconds > BOUNDS[i]) {
+            i++;
+        }
+        buckets[i].increment();
+        sumNanos.add(nanos);
+        count.increment();
+    }
+
+    /**
+     * バケットの上限値を返却する
+     * @return バケットの上限値(秒)の配列
+     */
+    public static double[] getBounds() {
+        return BOUNDS.clone();
+    }
+
+    /**
+     * 各バケットの累積件数を返却する(Prometheusのヒストグラム形式)
+     * @return 累積件数の配列(最後の要素は全件数)
+     */
+    public long[] getCumulativeCounts() {
+        long[] counts = new long[buckets.length];
+        long total = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            total += buckets[i].sum();
+            counts[i] = total;
+        }
+        return counts;
+    }
+
+    /**
+     * 記録した処理時間の合計を返却する
+     * @return 合計(秒)
+     */
+    public double getSumSeconds() {
+        return sumNanos.sum() / 1_000_000_000.0;
+    }
+
+    /**
+     * 記録した件数を返却する
+     * @return 件数
+     */
+    public long getCount() {
+        return count.sum();
+    }
+}
@@ -0,0 +1,209 @@
+package utilties;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import constants.PropertyConst;
+
+//ログインの試行回数を社員番号ごと・接続元アドレスごとに制限するクラス(トークンバケット方式)
+//試行ごとにトークンを1つ消費し、トークンは一定の速度で上限まで補充される
+//制限を超えた試行はパスワードのハッシュ化やDBへの問い合わせを行う前に拒否する
+public class LoginThrottle {
+
+    //保持するバケットの数の上限(社員番号・接続元アドレスそれぞれ)
+    private static final int MAX_ENTRIES = Math.max(1,
+            PropertyUtil.getIntValue(PropertyConst.LOGIN_THROTTLE_MAX_ENTRIES, 100000));
+
+    //上限に達した場合に、最後に使われた時刻が古いものから1度に破棄するバケットの数(上限の1割)
+    private static final int EVICT_BATCH = Math.max(1, MAX_ENTRIES / 10);
+
+    //社員番号ごとの制限
+    private static final Limiter byCode = new Limiter(
+            PropertyUtil.getIntValue(PropertyConst.LOGIN_THROTTLE_CODE_CAPACITY, 5),
+            PropertyUtil.getIntValue(PropertyConst.LOGIN_THROTTLE_CODE_PER_MINUTE, 1));
+
+    //接続元アドレスごとの制限
+    //(NATやプロキシの内側の従業員は同じアドレスを共有するため、始業時に一斉にログインしても拒否しない値にする)
+    private static final Limiter byAddress = new Limiter(
+            PropertyUtil.getIntValue(PropertyConst.LOGIN_THROTTLE_ADDRESS_CAPACITY, 300),
+            PropertyUtil.getIntValue(PropertyConst.LOGIN_THROTTLE_ADDRESS_PER_MINUTE, 60));
+
+    //受け付けた件数・拒否した件数
+    private static final LongAdder accepted = new LongAdder();
+    private static final LongAdder rejectedByCode = new LongAdder();
+    private static final LongAdder rejectedByAddress = new LongAdder();
+
+    /**
+     * ログインの試行を受け付けるかどうかを判定し、受け付ける場合はトークンを消費する
+     * @param code 入力された社員番号(未入力の場合は接続元アドレスのみで判定する 呼び出し元で最大文字数以下であることを確認する)
+     * @param address 接続元アドレス
+     * @return 受け付ける場合true 制限を超えている場合false
+     */
+    public static boolean tryAcquire(String code, String address) {
+        if (!byAddress.tryAcquire(address)) {
+            rejectedByAddress.increment();
+            return false;
+        }
+        if (code != null && !code.equals("") && !byCode.tryAcquire(code)) {
+            rejectedByCode.increment();
+            return false;
+        }
+
+        accepted.increment();
+        return true;
+    }
+
+    /**
+     * ログインに成功した社員番号の制限を解除する(失敗した試行で消費したトークンを元に戻す)
+     * @param code 社員番号
+     */
+    public static void reset(String code) {
+        byCode.reset(code);
+    }
+
+    public static long getAccepted() {
+        return accepted.sum();
+    }
+
+    public static long getRejectedByCode() {
+        return rejectedByCode.sum();
+    }
+
+    public static long getRejectedByAddress() {
+        return rejectedByAddress.sum();
+    }
+
+    public static long getEvictions() {
+        return byCode.evictions.sum() + byAddress.evictions.sum();
+    }
+
+    public static int getSize() {
+        return byCode.buckets.size() + byAddress.buckets.size();
+    }
+
+    //キーごとのバケットを保持し、試行を受け付けるかどうかを判定するクラス
+    private static class Limiter {
+
+        //キーごとのバケット(キーごとに別のロックを取得するため、異なるキーの判定は互いに待たない)
+        private final ConcurrentHashMap<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+        //バケットの容量(連続して受け付ける試行の回数)
+        private final int capacity;
+
+        //1ナノ秒あたりに補充するトークンの数
+        private final double refillPerNano;
+
+        //空のバケットが満杯に戻るまでの時間(これより長く使われていないバケットは破棄しても結果が変わらない)
+        private final long idleNanos;
+
+        //破棄したバケットの件数
+        private final LongAdder evictions = new LongAdder();
+
+        //破棄の処理を実行中かどうか(同時に複数のスレッドで実行しない)
+        private final AtomicBoolean sweeping = new AtomicBoolean();
+
+        Limiter(int capacity, int perMinute) {
+            this.capacity = Math.max(1, capacity);
+            this.refillPerNano = Math.max(1, perMinute) / 60_000_000_000.0;
+            this.idleNanos = (long) Math.ceil(this.capacity / refillPerNano);
+        }
+
+        boolean tryAcquire(String key) {
+            long now = System.nanoTime();
+
+            Bucket bucket = buckets.get(key);
+            if (bucket == null) {
+                if (buckets.size() >= MAX_ENTRIES) {
+                    //上限に達している場合は使われていないバケットを破棄する
+                    //(破棄できるバケットがない場合も、制限せずに受け付けることはせず、最後に使われた時刻が古いものを破棄する)
+                    sweep(now);
+                }
+                bucket = buckets.computeIfAbsent(key, k -> new Bucket(capacity, now));
+            }
+
+            return bucket.tryConsume(now, capacity, refillPerNano);
+        }
+
+        void reset(String key) {
+            if (key != null) {
+                buckets.remove(key);
+            }
+        }
+
+        private void sweep(long now) {
+            if (!sweeping.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                buckets.values().removeIf(bucket -> {
+                    if (bucket.isIdle(now, idleNanos)) {
+                        evictions.increment();
+                        return true;
+                    }
+                    return false;
+                });
+                if (buckets.size() >= MAX_ENTRIES) {
+                    evictLeastRecentlyUsed();
+                }
+            } finally {
+                sweeping.set(false);
+            }
+        }
+
+        /**
+         * 最後に使われた時刻が古いバケットから EVICT_BATCH 件を破棄する
+         * (1件ずつ破棄すると新しいキーのたびに全件を走査するため、まとめて破棄して走査の回数を減らす)
+         */
+        private void evictLeastRecentlyUsed() {
+            //最後に使われた時刻が新しいものを先頭にして、古いものを EVICT_BATCH 件まで残す
+            PriorityQueue<Map.Entry<String, Long>> oldest = new PriorityQueue<>(EVICT_BATCH + 1,
+                    Comparator.comparingLong((Map.Entry<String, Long> e) -> e.getValue()).reversed());
+            for (Map.Entry<String, Bucket> entry : buckets.entrySet()) {
+                oldest.add(Map.entry(entry.getKey(), entry.getValue().getUpdatedAt()));
+                if (oldest.size() > EVICT_BATCH) {
+                    oldest.poll();
+                }
+            }
+            for (Map.Entry<String, Long> entry : oldest) {
+                if (buckets.remove(entry.getKey()) != null) {
+                    evictions.increment();
+                }
+            }
+        }
+    }
+
+    //トークンバケット
+    private static class Bucket {
+        private double tokens;
+        private long updatedAt;
+
+        Bucket(int capacity, long now) {
+            this.tokens = capacity;
+            this.updatedAt = now;
+        }
+
+        synchronized boolean tryConsume(long now, int capacity, double refillPerNano) {
+            //前回からの経過時間分のトークンを補充する
+            tokens = Math.min(capacity, tokens + Math.max(0, now - updatedAt) * refillPerNano);
+            updatedAt = Math.max(updatedAt, now);
+
+            if (tokens >= 1) {
+                tokens -= 1;
+                return true;
+            }
+            return false;
+        }
+
+        synchronized boolean isIdle(long now, long idleNanos) {
+            return now - updatedAt >= idleNanos;
+        }
+
+        synchronized long getUpdatedAt() {
+            return updatedAt;
+        }
+    }
+}
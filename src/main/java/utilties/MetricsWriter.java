@@ -0,0 +1,106 @@
+package utilties;
+
+import java.io.PrintWriter;
+
+//集計値をPrometheusのテキスト形式で出力するクラス
+public class MetricsWriter {
+
+    private final PrintWriter writer;
+
+    /**
+     * コンストラクタ
+     * @param writer 出力先
+     */
+    public MetricsWriter(PrintWriter writer) {
+        this.writer = writer;
+    }
+
+    /**
+     * ゲージ(現在値)を出力する
+     * @param name メトリクス名
+     * @param help 説明
+     * @param value 値
+     */
+    public void gauge(String name, String help, double value) {
+        header(name, help, "gauge");
+        sample(name, "", value);
+    }
+
+    /**
+     * カウンタ(累積値)を出力する
+     * @param name メトリクス名
+     * @param help 説明
+     * @param value 値
+     */
+    public void counter(String name, String help, double value) {
+        header(name, help, "counter");
+        sample(name, "", value);
+    }
+
+    /**
+     * メトリクスの説明と種類を出力する
+     * 同じメトリクス名でラベル違いの値を出力する場合は、最初に1度だけ呼び出す
+     * @param name メトリクス名
+     * @param help 説明
+     * @param type 種類(gauge, counter, histogram)
+     */
+    public void header(String name, String help, String type) {
+        writer.println("# HELP " + name + " " + help);
+        writer.println("# TYPE " + name + " " + type);
+    }
+
+    /**
+     * 値を1行出力する
+     * @param name メトリクス名
+     * @param labels ラベル(例: route="Report.index")なしの場合は空文字
+     * @param value 値
+     */
+    public void sample(String name, String labels, double value) {
+        writer.print(name);
+        if (!labels.equals("")) {
+            writer.print("{" + labels + "}");
+        }
+        writer.print(" ");
+        writer.println(format(value));
+    }
+
+    /**
+     * ヒストグラムの値を出力する(ヘッダは出力しない)
+     * @param name メトリクス名
+     * @param labels ラベル なしの場合は空文字
+     * @param histogram 出力するヒストグラム
+     */
+    public void histogram(String name, String labels, LatencyHistogram histogram) {
+        double[] bounds = LatencyHistogram.getBounds();
+        long[] counts = histogram.getCumulativeCounts();
+        String prefix = labels.equals("") ? "" : labels + ",";
+
+        for (int i = 0; i < bounds.length; i++) {
+            sample(name + "_bucket", prefix + "le=\"" + format(bounds[i]) + "\"", counts[i]);
+        }
+        sample(name + "_bucket", prefix + "le=\"+Inf\"", counts[bounds.length]);
+        sample(name + "_sum", labels, histogram.getSumSeconds());
+        sample(name + "_count", labels, counts[bounds.length]);
+    }
+
+    /**
+     * ラベルの値をエスケープする
+     * @param value ラベルの値
+     * @return エスケープ後の値
+     */
+    public static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    /**
+     * 数値を出力用の文字列に変換する(整数の場合は小数点以下を出力しない)
+     * @param value 数値
+     * @return 文字列
+     */
+    private static String format(double value) {
+        if (value == Math.rint(value) && !Double.isInfinite(value)) {
+            return Long.toString((long) value);
+        }
+        return Double.toString(value);
+    }
+}
@@ -0,0 +1,119 @@
+package utilties;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+//コネクションプール(HikariCP)の稼働状況を集計するクラス
+//persistence.xmlの hibernate.hikari.metricsTrackerFactory に指定し、プール生成時にHikariCPから呼び出される
+public class PoolMetrics implements MetricsTrackerFactory {
+
+    //現在稼働中のプールの集計結果(プール未生成の場合null)
+    private static volatile Tracker current;
+
+    /**
+     * プール生成時にHikariCPから呼び出され、集計を行うインスタンスを返却する
+     */
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        Tracker tracker = new Tracker(poolName, poolStats);
+        current = tracker;
+        return tracker;
+    }
+
+    /**
+     * 現在稼働中のプールの集計結果を返却する
+     * @return 集計結果 プールが生成されていない場合null
+     */
+    public static Tracker getCurrent() {
+        return current;
+    }
+
+    /**
+     * 1つのプールについての集計結果
+     */
+    public static class Tracker implements IMetricsTracker {
+
+        private final String poolName;
+        private final PoolStats poolStats;
+
+        //コネクション取得の待ち時間
+        private final LatencyHistogram acquireTime = new LatencyHistogram();
+
+        //コネクションの使用時間(取得から返却まで)
+        private final LatencyHistogram usageTime = new LatencyHistogram();
+
+        //コネクション取得のタイムアウト回数
+        private final LongAdder timeouts = new LongAdder();
+
+        private Tracker(String poolName, PoolStats poolStats) {
+            this.poolName = poolName;
+            this.poolStats = poolStats;
+        }
+
+        @Override
+        public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+            acquireTime.record(elapsedAcquiredNanos);
+        }
+
+        @Override
+        public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+            usageTime.record(elapsedBorrowedMillis * 1_000_000L);
+        }
+
+        @Override
+        public void recordConnectionTimeout() {
+            timeouts.increment();
+        }
+
+        @Override
+        public void close() {
+            if (current == this) {
+                current = null;
+            }
+        }
+
+        public String getPoolName() {
+            return poolName;
+        }
+
+        //使用中のコネクション数
+        public int getActiveConnections() {
+            return poolStats.getActiveConnections();
+        }
+
+        //待機中(未使用)のコネクション数
+        public int getIdleConnections() {
+            return poolStats.getIdleConnections();
+        }
+
+        //コネクションの空きを待っているスレッド数
+        public int getPendingThreads() {
+            return poolStats.getPendingThreads();
+        }
+
+        //プール内のコネクション総数
+        public int getTotalConnections() {
+            return poolStats.getTotalConnections();
+        }
+
+        //プールの最大サイズ
+        public int getMaxConnections() {
+            return poolStats.getMaxConnections();
+        }
+
+        public LatencyHistogram getAcquireTime() {
+            return acquireTime;
+        }
+
+        public LatencyHistogram getUsageTime() {
+            return usageTime;
+        }
+
+        public long getTimeouts() {
+            return timeouts.sum();
+        }
+    }
+}
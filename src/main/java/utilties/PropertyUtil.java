@@ -0,0 +1,103 @@
+package utilties;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import constants.PropertyConst;
+
+//application.propertiesの値を取得するクラス
+//(サーブレットコンテキストを持たないユーティリティクラスからも設定値を参照できるようにする)
+public class PropertyUtil {
+
+    //プロパティファイル名
+    private static final String PROPERTY_FILE = "application.properties";
+
+    //読み込み済みのプロパティ(クラスロード時に1度だけ読み込む)
+    private static final Properties properties = load();
+
+    /**
+     * 指定されたキーの値を返却する
+     * システムプロパティに同じキーが設定されている場合はそちらを優先する
+     * @param key プロパティのキー
+     * @return プロパティの値 設定されていない場合null
+     */
+    public static String getValue(PropertyConst key) {
+        return getValue(key.getValue());
+    }
+
+    /**
+     * 指定されたキーの値を数値に変換して返却する
+     * @param key プロパティのキー
+     * @param defaultValue 設定されていない、または数値でない場合の値
+     * @return プロパティの値
+     */
+    public static int getIntValue(PropertyConst key, int defaultValue) {
+        String value = getValue(key);
+        if (value == null) {
+            return defaultValue;
+        }
+
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    /**
+     * 指定された接頭辞で始まるキーと値を全て返却する
+     * (例: "hibernate." を指定するとHibernateの設定を上書きする値を取得できる)
+     * @param prefix キーの接頭辞
+     * @return キーと値のマップ
+     */
+    public static Map<String, Object> getValuesByPrefix(String prefix) {
+        Map<String, Object> values = new HashMap<>();
+
+        for (String name : properties.stringPropertyNames()) {
+            if (name.startsWith(prefix)) {
+                values.put(name, getValue(name));
+            }
+        }
+        for (String name : System.getProperties().stringPropertyNames()) {
+            if (name.startsWith(prefix)) {
+                values.put(name, System.getProperty(name));
+            }
+        }
+
+        return values;
+    }
+
+    /**
+     * 指定されたキーの値を返却する
+     * @param name プロパティのキー
+     * @return プロパティの値
+     */
+    private static String getValue(String name) {
+        String value = System.getProperty(name);
+        if (value == null) {
+            value = properties.getProperty(name);
+        }
+        return value;
+    }
+
+    /**
+     * クラスパス上のプロパティファイルを読み込む
+     * @return 読み込んだプロパティ(ファイルがない場合は空)
+     */
+    private static Properties load() {
+        Properties props = new Properties();
+
+        try (InputStream inputStream = PropertyUtil.class.getClassLoader().getResourceAsStream(PROPERTY_FILE)) {
+            if (inputStream != null) {
+                props.load(inputStream);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+
+        return props;
+    }
+}
@@ -0,0 +1,101 @@
+package utilties;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import constants.PropertyConst;
+
+//リクエストの処理(Actionの実行)を、リクエストごとに作成する仮想スレッドで実行するクラス
+//application.properties で request.async=true の場合のみ使用する
+//
+//DBアクセスなどで処理を待っている間はコンテナのスレッドを占有しないため、
+//コンテナのスレッド数を増やさずに、同時に処理できるリクエストの数を増やせる
+//(DBへの同時アクセス数はコネクションプールの最大サイズまでに制限される)
+//(JDBCドライバ・コネクションプールがDBの応答を synchronized の中で待つと仮想スレッドがキャリアスレッドに固定され、
+// 同時アクセス数がキャリアスレッド数(CPUのコア数)までになるため、ロックで排他するバージョンを使用する)
+public class RequestExecutor {
+
+    //非同期で処理するかどうか
+    private static final boolean ENABLED = Boolean.parseBoolean(PropertyUtil.getValue(PropertyConst.REQUEST_ASYNC));
+
+    //非同期処理のタイムアウト(ミリ秒) 0の場合はタイムアウトしない
+    private static final long TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(
+            Math.max(0, PropertyUtil.getIntValue(PropertyConst.REQUEST_ASYNC_TIMEOUT_SECONDS, 0)));
+
+    //終了時に処理中のリクエストの完了を待つ時間(秒)
+    private static final int SHUTDOWN_SECONDS = 30;
+
+    //リクエストごとに仮想スレッドを作成するExecutor(非同期で処理しない場合はnull)
+    private static final ExecutorService executor = ENABLED ? Executors.newVirtualThreadPerTaskExecutor() : null;
+
+    //処理中のリクエスト数
+    private static final LongAdder active = new LongAdder();
+
+    /**
+     * リクエストを非同期で処理するかどうかを返却する
+     * @return 非同期で処理する場合true
+     */
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * 非同期処理のタイムアウトを返却する
+     * @return タイムアウト(ミリ秒) 0の場合はタイムアウトしない
+     */
+    public static long getTimeoutMillis() {
+        return TIMEOUT_MILLIS;
+    }
+
+    /**
+     * 処理を仮想スレッドで実行する(完了を待たずに戻る)
+     * @param task 実行する処理
+     * @throws RejectedExecutionException 終了処理の開始後で、処理を受け付けられない場合
+     */
+    public static void execute(Runnable task) {
+        active.increment();
+        try {
+            executor.execute(() -> {
+                try {
+                    task.run();
+                } finally {
+                    active.decrement();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            active.decrement();
+            throw e;
+        }
+    }
+
+    /**
+     * 仮想スレッドで処理中のリクエスト数を返却する
+     * @return 件数
+     */
+    public static long getActiveCount() {
+        return active.sum();
+    }
+
+    /**
+     * 新しい処理の受け付けを停止し、処理中のリクエストの完了を待つ
+     * アプリケーション終了時にリスナーから呼び出す
+     */
+    public static void shutdown() {
+        if (executor == null) {
+            return;
+        }
+
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(SHUTDOWN_SECONDS, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package utilties;
+
+import java.util.concurrent.atomic.LongAdder;
+
+//経路(action と command の組み合わせ)1件分のリクエストの処理状況を集計するクラス
+//処理時間は、全体・画面(jsp)の表示にかかった時間・それ以外(Actionの処理やDBへのアクセス)の時間に分けて記録する
+//記録はロックを取らずに行えるため、リクエスト処理中に呼び出しても負荷が小さい
+public class RequestMetrics {
+
+    //リクエスト全体の処理時間
+    private final LatencyHistogram totalTime = new LatencyHistogram();
+
+    //画面(jsp)の表示以外の処理時間
+    private final LatencyHistogram serviceTime = new LatencyHistogram();
+
+    //画面(jsp)の表示にかかった時間(フォワードしたリクエストのみ)
+    private final LatencyHistogram viewTime = new LatencyHistogram();
+
+    //処理中のリクエスト数
+    private final LongAdder inFlight = new LongAdder();
+
+    //処理中に例外が発生したリクエスト数
+    private final LongAdder errors = new LongAdder();
+
+    /**
+     * リクエストの処理開始を記録する
+     * @return 開始時刻(ナノ秒) end() に渡す
+     */
+    public long begin() {
+        inFlight.increment();
+        return System.nanoTime();
+    }
+
+    /**
+     * リクエストの処理終了を記録する
+     * @param startNanos begin() が返却した開始時刻
+     * @param viewNanos 画面(jsp)の表示にかかった時間(ナノ秒) フォワードしていない場合0
+     */
+    public void end(long startNanos, long viewNanos) {
+        long totalNanos = System.nanoTime() - startNanos;
+        inFlight.decrement();
+
+        totalTime.record(totalNanos);
+        serviceTime.record(Math.max(0, totalNanos - viewNanos));
+        if (viewNanos > 0) {
+            viewTime.record(viewNanos);
+        }
+    }
+
+    /**
+     * 処理中に例外が発生したことを記録する
+     */
+    public void error() {
+        errors.increment();
+    }
+
+    public LatencyHistogram getTotalTime() {
+        return totalTime;
+    }
+
+    public LatencyHistogram getServiceTime() {
+        return serviceTime;
+    }
+
+    public LatencyHistogram getViewTime() {
+        return viewTime;
+    }
+
+    public long getInFlight() {
+        return inFlight.sum();
+    }
+
+    public long getErrors() {
+        return errors.sum();
+    }
+}
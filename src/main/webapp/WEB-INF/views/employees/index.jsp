@@ -6,7 +6,6 @@
 <c:set var="actEmp" value="${ForwardConst.ACT_EMP.getValue()}" />
 <c:set var="commShow" value="${ForwardConst.CMD_SHOW.getValue()}" />
 <c:set var="commNew" value="${ForwardConst.CMD_NEW.getValue()}" />
-<c:set var="commIdx" value="${ForwardConst.CMD_INDEX.getValue()}" />
 
 <c:import url="../layout/app.jsp">
     <c:param name="content">
@@ -42,20 +41,11 @@
             </tbody>
         </table>
 
-        <div id="pagination">
-            （全 ${employees_count} 件）<br />
-            <c:forEach var="i" begin="1" end="${((employees_count - 1) / maxRow) + 1}" step="1">
-                <c:choose>
-                    <c:when test="${i == page}">
-                        <c:out value="${i}" />&nbsp;
-                    </c:when>
-                    <c:otherwise>
-                        <a href="<c:url value='?action=${actEmp}&command=${commIdx}&page=${i}' />"><c:out value="${i}" /></a>&nbsp;
-                    </c:otherwise>
-                </c:choose>
-            </c:forEach>
-        </div>
+        <c:import url="/WEB-INF/views/layout/_pager.jsp">
+            <c:param name="pagerAction" value="${actEmp}" />
+            <c:param name="pagerCount" value="${employees_count}" />
+        </c:import>
         <p><a href="<c:url value='?action=${actEmp}&command=${commNew}' />">新規従業員の登録</a></p>
 
     </c:param>
-</c:import>
\ No newline at end of file
+</c:import>
\ No newline at end of file
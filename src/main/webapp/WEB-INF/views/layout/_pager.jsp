@@ -0,0 +1,58 @@
+<%@ page language="java" contentType="text/html; charset=UTF-8" pageEncoding="UTF-8"%>
+<%@ taglib prefix="c" uri="http://java.sun.com/jsp/jstl/core" %>
+<%@ page import="constants.ForwardConst" %>
+<%@ page import="constants.AttributeConst" %>
+
+<%-- 一覧画面のページ送り 呼び出し元で pagerAction(Action名)と pagerCount(全件数)を指定する --%>
+<%-- pagerCommand(コマンド名)を指定しない場合は一覧画面(index)へのリンクとする --%>
+<c:set var="commIdx" value="${ForwardConst.CMD_INDEX.getValue()}" />
+<c:set var="pagerComm" value="${empty param.pagerCommand ? commIdx : param.pagerCommand}" />
+<c:set var="pageAfter" value="${AttributeConst.PAGE_AFTER.getValue()}" />
+<c:set var="pageBefore" value="${AttributeConst.PAGE_BEFORE.getValue()}" />
+<c:set var="pageSkip" value="${AttributeConst.PAGE_SKIP.getValue()}" />
+
+<div id="pagination">
+    （全 ${param.pagerCount} 件）<br />
+    <%-- 前後のページへは、カーソルがある場合はidから、ない場合(検索結果など)はページ数で移動する --%>
+    <c:choose>
+        <c:when test="${prevCursor != null}">
+            <a href="<c:url value='?action=${param.pagerAction}&command=${pagerComm}${param.pagerQuery}&page=${page - 1}&${pageBefore}=${prevCursor}' />">&lt;&nbsp;前へ</a>&nbsp;
+        </c:when>
+        <c:when test="${page > 1}">
+            <a href="<c:url value='?action=${param.pagerAction}&command=${pagerComm}${param.pagerQuery}&page=${page - 1}' />">&lt;&nbsp;前へ</a>&nbsp;
+        </c:when>
+    </c:choose>
+    <c:if test="${pagerBegin > 1}">
+        <a href="<c:url value='?action=${param.pagerAction}&command=${pagerComm}${param.pagerQuery}&page=1' />">1</a>&nbsp;
+        <c:if test="${pagerBegin > 2}">…&nbsp;</c:if>
+    </c:if>
+    <c:forEach var="i" begin="${pagerBegin}" end="${pagerEnd}" step="1">
+        <c:choose>
+            <c:when test="${i == page}">
+                <c:out value="${i}" />&nbsp;
+            </c:when>
+            <%-- 近くのページへは、現在のページの最初・最後のidから読み飛ばして移動する(ページが深くても読み飛ばす行が増えない) --%>
+            <c:when test="${i < page && i > 1 && prevCursor != null}">
+                <a href="<c:url value='?action=${param.pagerAction}&command=${pagerComm}${param.pagerQuery}&page=${i}&${pageBefore}=${prevCursor}&${pageSkip}=${(page - i - 1) * maxRow}' />"><c:out value="${i}" /></a>&nbsp;
+            </c:when>
+            <c:when test="${i > page && i < lastPage && nextCursor != null}">
+                <a href="<c:url value='?action=${param.pagerAction}&command=${pagerComm}${param.pagerQuery}&page=${i}&${pageAfter}=${nextCursor}&${pageSkip}=${(i - page - 1) * maxRow}' />"><c:out value="${i}" /></a>&nbsp;
+            </c:when>
+            <c:otherwise>
+                <a href="<c:url value='?action=${param.pagerAction}&command=${pagerComm}${param.pagerQuery}&page=${i}' />"><c:out value="${i}" /></a>&nbsp;
+            </c:otherwise>
+        </c:choose>
+    </c:forEach>
+    <c:if test="${pagerEnd < lastPage}">
+        <c:if test="${pagerEnd < lastPage - 1}">…&nbsp;</c:if>
+        <a href="<c:url value='?action=${param.pagerAction}&command=${pagerComm}${param.pagerQuery}&page=${lastPage}' />"><c:out value="${lastPage}" /></a>&nbsp;
+    </c:if>
+    <c:choose>
+        <c:when test="${nextCursor != null}">
+            <a href="<c:url value='?action=${param.pagerAction}&command=${pagerComm}${param.pagerQuery}&page=${page + 1}&${pageAfter}=${nextCursor}' />">次へ&nbsp;&gt;</a>
+        </c:when>
+        <c:when test="${page < lastPage}">
+            <a href="<c:url value='?action=${param.pagerAction}&command=${pagerComm}${param.pagerQuery}&page=${page + 1}' />">次へ&nbsp;&gt;</a>
+        </c:when>
+    </c:choose>
+</div>
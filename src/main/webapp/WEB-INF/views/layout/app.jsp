@@ -7,33 +7,37 @@
 <c:set var="actEmp" value="${ForwardConst.ACT_EMP.getValue()}" />
 <c:set var="actRep" value="${ForwardConst.ACT_REP.getValue()}" />
 <c:set var="actAuth" value="${ForwardConst.ACT_AUTH.getValue()}" />
+<c:set var="actMet" value="${ForwardConst.ACT_METRICS.getValue()}" />
 
 <c:set var="commIdx" value="${ForwardConst.CMD_INDEX.getValue()}" />
 <c:set var="commOut" value="${ForwardConst.CMD_LOGOUT.getValue()}" />
+<c:set var="commStat" value="${ForwardConst.CMD_STATISTICS.getValue()}" />
 
 <!DOCTYPE html>
 <html lang="ja">
 <head>
 <meta charset="UTF-8">
     <title><c:out value="日報管理システム" /></title>
-    <link rel="stylesheet" href="<c:url value='/css/reset.css' />">
-    <link rel="stylesheet" href="<c:url value='/css/style.css' />">
+    <%-- URLが変わらないよう、セッションIDを付けずに参照する(キャッシュさせるため) --%>
+    <link rel="stylesheet" href="${pageContext.request.contextPath}${assets['css/reset.css']}">
+    <link rel="stylesheet" href="${pageContext.request.contextPath}${assets['css/style.css']}">
 </head>
 <body>
     <div id="wrapper">
         <div id="header">
             <div id="header_menu">
                 <h1><a href="<c:url value='/?action=${actTop}&command=${commIdx}' />">日報管理システム</a></h1>&nbsp;&nbsp;&nbsp;
-                <c:if test="${sessionScope.login_employee != null}">
-                    <c:if test="${sessionScope.login_employee.adminFlag == AttributeConst.ROLE_ADMIN.getIntegerValue()}">
+                <c:if test="${login_employee != null}">
+                    <c:if test="${login_employee.adminFlag == AttributeConst.ROLE_ADMIN.getIntegerValue()}">
                         <a href="<c:url value='?action=${actEmp}&command=${commIdx}' />">従業員管理</a>&nbsp;
+                        <a href="<c:url value='?action=${actMet}&command=${commStat}' />">統計情報</a>&nbsp;
                     </c:if>
                     <a href="<c:url value='?action=${actRep}&command=${commIdx}' />">日報管理</a>&nbsp;
                 </c:if>
             </div>
-            <c:if test="${sessionScope.login_employee != null}">
+            <c:if test="${login_employee != null}">
                 <div id="employee_name">
-                    <c:out value="${sessionScope.login_employee.name}" />
+                    <c:out value="${login_employee.name}" />
                     &nbsp;さん&nbsp;&nbsp;&nbsp;
                     <a href="<c:url value='?action=${actAuth}&command=${commOut}' />">ログアウト</a>
                 </div>
@@ -43,4 +47,4 @@
         <div id="footer">by Kazuya Oda.</div>
     </div>
 </body>
-</html>
\ No newline at end of file
+</html>
\ No newline at end of file
@@ -13,6 +13,13 @@
                 社員番号かパスワードが間違っています。
             </div>
         </c:if>
+        <c:if test="${errors != null}">
+            <div id="flush_error">
+                <c:forEach var="error" items="${errors}">
+                    <c:out value="${error}" /><br />
+                </c:forEach>
+            </div>
+        </c:if>
         <c:if test="${flush != null}">
             <div id="flush_success">
                 <c:out value="${flush}"></c:out>
@@ -32,4 +39,4 @@
             <button type="submit">ログイン</button>
         </form>
     </c:param>
-</c:import>
\ No newline at end of file
+</c:import>
\ No newline at end of file
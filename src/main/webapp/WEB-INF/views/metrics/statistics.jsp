@@ -0,0 +1,141 @@
+<%@ page language="java" contentType="text/html; charset=UTF-8" pageEncoding="UTF-8"%>
+<%@ taglib prefix="c" uri="http://java.sun.com/jsp/jstl/core" %>
+<%@ taglib prefix="fmt" uri="http://java.sun.com/jsp/jstl/fmt" %>
+<%@ page import="constants.ForwardConst" %>
+<%@ page import="constants.AttributeConst" %>
+
+<c:set var="actMet" value="${ForwardConst.ACT_METRICS.getValue()}" />
+<c:set var="commReset" value="${ForwardConst.CMD_RESET_STATISTICS.getValue()}" />
+
+<c:import url="/WEB-INF/views/layout/app.jsp">
+    <c:param name="content">
+        <c:if test="${flush != null}">
+            <div id="flush_success">
+                <c:out value="${flush}"></c:out>
+            </div>
+        </c:if>
+        <h2>統計情報</h2>
+
+        <c:choose>
+            <c:when test="${statistics == null}">
+                <p>統計情報は収集されていません。(application.properties で hibernate.generate_statistics=true とすると収集されます)</p>
+            </c:when>
+            <c:otherwise>
+                <fmt:parseDate value="${statistics.startedAt}" pattern="yyyy-MM-dd'T'HH:mm:ss" var="startDay" type="date" />
+                <p><fmt:formatDate value="${startDay}" pattern="yyyy-MM-dd HH:mm:ss" /> からの累計です。</p>
+
+                <h3>全体</h3>
+                <table class="statistics_list">
+                    <tbody>
+                        <tr>
+                            <th>セッション数</th>
+                            <th>SQL実行数</th>
+                            <th>クエリ実行数</th>
+                            <th>エンティティ読み込み</th>
+                            <th>エンティティ個別取得</th>
+                            <th>コレクション個別取得</th>
+                        </tr>
+                        <tr>
+                            <td>${statistics.sessionOpenCount}</td>
+                            <td>${statistics.prepareStatementCount}</td>
+                            <td>${statistics.queryExecutionCount}</td>
+                            <td>${statistics.entityLoadCount}</td>
+                            <td>${statistics.entityFetchCount}</td>
+                            <td>${statistics.collectionFetchCount}</td>
+                        </tr>
+                    </tbody>
+                </table>
+                <table class="statistics_list">
+                    <tbody>
+                        <tr>
+                            <th>二次キャッシュ ヒット</th>
+                            <th>二次キャッシュ ミス</th>
+                            <th>二次キャッシュ 格納</th>
+                            <th>クエリキャッシュ ヒット</th>
+                            <th>クエリキャッシュ ミス</th>
+                            <th>クエリキャッシュ 格納</th>
+                        </tr>
+                        <tr>
+                            <td>${statistics.secondLevelCacheHitCount}</td>
+                            <td>${statistics.secondLevelCacheMissCount}</td>
+                            <td>${statistics.secondLevelCachePutCount}</td>
+                            <td>${statistics.queryCacheHitCount}</td>
+                            <td>${statistics.queryCacheMissCount}</td>
+                            <td>${statistics.queryCachePutCount}</td>
+                        </tr>
+                    </tbody>
+                </table>
+
+                <h3>クエリ(合計実行時間の長い順)</h3>
+                <table class="statistics_list">
+                    <tbody>
+                        <tr>
+                            <th class="statistics_query">クエリ</th>
+                            <th>実行回数</th>
+                            <th>平均(ms)</th>
+                            <th>最大(ms)</th>
+                            <th>合計(ms)</th>
+                            <th>取得行数</th>
+                            <th>キャッシュ ヒット</th>
+                            <th>キャッシュ ミス</th>
+                        </tr>
+                        <c:forEach var="query" items="${statistics.queries}" varStatus="status">
+                            <tr class="row${status.count % 2}">
+                                <td class="statistics_query">
+                                    <c:choose>
+                                        <c:when test="${query.name != null}"><c:out value="${query.name}" /></c:when>
+                                        <c:otherwise>(名前なし)</c:otherwise>
+                                    </c:choose>
+                                    <br /><small><c:out value="${query.query}" /></small>
+                                </td>
+                                <td>${query.executionCount}</td>
+                                <td><fmt:formatNumber value="${query.averageMillis}" maxFractionDigits="2" /></td>
+                                <td>${query.maxMillis}</td>
+                                <td>${query.totalMillis}</td>
+                                <td>${query.rowCount}</td>
+                                <td>${query.cacheHitCount}</td>
+                                <td>${query.cacheMissCount}</td>
+                            </tr>
+                        </c:forEach>
+                    </tbody>
+                </table>
+
+                <h3>エンティティ</h3>
+                <table class="statistics_list">
+                    <tbody>
+                        <tr>
+                            <th>エンティティ</th>
+                            <th>読み込み</th>
+                            <th>個別取得</th>
+                            <th>登録</th>
+                            <th>更新</th>
+                            <th>削除</th>
+                            <th>二次キャッシュ ヒット</th>
+                            <th>二次キャッシュ ミス</th>
+                            <th>二次キャッシュ 格納</th>
+                        </tr>
+                        <c:forEach var="entity" items="${statistics.entities}" varStatus="status">
+                            <tr class="row${status.count % 2}">
+                                <td><c:out value="${entity.name}" /></td>
+                                <td>${entity.loadCount}</td>
+                                <td>${entity.fetchCount}</td>
+                                <td>${entity.insertCount}</td>
+                                <td>${entity.updateCount}</td>
+                                <td>${entity.deleteCount}</td>
+                                <td>${entity.cacheHitCount}</td>
+                                <td>${entity.cacheMissCount}</td>
+                                <td>${entity.cachePutCount}</td>
+                            </tr>
+                        </c:forEach>
+                    </tbody>
+                </table>
+                <p>個別取得の件数が読み込みの件数に比べて多い場合は、関連の参照ごとにSQLが実行されています。</p>
+
+                <form method="POST" action="<c:url value='?action=${actMet}&command=${commReset}' />">
+                    <input type="hidden" name="${AttributeConst.TOKEN.getValue()}" value="${_token}" />
+                    <button type="submit">統計情報をリセットする</button>
+                </form>
+            </c:otherwise>
+        </c:choose>
+    </c:param>
+</c:import>
@@ -18,7 +18,7 @@
 <br /><br />
 
 <label>氏名</label><br />
-<c:out value="${sessionScope.login_employee.name}" />
+<c:out value="${login_employee.name}" />
 <br /><br />
 
 <label for="${AttributeConst.REP_TITLE.getValue()}">タイトル</label><br />
@@ -30,4 +30,4 @@
 <br /><br />
 <input type="hidden" name="${AttributeConst.REP_ID.getValue()}" value="${report.id}" />
 <input type="hidden" name="${AttributeConst.TOKEN.getValue()}" value="${_token}" />
-<button type="submit">投稿</button>
\ No newline at end of file
+<button type="submit">投稿</button>
\ No newline at end of file
@@ -0,0 +1,38 @@
+<%@ page language="java" contentType="text/html; charset=UTF-8" pageEncoding="UTF-8"%>
+<%@ taglib prefix="c" uri="http://java.sun.com/jsp/jstl/core" %>
+<%@ page import="constants.ForwardConst" %>
+<%@ page import="constants.AttributeConst" %>
+
+<c:set var="action" value="${ForwardConst.ACT_REP.getValue()}" />
+<c:set var="commIdx" value="${ForwardConst.CMD_INDEX.getValue()}" />
+<c:set var="commImp" value="${ForwardConst.CMD_IMPORT.getValue()}" />
+
+<c:import url="/WEB-INF/views/layout/app.jsp">
+    <c:param name="content">
+        <h2>日報　一括登録ページ</h2>
+
+        <c:if test="${errors != null}">
+            <div id="flush_error">
+                ファイルの内容にエラーがあります。日報は登録されていません。<br />
+                <c:forEach var="error" items="${errors}">
+                    ・<c:out value="${error}" /><br />
+                </c:forEach>
+            </div>
+        </c:if>
+
+        <p>
+            CSV形式(1行目は項目名 report_date,title,content)、またはJSON Lines形式(拡張子 .jsonl)のファイルを選択してください。<br />
+            日付は yyyy-MM-dd 形式で指定し、空の場合は今日の日付で登録します。文字コードはUTF-8としてください。
+        </p>
+
+        <form method="POST" enctype="multipart/form-data" action="<c:url value='?action=${action}&command=${commImp}' />">
+            <label for="${AttributeConst.REP_IMPORT_FILE.getValue()}">ファイル</label><br />
+            <input type="file" name="${AttributeConst.REP_IMPORT_FILE.getValue()}" id="${AttributeConst.REP_IMPORT_FILE.getValue()}" accept=".csv,.jsonl,.json" />
+            <br /><br />
+            <input type="hidden" name="${AttributeConst.TOKEN.getValue()}" value="${_token}" />
+            <button type="submit">登録</button>
+        </form>
+
+        <p><a href="<c:url value='?action=${action}&command=${commIdx}' />">一覧に戻る</a></p>
+    </c:param>
+</c:import>
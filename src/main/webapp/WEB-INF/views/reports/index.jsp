@@ -2,11 +2,14 @@
 <%@ taglib prefix="c" uri="http://java.sun.com/jsp/jstl/core" %>
 <%@ taglib prefix="fmt" uri="http://java.sun.com/jsp/jstl/fmt" %>
 <%@ page import="constants.ForwardConst" %>
+<%@ page import="constants.AttributeConst" %>
 
 <c:set var="actRep" value="${ForwardConst.ACT_REP.getValue()}" />
-<c:set var="commIdx" value="${ForwardConst.CMD_INDEX.getValue()}" />
 <c:set var="commShow" value="${ForwardConst.CMD_SHOW.getValue()}" />
 <c:set var="commNew" value="${ForwardConst.CMD_NEW.getValue()}" />
+<c:set var="commImp" value="${ForwardConst.CMD_ENTRY_IMPORT.getValue()}" />
+<c:set var="commExp" value="${ForwardConst.CMD_EXPORT.getValue()}" />
+<c:set var="commSrch" value="${ForwardConst.CMD_SEARCH.getValue()}" />
 
 <c:import url="/WEB-INF/views/layout/app.jsp">
     <c:param name="content">
@@ -16,6 +19,7 @@
             </div>
         </c:if>
         <h2>日報　一覧</h2>
+        <p><a href="<c:url value='?action=${actRep}&command=${commSrch}' />">日報を検索する</a></p>
         <table id="report_list">
             <tbody>
                 <tr>
@@ -37,20 +41,24 @@
             </tbody>
         </table>
 
-        <div id="pagination">
-            （全 ${reports_count} 件）<br />
-            <c:forEach var="i" begin="1" end="${((reports_count - 1) / maxRow) + 1}" step="1">
-                <c:choose>
-                    <c:when test="${i == page}">
-                        <c:out value="${i}" />&nbsp;
-                    </c:when>
-                    <c:otherwise>
-                        <a href="<c:url value='?action=${actRep}&command=${commIdx}&page=${i}' />"><c:out value="${i}" /></a>&nbsp;
-                    </c:otherwise>
-                </c:choose>
-            </c:forEach>
-        </div>
+        <c:import url="/WEB-INF/views/layout/_pager.jsp">
+            <c:param name="pagerAction" value="${actRep}" />
+            <c:param name="pagerCount" value="${reports_count}" />
+        </c:import>
         <p><a href="<c:url value='?action=${actRep}&command=${commNew}' />">新規日報の登録</a></p>
+        <p><a href="<c:url value='?action=${actRep}&command=${commImp}' />">日報の一括登録</a></p>
+
+        <form method="GET" action="<c:url value='/' />">
+            <input type="hidden" name="${ForwardConst.ACT.getValue()}" value="${actRep}" />
+            <input type="hidden" name="${ForwardConst.CMD.getValue()}" value="${commExp}" />
+            <label for="${AttributeConst.REP_EXPORT_CODE.getValue()}">社員番号</label>
+            <input type="text" name="${AttributeConst.REP_EXPORT_CODE.getValue()}" id="${AttributeConst.REP_EXPORT_CODE.getValue()}" size="10" />
+            <label for="${AttributeConst.REP_EXPORT_FROM.getValue()}">日付</label>
+            <input type="date" name="${AttributeConst.REP_EXPORT_FROM.getValue()}" id="${AttributeConst.REP_EXPORT_FROM.getValue()}" />
+            ～
+            <input type="date" name="${AttributeConst.REP_EXPORT_TO.getValue()}" />
+            <button type="submit">CSVでダウンロード</button>
+        </form>
 
     </c:param>
-</c:import>
\ No newline at end of file
+</c:import>
\ No newline at end of file
@@ -0,0 +1,74 @@
+<%@ page language="java" contentType="text/html; charset=UTF-8" pageEncoding="UTF-8"%>
+<%@ taglib prefix="c" uri="http://java.sun.com/jsp/jstl/core" %>
+<%@ taglib prefix="fmt" uri="http://java.sun.com/jsp/jstl/fmt" %>
+<%@ page import="constants.ForwardConst" %>
+<%@ page import="constants.AttributeConst" %>
+
+<c:set var="actRep" value="${ForwardConst.ACT_REP.getValue()}" />
+<c:set var="commIdx" value="${ForwardConst.CMD_INDEX.getValue()}" />
+<c:set var="commShow" value="${ForwardConst.CMD_SHOW.getValue()}" />
+<c:set var="commSrch" value="${ForwardConst.CMD_SEARCH.getValue()}" />
+<c:set var="commReidx" value="${ForwardConst.CMD_REINDEX.getValue()}" />
+
+<c:import url="/WEB-INF/views/layout/app.jsp">
+    <c:param name="content">
+        <c:if test="${flush != null}">
+            <div id="flush_success">
+                <c:out value="${flush}"></c:out>
+            </div>
+        </c:if>
+        <h2>日報　検索</h2>
+
+        <form method="GET" action="<c:url value='/' />">
+            <input type="hidden" name="${ForwardConst.ACT.getValue()}" value="${actRep}" />
+            <input type="hidden" name="${ForwardConst.CMD.getValue()}" value="${commSrch}" />
+            <input type="text" name="${AttributeConst.SEARCH_QUERY.getValue()}" value="<c:out value='${q}' />" size="40" />
+            <button type="submit">検索</button>
+        </form>
+        <c:if test="${searchRebuilding}">
+            <p>検索用インデックスを作成中です。作成が完了するまで、最近登録された日報は検索結果に含まれない場合があります。</p>
+        </c:if>
+
+        <c:if test="${reports != null}">
+            <table id="report_list">
+                <tbody>
+                    <tr>
+                        <th class="report_name">氏名</th>
+                        <th class="report_date">日付</th>
+                        <th class="report_title">タイトル</th>
+                        <th class="report_action">操作</th>
+                    </tr>
+                    <c:forEach var="report" items="${reports}" varStatus="status">
+                        <fmt:parseDate value="${report.reportDate}" pattern="yyyy-MM-dd" var="reportDay" type="date" />
+
+                        <tr class="row${status.count % 2}">
+                            <td class="report_name"><c:out value="${report.employee.name}" /></td>
+                            <td class="report_date"><fmt:formatDate value='${reportDay}' pattern='yyyy-MM-dd' /></td>
+                            <td class="report_title"><c:out value="${report.title}" /></td>
+                            <td class="report_action"><a href="<c:url value='?action=${actRep}&command=${commShow}&id=${report.id}' />">詳細を見る</a></td>
+                        </tr>
+                    </c:forEach>
+                </tbody>
+            </table>
+
+            <c:if test="${searchTruncated}">
+                <p>該当する日報が多いため、関連度の高い ${reports_count} 件のみ表示しています。キーワードを追加して絞り込んでください。</p>
+            </c:if>
+            <c:import url="/WEB-INF/views/layout/_pager.jsp">
+                <c:param name="pagerAction" value="${actRep}" />
+                <c:param name="pagerCommand" value="${commSrch}" />
+                <c:param name="pagerQuery" value="${searchQueryParam}" />
+                <c:param name="pagerCount" value="${reports_count}" />
+            </c:import>
+        </c:if>
+
+        <c:if test="${login_employee.adminFlag == AttributeConst.ROLE_ADMIN.getIntegerValue()}">
+            <form method="POST" action="<c:url value='?action=${actRep}&command=${commReidx}' />">
+                <input type="hidden" name="${AttributeConst.TOKEN.getValue()}" value="${_token}" />
+                <button type="submit">検索用インデックスを作り直す</button>
+            </form>
+        </c:if>
+
+        <p><a href="<c:url value='?action=${actRep}&command=${commIdx}' />">一覧に戻る</a></p>
+    </c:param>
+</c:import>
@@ -8,7 +8,6 @@
 <c:set var="actRep" value="${ForwardConst.ACT_REP.getValue()}" />
 
 <c:set var="commShow" value="${ForwardConst.CMD_SHOW.getValue()}" />
-<c:set var="commIdx" value="${ForwardConst.CMD_INDEX.getValue()}" />
 <c:set var="commNew" value="${ForwardConst.CMD_NEW.getValue()}" />
 
 <c:import url="../layout/app.jsp">
@@ -40,19 +39,10 @@
             </tbody>
         </table>
 
-        <div id="pagination">
-            （全 ${reports_count} 件）<br />
-            <c:forEach var="i" begin="1" end="${((reports_count - 1) / maxRow) + 1}" step="1">
-                <c:choose>
-                    <c:when test="${i == page}">
-                        <c:out value="${i}" />&nbsp;
-                    </c:when>
-                    <c:otherwise>
-                        <a href="<c:url value='?action=${actTop}&command=${commIdx}&page=${i}' />"><c:out value="${i}" /></a>&nbsp;
-                    </c:otherwise>
-                </c:choose>
-            </c:forEach>
-        </div>
+        <c:import url="/WEB-INF/views/layout/_pager.jsp">
+            <c:param name="pagerAction" value="${actTop}" />
+            <c:param name="pagerCount" value="${reports_count}" />
+        </c:import>
         <p><a href="<c:url value='?action=${actRep}&command=${commNew}' />">新規日報の登録</a></p>
     </c:param>
-</c:import>
\ No newline at end of file
+</c:import>
\ No newline at end of file